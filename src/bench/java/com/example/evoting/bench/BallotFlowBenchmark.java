@@ -0,0 +1,111 @@
+package com.example.evoting.bench;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Platform-thread against virtual-thread request handling under the ballot
+ * flow. One operation is a burst of {@code sessions} voters arriving at once,
+ * each doing login, ballot page and vote over HTTP; the score is the time until
+ * the whole burst is served. With virtual threads the connection pool is gated
+ * by the admission controller, so the interesting numbers are the burst time and
+ * the {@code rejected} count printed at the end of each trial.
+ */
+@BenchmarkMode({ Mode.AverageTime, Mode.SampleTime })
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 10)
+@Measurement(iterations = 5, time = 20)
+@Fork(1)
+@State(Scope.Benchmark)
+public class BallotFlowBenchmark {
+
+    @Param({ "platform", "virtual" })
+    public String threads;
+
+    /** Concurrent voter sessions per burst. */
+    @Param({ "1000" })
+    public int sessions;
+
+    private BenchmarkApplication app;
+    private ExecutorService clients;
+    private VoterHttpClient http;
+    private long electionId;
+    private long firstCandidateId;
+    private long attempted;
+    private long rejected;
+
+    @Setup(Level.Trial)
+    public void start() {
+        app = BenchmarkApplication.start(sessions, Map.of(
+                "spring.threads.virtual.enabled", String.valueOf("virtual".equals(threads))));
+        clients = Executors.newVirtualThreadPerTaskExecutor();
+        http = new VoterHttpClient(app.port(), clients);
+    }
+
+    /**
+     * Every burst votes in a fresh election, so the same voters can vote again.
+     */
+    @Setup(Level.Invocation)
+    public void newElection() {
+        electionId = app.data().newElection("Ballot flow benchmark");
+        firstCandidateId = app.data().firstCandidateId(electionId);
+    }
+
+    @TearDown(Level.Trial)
+    public void stop() {
+        System.out.printf("%n%s threads: %d of %d sessions failed or rejected%n", threads, rejected, attempted);
+        clients.close();
+        app.close();
+    }
+
+    @Benchmark
+    public int burst() throws InterruptedException, ExecutionException {
+        List<Future<Boolean>> voters = new ArrayList<>(sessions);
+        for (long voterId = 1; voterId <= sessions; voterId++) {
+            long id = voterId;
+            voters.add(clients.submit(() -> session(id)));
+        }
+        int accepted = 0;
+        for (Future<Boolean> voter : voters) {
+            if (voter.get()) {
+                accepted++;
+            }
+        }
+        attempted += sessions;
+        rejected += sessions - accepted;
+        return accepted;
+    }
+
+    private boolean session(long voterId) throws IOException, InterruptedException {
+        String cookie = VoterHttpClient.sessionCookie(http.send(http.login(voterId)));
+        if (cookie == null) {
+            return false;
+        }
+        if (http.send(http.ballot(electionId, cookie)).statusCode() != 200) {
+            return false;
+        }
+        long candidateId = app.data().candidateFor(firstCandidateId, voterId);
+        return VoterHttpClient.isVoteAccepted(http.send(http.vote(electionId, voterId, candidateId, cookie)));
+    }
+}
@@ -0,0 +1,107 @@
+package com.example.evoting.bench;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.example.evoting.model.VoteOutcome;
+import com.example.evoting.service.ReportingService;
+
+/**
+ * {@link ReportingService#castVote} end to end: insert (which is also the
+ * duplicate check), tally increment, commit and live tally update. Run with {@code -t} to measure contention.
+ */
+@BenchmarkMode({ Mode.Throughput, Mode.SampleTime })
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 10)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CastVoteBenchmark {
+
+    /**
+     * Hands out (election, voter) pairs that have not voted yet. Every voter
+     * votes once per round; when a round runs out of voters a fresh election with
+     * the same candidates is created. That costs a few statements once every
+     * {@code voters} ballots, which is negligible for all but the smallest
+     * electorate.
+     */
+    @State(Scope.Benchmark)
+    public static class Ballots {
+
+        private SyntheticData data;
+        private volatile Round round;
+
+        @Setup(Level.Trial)
+        public void setUp(EvotingState state) {
+            data = state.data();
+            round = newRound();
+        }
+
+        long[] next() {
+            while (true) {
+                Round current = round;
+                long voterId = current.nextVoter.getAndIncrement();
+                if (voterId <= data.voters()) {
+                    return new long[] { current.electionId, voterId,
+                            data.candidateFor(current.firstCandidateId, voterId) };
+                }
+                rollOver(current);
+            }
+        }
+
+        private synchronized void rollOver(Round exhausted) {
+            if (round == exhausted) {
+                round = newRound();
+            }
+        }
+
+        private Round newRound() {
+            long electionId = data.newElection("Cast vote benchmark");
+            return new Round(electionId, data.firstCandidateId(electionId));
+        }
+    }
+
+    private record Round(long electionId, long firstCandidateId, AtomicLong nextVoter) {
+        Round(long electionId, long firstCandidateId) {
+            this(electionId, firstCandidateId, new AtomicLong(1));
+        }
+    }
+
+    private ReportingService service;
+    private SyntheticData data;
+
+    @Setup(Level.Trial)
+    public void setUp(EvotingState state) {
+        service = state.app.bean(ReportingService.class);
+        data = state.data();
+    }
+
+    @Benchmark
+    public VoteOutcome castVote(Ballots ballots) {
+        long[] ballot = ballots.next();
+        return service.castVote(ballot[0], ballot[1], ballot[2]);
+    }
+
+    /**
+     * A second ballot from a voter who has already voted (every even voter in the
+     * seeded election): one rejected insert, no commit.
+     */
+    @Benchmark
+    public VoteOutcome castDuplicateVote() {
+        long voterId = 2 * (ThreadLocalRandom.current().nextInt(data.voters() / 2) + 1);
+        return service.castVote(data.electionId(), voterId, data.candidateFor(data.firstCandidateId(), voterId));
+    }
+}
@@ -0,0 +1,309 @@
+package com.example.evoting.bench;
+
+import java.io.IOException;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+
+/**
+ * Rehearses polling day against the embedded application.
+ * <p>
+ * Generates the electorate with {@link SyntheticData}, then starts voter
+ * sessions on virtual threads following an arrival curve. Every session walks
+ * the real HTTP flow: {@code POST /login}, {@code GET /vote/{id}},
+ * {@code POST /vote} and {@code GET /results/{id}}. A configurable share of
+ * sessions submits its ballot twice, as voters do when a page is slow. At the
+ * end it prints throughput, p50/p99/p999 latency, error and busy (503) counts per endpoint
+ * and checks the vote table against the sessions that voted.
+ * <p>
+ * Run with {@code mvn -Pbenchmarks test-compile exec:exec@simulate} and pass
+ * options through {@code -Dsim.args="..."}:
+ * <ul>
+ * <li>{@code --voters=N} size of the electorate (default 100000)</li>
+ * <li>{@code --elections=N} ongoing elections; sessions are spread over them
+ * (default 1)</li>
+ * <li>{@code --rate=N} peak arrivals per second (default 200)</li>
+ * <li>{@code --duration=S} length of the polling day in seconds (default 60)</li>
+ * <li>{@code --curve=constant|ramp|polling-day} arrival curve (default
+ * polling-day: morning queue, midday lull, evening rush)</li>
+ * <li>{@code --duplicate-rate=F} share of sessions that double-submit (default
+ * 0.02)</li>
+ * <li>{@code --ingest-mode=direct|batched} {@code app.vote-ingest.mode}</li>
+ * <li>{@code --virtual-threads=true|false} {@code spring.threads.virtual.enabled}
+ * (default false)</li>
+ * </ul>
+ */
+public final class ElectionDaySimulator {
+
+    enum Curve {
+        CONSTANT {
+            @Override
+            double load(double t) {
+                return 1.0;
+            }
+        },
+        RAMP {
+            @Override
+            double load(double t) {
+                return t;
+            }
+        },
+        POLLING_DAY {
+            @Override
+            double load(double t) {
+                double morning = Math.exp(-Math.pow((t - 0.15) / 0.08, 2));
+                double evening = Math.exp(-Math.pow((t - 0.85) / 0.08, 2));
+                return Math.max(0.25, Math.max(0.8 * morning, evening));
+            }
+        };
+
+        /** Share of the peak arrival rate at {@code t}, the elapsed fraction of the day. */
+        abstract double load(double t);
+    }
+
+    private final VoterHttpClient http;
+    private final SyntheticData data;
+    private final long[] electionIds;
+    private final long[] firstCandidateIds;
+    private final double duplicateRate;
+
+    private final Map<String, Endpoint> endpoints = new LinkedHashMap<>();
+    private final LongAdder sessions = new LongAdder();
+    private final LongAdder failedSessions = new LongAdder();
+    private final LongAdder ballotsCast = new LongAdder();
+    private final LongAdder duplicateAttempts = new LongAdder();
+
+    private ElectionDaySimulator(VoterHttpClient http, SyntheticData data, long[] electionIds,
+            double duplicateRate) {
+        this.http = http;
+        this.data = data;
+        this.electionIds = electionIds;
+        this.firstCandidateIds = Arrays.stream(electionIds).map(data::firstCandidateId).toArray();
+        this.duplicateRate = duplicateRate;
+        for (String name : new String[] { "POST /login", "GET /vote/{id}", "POST /vote", "POST /vote (again)",
+                "GET /results/{id}" }) {
+            endpoints.put(name, new Endpoint());
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = parse(args);
+        int voters = Integer.parseInt(options.getOrDefault("voters", "100000"));
+        int elections = Integer.parseInt(options.getOrDefault("elections", "1"));
+        double rate = Double.parseDouble(options.getOrDefault("rate", "200"));
+        long durationSeconds = Long.parseLong(options.getOrDefault("duration", "60"));
+        Curve curve = Curve.valueOf(options.getOrDefault("curve", "polling-day").toUpperCase(Locale.ROOT)
+                .replace('-', '_'));
+        double duplicateRate = Double.parseDouble(options.getOrDefault("duplicate-rate", "0.02"));
+        String ingestMode = options.getOrDefault("ingest-mode", "direct");
+        String virtualThreads = options.getOrDefault("virtual-threads", "false");
+
+        System.out.printf("Generating %,d voters...%n", voters);
+        long started = System.nanoTime();
+        try (BenchmarkApplication app = BenchmarkApplication.start(voters,
+                Map.of("app.vote-ingest.mode", ingestMode, "spring.threads.virtual.enabled", virtualThreads));
+                // Not the session executor: finish() shuts that one down while the
+                // last sessions are still waiting for their responses.
+                ExecutorService clientThreads = Executors.newVirtualThreadPerTaskExecutor();
+                ExecutorService sessionThreads = Executors.newVirtualThreadPerTaskExecutor()) {
+            long[] electionIds = new long[elections];
+            for (int i = 0; i < elections; i++) {
+                electionIds[i] = app.data().newElection("Election day " + (i + 1));
+            }
+            System.out.printf("Ready in %.1fs, simulating %ds at up to %.0f sessions/s (%s)%n",
+                    (System.nanoTime() - started) / 1e9, durationSeconds, rate, curve);
+
+            ElectionDaySimulator simulator = new ElectionDaySimulator(
+                    new VoterHttpClient(app.port(), clientThreads), app.data(), electionIds, duplicateRate);
+            long elapsedNanos = simulator.run(sessionThreads, curve, rate, Duration.ofSeconds(durationSeconds));
+            simulator.report(elapsedNanos, app.bean(NamedParameterJdbcTemplate.class));
+        }
+    }
+
+    /**
+     * Releases sessions according to the curve until the day is over or every
+     * voter has voted, then waits for the sessions in flight.
+     */
+    private long run(ExecutorService sessionThreads, Curve curve, double peakRate, Duration day)
+            throws InterruptedException {
+        AtomicLong nextVoter = new AtomicLong(1);
+        long start = System.nanoTime();
+        long end = start + day.toNanos();
+        long last = start;
+        double due = 0;
+        while (true) {
+            long now = System.nanoTime();
+            if (now >= end) {
+                break;
+            }
+            double t = (double) (now - start) / day.toNanos();
+            due += curve.load(t) * peakRate * (now - last) / 1e9;
+            last = now;
+            for (; due >= 1; due--) {
+                long voterId = nextVoter.getAndIncrement();
+                if (voterId > data.voters()) {
+                    System.out.println("Every voter has voted; ending the day early.");
+                    return finish(sessionThreads, start);
+                }
+                sessionThreads.execute(() -> session(voterId));
+            }
+            TimeUnit.MILLISECONDS.sleep(5);
+        }
+        return finish(sessionThreads, start);
+    }
+
+    private long finish(ExecutorService sessionThreads, long start) throws InterruptedException {
+        sessionThreads.shutdown();
+        sessionThreads.awaitTermination(5, TimeUnit.MINUTES);
+        return System.nanoTime() - start;
+    }
+
+    private void session(long voterId) {
+        sessions.increment();
+        int index = (int) (voterId % electionIds.length);
+        long electionId = electionIds[index];
+        long candidateId = data.candidateFor(firstCandidateIds[index], voterId);
+        try {
+            String cookie = VoterHttpClient.sessionCookie(send("POST /login", http.login(voterId), 302));
+            if (cookie == null) {
+                endpoints.get("POST /login").errors.increment();
+                failedSessions.increment();
+                return;
+            }
+
+            send("GET /vote/{id}", http.ballot(electionId, cookie), 200);
+
+            HttpRequest ballot = http.vote(electionId, voterId, candidateId, cookie);
+            boolean accepted = VoterHttpClient.isVoteAccepted(send("POST /vote", ballot, 302));
+            if (ThreadLocalRandom.current().nextDouble() < duplicateRate) {
+                duplicateAttempts.increment();
+                // The resend counts when the first submission was turned away (503).
+                accepted |= VoterHttpClient.isVoteAccepted(send("POST /vote (again)", ballot, 302));
+            }
+            if (accepted) {
+                ballotsCast.increment();
+            }
+
+            send("GET /results/{id}", http.results(electionId, cookie), 200);
+        } catch (IOException e) {
+            failedSessions.increment();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private HttpResponse<Void> send(String endpoint, HttpRequest request, int expectedStatus)
+            throws IOException, InterruptedException {
+        Endpoint stats = endpoints.get(endpoint);
+        long start = System.nanoTime();
+        try {
+            HttpResponse<Void> response = http.send(request);
+            stats.latencies.record(System.nanoTime() - start);
+            if (response.statusCode() == 503) {
+                stats.busy.increment();
+            } else if (response.statusCode() != expectedStatus) {
+                stats.errors.increment();
+            }
+            return response;
+        } catch (IOException e) {
+            stats.latencies.record(System.nanoTime() - start);
+            stats.errors.increment();
+            throw e;
+        }
+    }
+
+    private void report(long elapsedNanos, NamedParameterJdbcTemplate jdbc) {
+        double seconds = elapsedNanos / 1e9;
+        System.out.println();
+        System.out.printf("%-20s %10s %8s %8s %10s %10s %10s %10s %10s%n",
+                "endpoint", "requests", "errors", "busy", "req/s", "p50 ms", "p99 ms", "p999 ms", "max ms");
+        endpoints.forEach((name, endpoint) -> {
+            long[] sorted = endpoint.latencies.sorted();
+            System.out.printf("%-20s %10d %8d %8d %10.1f %10.2f %10.2f %10.2f %10.2f%n",
+                    name, sorted.length, endpoint.errors.sum(), endpoint.busy.sum(), sorted.length / seconds,
+                    percentile(sorted, 0.50), percentile(sorted, 0.99), percentile(sorted, 0.999),
+                    sorted.length == 0 ? 0.0 : sorted[sorted.length - 1] / 1e6);
+        });
+
+        long voted = 0;
+        for (long electionId : electionIds) {
+            voted += jdbc.queryForObject("SELECT COUNT(*) FROM vote WHERE election_id = :electionId",
+                    new MapSqlParameterSource("electionId", electionId), Long.class);
+        }
+        long attempts = duplicateAttempts.sum();
+        long sessionCount = sessions.sum();
+        System.out.println();
+        System.out.printf("sessions: %d in %.1fs (%.1f/s), failed: %d (%.2f%%)%n", sessionCount, seconds,
+                sessionCount / seconds, failedSessions.sum(), rate(failedSessions.sum(), sessionCount));
+        System.out.printf("ballots accepted: %d, rows in vote table: %d%n", ballotsCast.sum(), voted);
+        System.out.printf("duplicate submissions: %d (%.2f%% of sessions), rows beyond accepted ballots: %d%n",
+                attempts, rate(attempts, sessionCount), Math.max(0, voted - ballotsCast.sum()));
+    }
+
+    private static double percentile(long[] sorted, double p) {
+        if (sorted.length == 0) {
+            return 0.0;
+        }
+        int index = (int) Math.min(sorted.length - 1, Math.ceil(p * sorted.length) - 1);
+        return sorted[Math.max(0, index)] / 1e6;
+    }
+
+    private static double rate(long part, long whole) {
+        return whole == 0 ? 0.0 : 100.0 * part / whole;
+    }
+
+    private static Map<String, String> parse(String[] args) {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            if (!arg.startsWith("--") || !arg.contains("=")) {
+                throw new IllegalArgumentException("Expected --name=value but got " + arg);
+            }
+            int eq = arg.indexOf('=');
+            options.put(arg.substring(2, eq), arg.substring(eq + 1));
+        }
+        return options;
+    }
+
+    private static final class Endpoint {
+        final LatencyLog latencies = new LatencyLog();
+        final LongAdder errors = new LongAdder();
+        final LongAdder busy = new LongAdder();
+    }
+
+    /**
+     * Every latency of one endpoint, in nanoseconds. Exact percentiles are
+     * cheap at simulator scale, and the append is negligible next to an HTTP
+     * round trip.
+     */
+    private static final class LatencyLog {
+        private long[] values = new long[1024];
+        private int size;
+
+        synchronized void record(long nanos) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = nanos;
+        }
+
+        synchronized long[] sorted() {
+            long[] copy = Arrays.copyOf(values, size);
+            Arrays.sort(copy);
+            return copy;
+        }
+    }
+}
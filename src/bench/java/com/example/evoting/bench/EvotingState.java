@@ -0,0 +1,45 @@
+package com.example.evoting.bench;
+
+import java.util.Map;
+
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+/**
+ * One running application and synthetic data set per trial, shared by all
+ * benchmark threads.
+ * <p>
+ * {@code voters} scales the electorate from 1K up to 10M
+ * ({@code -p voters=10000000}; give the fork a few GB of heap with
+ * {@code -jvmArgsAppend -Xmx8g}). {@code ingestMode} selects
+ * {@code app.vote-ingest.mode}.
+ */
+@State(Scope.Benchmark)
+public class EvotingState {
+
+    @Param({ "1000", "100000" })
+    public int voters;
+
+    @Param({ "direct" })
+    public String ingestMode;
+
+    public BenchmarkApplication app;
+
+    @Setup(Level.Trial)
+    public void start() {
+        app = BenchmarkApplication.start(voters, Map.of("app.vote-ingest.mode", ingestMode));
+    }
+
+    @TearDown(Level.Trial)
+    public void stop() {
+        app.close();
+    }
+
+    public SyntheticData data() {
+        return app.data();
+    }
+}
@@ -0,0 +1,83 @@
+package com.example.evoting.bench;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import com.example.evoting.model.Candidate;
+import com.example.evoting.model.CandidateTally;
+import com.example.evoting.model.ConstituencyResult;
+import com.example.evoting.repository.ReportingRepository;
+import com.example.evoting.service.ReportingService;
+import com.example.evoting.service.ReportingUserDetailsService;
+
+/**
+ * The read paths every voter session goes through: login, the ballot for the
+ * voter's constituency and the results page. Voters and constituencies are
+ * picked at random so caches see a realistic spread of keys.
+ */
+@BenchmarkMode({ Mode.Throughput, Mode.SampleTime })
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 10)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ReadPathBenchmark {
+
+    private ReportingService reportingService;
+    private ReportingRepository repository;
+    private ReportingUserDetailsService userDetailsService;
+    private SyntheticData data;
+
+    @Setup(Level.Trial)
+    public void setUp(EvotingState state) {
+        reportingService = state.app.bean(ReportingService.class);
+        repository = state.app.bean(ReportingRepository.class);
+        userDetailsService = state.app.bean(ReportingUserDetailsService.class);
+        data = state.data();
+    }
+
+    @Benchmark
+    public List<CandidateTally> loadVotesPerCandidate() {
+        return reportingService.loadVotesPerCandidate(data.electionId());
+    }
+
+    /**
+     * The SQL result query, which reads candidate_tally; its cost should not
+     * change with the number of ballots (compare the voters params).
+     */
+    @Benchmark
+    public List<CandidateTally> votesPerCandidateQuery() {
+        return repository.findVotesPerCandidate(data.electionId());
+    }
+
+    @Benchmark
+    public List<ConstituencyResult> loadConstituencyResults() {
+        return reportingService.loadConstituencyResults(data.electionId());
+    }
+
+    @Benchmark
+    public List<Candidate> findCandidatesByElectionAndConstituency() {
+        long constituencyId = ThreadLocalRandom.current().nextInt(data.constituencies()) + 1;
+        return reportingService.findCandidatesByElectionAndConstituency(data.electionId(), constituencyId);
+    }
+
+    @Benchmark
+    public UserDetails loadUserByUsername() {
+        long voterId = ThreadLocalRandom.current().nextInt(data.voters()) + 1;
+        return userDetailsService.loadUserByUsername(SyntheticData.nid(voterId));
+    }
+}
@@ -0,0 +1,73 @@
+package com.example.evoting.bench;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+
+import com.example.evoting.model.VoteRow;
+import com.example.evoting.repository.ReportingRepository;
+
+/**
+ * The admin voting-records page read through the typed {@code RowMapper}
+ * against the same query read with {@code queryForList}, which builds a
+ * case-insensitive {@code Map} per row. Run with {@code -prof gc} to compare
+ * allocation per operation.
+ */
+@BenchmarkMode({ Mode.Throughput, Mode.SampleTime })
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 10)
+@Fork(1)
+@State(Scope.Benchmark)
+public class RowMappingBenchmark {
+
+    @Param({ "50", "1000" })
+    public int pageSize;
+
+    private ReportingRepository repository;
+    private NamedParameterJdbcTemplate jdbc;
+    private long electionId;
+
+    @Setup(Level.Trial)
+    public void setUp(EvotingState state) {
+        repository = state.app.bean(ReportingRepository.class);
+        jdbc = state.app.bean(NamedParameterJdbcTemplate.class);
+        electionId = state.data().electionId();
+    }
+
+    @Benchmark
+    public List<VoteRow> rowMapper() {
+        return repository.findVotesByElectionPage(electionId, 0, pageSize);
+    }
+
+    @Benchmark
+    public void queryForList(Blackhole blackhole) {
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("electionId", electionId)
+                .addValue("afterId", 0)
+                .addValue("limit", pageSize);
+        for (Map<String, Object> row : jdbc.queryForList(ReportingRepository.SQL_VOTES_BY_ELECTION_PAGE, params)) {
+            blackhole.consume(((Number) row.get("vote_id")).longValue());
+            blackhole.consume(row.get("voter_name"));
+            blackhole.consume(row.get("voter_nid"));
+            blackhole.consume(row.get("candidate_name"));
+            blackhole.consume(row.get("party_name"));
+        }
+    }
+}
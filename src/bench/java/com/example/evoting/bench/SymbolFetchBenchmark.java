@@ -0,0 +1,80 @@
+package com.example.evoting.bench;
+
+import java.io.IOException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import com.example.evoting.controller.ImageController;
+import com.example.evoting.service.ReportingService;
+
+/**
+ * {@link ImageController} serving candidate symbols, both as a full response
+ * and as a 304 revalidation. Mock servlet objects keep Tomcat and the security
+ * filters out of the measurement, so the full response takes the
+ * {@code transferTo} branch rather than sendfile.
+ */
+@BenchmarkMode({ Mode.Throughput, Mode.SampleTime })
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 10)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SymbolFetchBenchmark {
+
+    /** 0 = original upload, otherwise a thumbnail size. */
+    @Param({ "0", "128" })
+    public int size;
+
+    private ImageController controller;
+    private SyntheticData data;
+    private int candidates;
+    private String etag;
+
+    @Setup(Level.Trial)
+    public void setUp(EvotingState state) {
+        controller = state.app.bean(ImageController.class);
+        data = state.data();
+        candidates = data.constituencies() * SyntheticData.CANDIDATES_PER_CONSTITUENCY;
+        etag = state.app.bean(ReportingService.class).getCandidateSymbol(data.firstCandidateId(), size).etag();
+    }
+
+    @Benchmark
+    public MockHttpServletResponse fetch() throws IOException {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        controller.getCandidateImage(randomCandidate(), size, new MockHttpServletRequest(), response);
+        return response;
+    }
+
+    @Benchmark
+    public MockHttpServletResponse revalidate() throws IOException {
+        // All candidates of the first party share a symbol, hence one ETag.
+        long candidateId = data.firstCandidateId()
+                + (long) ThreadLocalRandom.current().nextInt(data.constituencies())
+                        * SyntheticData.CANDIDATES_PER_CONSTITUENCY;
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.addHeader(HttpHeaders.IF_NONE_MATCH, etag);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        controller.getCandidateImage(candidateId, size, request, response);
+        return response;
+    }
+
+    private long randomCandidate() {
+        return data.firstCandidateId() + ThreadLocalRandom.current().nextInt(candidates);
+    }
+}
@@ -0,0 +1,121 @@
+package com.example.evoting.bench;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.Executor;
+
+/**
+ * Builds and sends the requests of a voter session against a running
+ * application. Redirects are not followed, so each step can be timed and
+ * checked on its own, and the session cookie is carried by hand so one
+ * {@link HttpClient} can serve any number of concurrent sessions.
+ */
+final class VoterHttpClient {
+
+    private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(30);
+
+    private final HttpClient client;
+    private final String baseUrl;
+
+    VoterHttpClient(int port, Executor executor) {
+        this.client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .followRedirects(HttpClient.Redirect.NEVER)
+                .connectTimeout(REQUEST_TIMEOUT)
+                .executor(executor)
+                .build();
+        this.baseUrl = "http://localhost:" + port;
+    }
+
+    HttpResponse<Void> send(HttpRequest request) throws IOException, InterruptedException {
+        return client.send(request, HttpResponse.BodyHandlers.discarding());
+    }
+
+    HttpRequest login(long voterId) {
+        return post("/login", Map.of(
+                "username", SyntheticData.nid(voterId),
+                "password", SyntheticData.password(voterId)), null);
+    }
+
+    HttpRequest ballot(long electionId, String cookie) {
+        return get("/vote/" + electionId, cookie);
+    }
+
+    /**
+     * A ballot submission with its own idempotency key; sending the same request
+     * again behaves like a browser double-submit.
+     */
+    HttpRequest vote(long electionId, long voterId, long candidateId, String cookie) {
+        return post("/vote", Map.of(
+                "electionId", String.valueOf(electionId),
+                "voterId", String.valueOf(voterId),
+                "candidateId", String.valueOf(candidateId),
+                "idempotencyKey", UUID.randomUUID().toString()), cookie);
+    }
+
+    HttpRequest results(long electionId, String cookie) {
+        return get("/results/" + electionId, cookie);
+    }
+
+    /**
+     * The session cookie set by a successful login, or {@code null} if the login
+     * was rejected.
+     */
+    static String sessionCookie(HttpResponse<?> login) {
+        if (login.statusCode() != 302 || login.headers().firstValue("Location").orElse("").contains("error")) {
+            return null;
+        }
+        for (String header : login.headers().allValues("Set-Cookie")) {
+            if (header.startsWith("JSESSIONID=")) {
+                int end = header.indexOf(';');
+                return end < 0 ? header : header.substring(0, end);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Whether {@code POST /vote} recorded the ballot (it redirects to the results
+     * page, or back to the ballot with an error).
+     */
+    static boolean isVoteAccepted(HttpResponse<?> vote) {
+        return vote.statusCode() == 302 && vote.headers().firstValue("Location").orElse("").contains("/results/");
+    }
+
+    private HttpRequest get(String path, String cookie) {
+        HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .timeout(REQUEST_TIMEOUT)
+                .GET();
+        if (cookie != null) {
+            builder.header("Cookie", cookie);
+        }
+        return builder.build();
+    }
+
+    private HttpRequest post(String path, Map<String, String> form, String cookie) {
+        StringBuilder body = new StringBuilder();
+        form.forEach((key, value) -> {
+            if (!body.isEmpty()) {
+                body.append('&');
+            }
+            body.append(URLEncoder.encode(key, StandardCharsets.UTF_8)).append('=')
+                    .append(URLEncoder.encode(value, StandardCharsets.UTF_8));
+        });
+        HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .timeout(REQUEST_TIMEOUT)
+                .header("Content-Type", "application/x-www-form-urlencoded")
+                .POST(HttpRequest.BodyPublishers.ofString(body.toString()));
+        if (cookie != null) {
+            builder.header("Cookie", cookie);
+        }
+        return builder.build();
+    }
+}
@@ -2,6 +2,7 @@ package com.example.evoting;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 /**
  * E-Voting System
@@ -9,6 +10,7 @@ import org.springframework.boot.autoconfigure.SpringBootApplication;
  * email: azihad783@gmail.com
  */
 @SpringBootApplication
+@EnableScheduling
 public class EvotingApplication {
 
     public static void main(String[] args) {
@@ -0,0 +1,153 @@
+package com.example.evoting.config;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * A concurrency limit with a bounded FIFO wait queue.
+ * <p>
+ * The limit adapts AIMD-style to the latency of the work it admits: every
+ * completion under {@code latencyTarget} grows it by {@code 1/limit} (about one
+ * per round of requests), and every completion over the target or reported as
+ * overloaded shrinks it by {@code backoff}. A fixed bulkhead is the same limiter
+ * with {@code minLimit == maxLimit}.
+ * <p>
+ * Callers that cannot be admitted immediately wait in arrival order for at
+ * most {@code queueTimeout}; when {@code maxQueue} callers are already waiting
+ * they are turned away at once.
+ */
+public class AdaptiveLimiter {
+
+    private static final double BACKOFF = 0.9;
+
+    private final String name;
+    private final int minLimit;
+    private final int maxLimit;
+    private final long latencyTargetNanos;
+    private final int maxQueue;
+    private final long queueTimeoutNanos;
+
+    // Fair, so waiters are woken in arrival order.
+    private final ReentrantLock lock = new ReentrantLock(true);
+    private final Condition permitFreed = lock.newCondition();
+    private double limit;
+    private int inFlight;
+    private int queued;
+    private long avgLatencyNanos;
+
+    public AdaptiveLimiter(String name, int initialLimit, int minLimit, int maxLimit, long latencyTargetMs,
+            int maxQueue, long queueTimeoutMs) {
+        this.name = name;
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.limit = Math.max(minLimit, Math.min(maxLimit, initialLimit));
+        this.latencyTargetNanos = TimeUnit.MILLISECONDS.toNanos(latencyTargetMs);
+        this.maxQueue = maxQueue;
+        this.queueTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(queueTimeoutMs);
+        this.avgLatencyNanos = latencyTargetNanos;
+    }
+
+    /**
+     * Waits for a slot. Returns {@code false} if the queue is full or the
+     * deadline passed; the caller must then not call {@link #release}.
+     */
+    public boolean acquire() throws InterruptedException {
+        lock.lock();
+        try {
+            // Arrivals only take a free slot directly if nobody is queued ahead.
+            if (queued == 0 && inFlight < (int) limit) {
+                inFlight++;
+                return true;
+            }
+            if (queued >= maxQueue) {
+                return false;
+            }
+            queued++;
+            try {
+                long remaining = queueTimeoutNanos;
+                while (inFlight >= (int) limit) {
+                    if (remaining <= 0) {
+                        return false;
+                    }
+                    remaining = permitFreed.awaitNanos(remaining);
+                }
+                inFlight++;
+                return true;
+            } finally {
+                queued--;
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Returns a slot and feeds the observed latency into the limit.
+     * {@code overloaded} marks work that failed for lack of capacity (e.g. a
+     * connection timeout), which always counts as a congestion signal.
+     */
+    public void release(long latencyNanos, boolean overloaded) {
+        lock.lock();
+        try {
+            inFlight--;
+            avgLatencyNanos += (latencyNanos - avgLatencyNanos) / 8;
+            if (overloaded || latencyNanos > latencyTargetNanos) {
+                limit = Math.max(minLimit, limit * BACKOFF);
+            } else if (inFlight + 1 >= (int) limit) {
+                // Only grow when the limit was actually the constraint.
+                limit = Math.min(maxLimit, limit + 1.0 / limit);
+            }
+            int free = (int) limit - inFlight;
+            for (int i = 0; i < free && i < queued; i++) {
+                permitFreed.signal();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Rough number of seconds until a newly queued caller would be served.
+     */
+    public int retryAfterSeconds() {
+        lock.lock();
+        try {
+            double rounds = (queued + 1) / Math.max(1.0, limit);
+            return (int) Math.max(1, Math.ceil(rounds * avgLatencyNanos / 1e9));
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public double getLimit() {
+        lock.lock();
+        try {
+            return limit;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int getInFlight() {
+        lock.lock();
+        try {
+            return inFlight;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int getQueued() {
+        lock.lock();
+        try {
+            return queued;
+        } finally {
+            lock.unlock();
+        }
+    }
+}
@@ -0,0 +1,152 @@
+package com.example.evoting.config;
+
+import java.io.IOException;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.HtmlUtils;
+import org.springframework.web.util.UriComponentsBuilder;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * Admission control for the request paths that hit the database under load.
+ * <p>
+ * {@code POST /vote} goes through an adaptive limiter whose concurrency follows
+ * the observed latency of vote requests (see {@link AdaptiveLimiter}). The
+ * results and elections pages go through a separate, fixed-size read bulkhead,
+ * so a burst of result refreshes can hold at most {@code app.admission.read.limit}
+ * connections and never starve vote casting. A request that cannot be admitted
+ * within its queue deadline gets {@code 503} with {@code Retry-After} right away
+ * instead of waiting for a pool timeout.
+ */
+@Component
+public class AdmissionControlFilter extends OncePerRequestFilter {
+
+    private static final String VOTE_FAILED = "vote_failed";
+
+    private final boolean enabled;
+    private final AdaptiveLimiter votes;
+    private final AdaptiveLimiter reads;
+    private final Counter rejectedVotes;
+    private final Counter rejectedReads;
+
+    public AdmissionControlFilter(MeterRegistry meterRegistry,
+            @Value("${app.admission.enabled:true}") boolean enabled,
+            @Value("${app.admission.vote.initial-limit:8}") int voteInitialLimit,
+            @Value("${app.admission.vote.min-limit:2}") int voteMinLimit,
+            @Value("${app.admission.vote.max-limit:${app.datasource.maximum-pool-size:10}}") int voteMaxLimit,
+            @Value("${app.admission.vote.latency-target-ms:250}") long voteLatencyTargetMs,
+            @Value("${app.admission.vote.queue-size:500}") int voteQueueSize,
+            @Value("${app.admission.vote.queue-timeout-ms:3000}") long voteQueueTimeoutMs,
+            @Value("${app.admission.read.limit:4}") int readLimit,
+            @Value("${app.admission.read.queue-size:100}") int readQueueSize,
+            @Value("${app.admission.read.queue-timeout-ms:1000}") long readQueueTimeoutMs) {
+        this.enabled = enabled;
+        this.votes = new AdaptiveLimiter("vote", voteInitialLimit, voteMinLimit, voteMaxLimit,
+                voteLatencyTargetMs, voteQueueSize, voteQueueTimeoutMs);
+        this.reads = new AdaptiveLimiter("read", readLimit, readLimit, readLimit,
+                Long.MAX_VALUE, readQueueSize, readQueueTimeoutMs);
+        for (AdaptiveLimiter limiter : new AdaptiveLimiter[] { votes, reads }) {
+            Gauge.builder("evoting.admission.limit", limiter, AdaptiveLimiter::getLimit)
+                    .tag("bulkhead", limiter.getName()).register(meterRegistry);
+            Gauge.builder("evoting.admission.in-flight", limiter, AdaptiveLimiter::getInFlight)
+                    .tag("bulkhead", limiter.getName()).register(meterRegistry);
+            Gauge.builder("evoting.admission.queued", limiter, AdaptiveLimiter::getQueued)
+                    .tag("bulkhead", limiter.getName()).register(meterRegistry);
+        }
+        this.rejectedVotes = Counter.builder("evoting.admission.rejected").tag("bulkhead", "vote")
+                .register(meterRegistry);
+        this.rejectedReads = Counter.builder("evoting.admission.rejected").tag("bulkhead", "read")
+                .register(meterRegistry);
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !enabled || limiterFor(request) == null;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        AdaptiveLimiter limiter = limiterFor(request);
+        boolean admitted;
+        try {
+            admitted = limiter.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            admitted = false;
+        }
+        if (!admitted) {
+            (limiter == votes ? rejectedVotes : rejectedReads).increment();
+            reject(request, response, limiter.retryAfterSeconds());
+            return;
+        }
+        long start = System.nanoTime();
+        boolean overloaded = true;
+        try {
+            chain.doFilter(request, response);
+            overloaded = isFailedVote(response);
+        } finally {
+            limiter.release(System.nanoTime() - start, overloaded);
+        }
+    }
+
+    private AdaptiveLimiter limiterFor(HttpServletRequest request) {
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        if ("POST".equals(request.getMethod()) && path.equals("/vote")) {
+            return votes;
+        }
+        // Result streams are long-lived but hold no thread while idle, so they stay out of the bulkhead.
+        if ("GET".equals(request.getMethod())
+                && (path.equals("/elections") || path.startsWith("/results/"))
+                && !path.endsWith("/stream")) {
+            return reads;
+        }
+        return null;
+    }
+
+    /**
+     * VoteController reports a failed insert (typically a connection timeout) by
+     * redirecting back to the ballot with {@code error=vote_failed}. Its other
+     * errors (a rejected ballot, say) are the voter's, not the database's.
+     */
+    private static boolean isFailedVote(HttpServletResponse response) {
+        if (response.getStatus() >= 500) {
+            return true;
+        }
+        String location = response.getHeader(HttpHeaders.LOCATION);
+        return location != null && VOTE_FAILED.equals(
+                UriComponentsBuilder.fromUriString(location).build().getQueryParams().getFirst("error"));
+    }
+
+    private static void reject(HttpServletRequest request, HttpServletResponse response, int retryAfter)
+            throws IOException {
+        response.setStatus(HttpServletResponse.SC_SERVICE_UNAVAILABLE);
+        response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfter));
+        response.setContentType(MediaType.TEXT_HTML_VALUE);
+        response.setCharacterEncoding("UTF-8");
+        String back = request.getParameter("electionId") != null
+                ? request.getContextPath() + "/vote/" + HtmlUtils.htmlEscape(request.getParameter("electionId"))
+                : request.getContextPath() + "/elections";
+        response.getWriter().write("""
+                <!DOCTYPE html>
+                <html lang="en"><head><meta charset="utf-8"><title>Busy - E-Voting</title>
+                <link rel="stylesheet" href="%s/css/styles.css"></head>
+                <body><div class="container main-content text-center">
+                <h1>The system is busy</h1>
+                <p class="lead">Your request was not processed. Please try again in %d seconds.</p>
+                <a class="btn btn-primary" href="%s">Try again</a>
+                </div></body></html>
+                """.formatted(request.getContextPath(), retryAfter, back));
+    }
+}
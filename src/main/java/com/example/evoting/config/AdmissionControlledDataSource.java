@@ -0,0 +1,137 @@
+package com.example.evoting.config;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.sql.DataSource;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+/**
+ * Admits at most {@code permits} concurrent connection holders and queues at
+ * most {@code maxWaiting} more, in FIFO order, for up to {@code timeoutMs}.
+ * <p>
+ * With virtual threads there is no request thread pool left to limit
+ * concurrency, so thousands of requests can reach the connection pool at once.
+ * Without this gate they would all wait inside Hikari until
+ * {@code connection-timeout} (30 s). With it, the excess fails fast with a
+ * {@link SQLTransientConnectionException} once the queue is full, and the
+ * waiters that are admitted are served fairly. A permit is returned when the
+ * connection is closed.
+ */
+public class AdmissionControlledDataSource extends DelegatingDataSource implements AutoCloseable {
+
+    private final Semaphore permits;
+    private final int maxWaiting;
+    private final long timeoutMs;
+    private final AtomicInteger waiting = new AtomicInteger();
+    private final AtomicInteger rejected = new AtomicInteger();
+
+    public AdmissionControlledDataSource(DataSource target, int permits, int maxWaiting, long timeoutMs) {
+        super(target);
+        this.permits = new Semaphore(permits, true);
+        this.maxWaiting = maxWaiting;
+        this.timeoutMs = timeoutMs;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        admit();
+        return admitted(() -> super.getConnection());
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        admit();
+        return admitted(() -> super.getConnection(username, password));
+    }
+
+    public int getWaiting() {
+        return waiting.get();
+    }
+
+    public int getAvailablePermits() {
+        return permits.availablePermits();
+    }
+
+    public int getRejected() {
+        return rejected.get();
+    }
+
+    /**
+     * Closes the underlying pool on shutdown.
+     */
+    @Override
+    public void close() throws Exception {
+        if (getTargetDataSource() instanceof AutoCloseable pool) {
+            pool.close();
+        }
+    }
+
+    private void admit() throws SQLException {
+        if (waiting.incrementAndGet() > maxWaiting) {
+            waiting.decrementAndGet();
+            rejected.incrementAndGet();
+            throw new SQLTransientConnectionException(
+                    "Database admission queue is full (" + maxWaiting + " waiting)");
+        }
+        try {
+            // The timed tryAcquire honours fairness; the untimed one would barge.
+            if (!permits.tryAcquire(timeoutMs, TimeUnit.MILLISECONDS)) {
+                rejected.incrementAndGet();
+                throw new SQLTransientConnectionException(
+                        "Timed out after " + timeoutMs + " ms waiting for database admission");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLTransientConnectionException("Interrupted while waiting for database admission", e);
+        } finally {
+            waiting.decrementAndGet();
+        }
+    }
+
+    private Connection admitted(ConnectionSupplier supplier) throws SQLException {
+        Connection connection;
+        try {
+            connection = supplier.get();
+        } catch (SQLException | RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+        AtomicBoolean released = new AtomicBoolean();
+        return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(),
+                new Class<?>[] { Connection.class }, (proxy, method, args) -> {
+                    if (method.getName().equals("close") && released.compareAndSet(false, true)) {
+                        try {
+                            connection.close();
+                        } finally {
+                            permits.release();
+                        }
+                        return null;
+                    }
+                    if (method.getName().equals("equals")) {
+                        return proxy == args[0];
+                    }
+                    if (method.getName().equals("hashCode")) {
+                        return System.identityHashCode(proxy);
+                    }
+                    try {
+                        return method.invoke(connection, args);
+                    } catch (InvocationTargetException e) {
+                        throw e.getTargetException();
+                    }
+                });
+    }
+
+    @FunctionalInterface
+    private interface ConnectionSupplier {
+        Connection get() throws SQLException;
+    }
+}
@@ -0,0 +1,49 @@
+package com.example.evoting.config;
+
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.beans.factory.ObjectProvider;
+
+import com.example.evoting.config.ReadWriteRoutingDataSource.Route;
+
+/**
+ * Applies {@link ReadOnlyRoute} and {@link ReadWriteRoute}.
+ * <p>
+ * A read-write method pins itself and its callees to the primary. A read-only
+ * method goes to the replica unless an enclosing method has already chosen a
+ * route, or the current user wrote recently. The previous route is restored
+ * on exit, so nested calls compose.
+ */
+public class DataSourceRouteInterceptor implements MethodInterceptor {
+
+    // Looked up on first use: the advisor is created before ordinary beans.
+    private final ObjectProvider<ReadYourWritesGuard> guard;
+
+    public DataSourceRouteInterceptor(ObjectProvider<ReadYourWritesGuard> guard) {
+        this.guard = guard;
+    }
+
+    @Override
+    public Object invoke(MethodInvocation invocation) throws Throwable {
+        if (invocation.getMethod().isAnnotationPresent(ReadWriteRoute.class)) {
+            Route previous = ReadWriteRoutingDataSource.enter(Route.PRIMARY);
+            try {
+                Object result = invocation.proceed();
+                guard.getObject().wrote();
+                return result;
+            } finally {
+                ReadWriteRoutingDataSource.restore(previous);
+            }
+        }
+        if (ReadWriteRoutingDataSource.current() != null) {
+            return invocation.proceed();
+        }
+        Route route = guard.getObject().mustReadPrimary() ? Route.PRIMARY : Route.REPLICA;
+        Route previous = ReadWriteRoutingDataSource.enter(route);
+        try {
+            return invocation.proceed();
+        } finally {
+            ReadWriteRoutingDataSource.restore(previous);
+        }
+    }
+}
@@ -2,30 +2,159 @@ package com.example.evoting.config;
 
 import javax.sql.DataSource;
 
+import org.springframework.aop.Advisor;
+import org.springframework.aop.Pointcut;
+import org.springframework.aop.support.ComposablePointcut;
+import org.springframework.aop.support.DefaultPointcutAdvisor;
+import org.springframework.aop.support.annotation.AnnotationMatchingPointcut;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.context.annotation.Role;
+import org.springframework.core.Ordered;
 import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
 
+import com.example.evoting.repository.InstrumentedJdbcTemplate;
+import com.example.evoting.repository.ReportingRepository;
+import com.example.evoting.repository.StatementProfiler;
+
 import com.zaxxer.hikari.HikariConfig;
 import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
 
 @Configuration
 public class DatabaseConfig {
 
     @Bean
+    @Primary
     @ConfigurationProperties(prefix = "app.datasource")
     public HikariConfig hikariConfig() {
         return new HikariConfig();
     }
 
+    /**
+     * The read replica's pool settings. The replica is used only when
+     * {@code app.replica-datasource.jdbc-url} is set.
+     */
+    @Bean
+    @ConfigurationProperties(prefix = "app.replica-datasource")
+    public HikariConfig replicaHikariConfig() {
+        return new HikariConfig();
+    }
+
+    /**
+     * The primary pool and, when a replica is configured, a separate replica
+     * pool behind a {@link ReadWriteRoutingDataSource}. Reads then go to the
+     * replica only from {@link ReadOnlyRoute} methods, so ballots do not
+     * compete with reporting reads for primary connections.
+     * <p>
+     * Each pool is wrapped in an {@link AdmissionControlledDataSource} when
+     * {@code app.db-admission.enabled} is set (by default whenever virtual threads
+     * are enabled). Permits default to the pool size.
+     * <p>
+     * The pools report to Micrometer ({@code hikaricp.connections.*}: acquire
+     * wait, usage time, active, idle and pending), tagged by pool name. The
+     * tracker has to be set before a pool starts, so it is not left to Boot's
+     * post-processor.
+     * <p>
+     * {@code hikariConfig} is {@code @Primary}, so the replica's settings have to
+     * be asked for by name.
+     */
+    @Bean
+    public DataSource dataSource(HikariConfig hikariConfig,
+            @Qualifier("replicaHikariConfig") HikariConfig replicaHikariConfig,
+            MeterRegistry meterRegistry,
+            @Value("${app.db-admission.enabled:${spring.threads.virtual.enabled:false}}") boolean admission,
+            @Value("${app.db-admission.permits:0}") int permits,
+            @Value("${app.db-admission.max-waiting:200}") int maxWaiting,
+            @Value("${app.db-admission.timeout-ms:2000}") long timeoutMs) {
+        DataSource primary = pool(hikariConfig, meterRegistry, admission, permits, maxWaiting, timeoutMs);
+        if (replicaHikariConfig.getJdbcUrl() == null || replicaHikariConfig.getJdbcUrl().isBlank()) {
+            return primary;
+        }
+        if (replicaHikariConfig.getPoolName() == null) {
+            replicaHikariConfig.setPoolName("EvotingReplicaPool");
+        }
+        // A write that reaches the replica by mistake fails instead of diverging.
+        replicaHikariConfig.setReadOnly(true);
+        DataSource replica = pool(replicaHikariConfig, meterRegistry, admission, permits, maxWaiting, timeoutMs);
+        return new ReadWriteRoutingDataSource(primary, replica);
+    }
+
+    /**
+     * Routes {@link ReadOnlyRoute} and {@link ReadWriteRoute} methods. Only
+     * registered when a replica is configured.
+     */
+    @Bean
+    @Role(BeanDefinition.ROLE_INFRASTRUCTURE)
+    @ConditionalOnProperty(prefix = "app.replica-datasource", name = "jdbc-url")
+    public static Advisor dataSourceRouteAdvisor(ObjectProvider<ReadYourWritesGuard> readYourWritesGuard) {
+        Pointcut routed = new ComposablePointcut(AnnotationMatchingPointcut.forMethodAnnotation(ReadOnlyRoute.class))
+                .union(AnnotationMatchingPointcut.forMethodAnnotation(ReadWriteRoute.class));
+        DefaultPointcutAdvisor advisor = new DefaultPointcutAdvisor(routed,
+                new DataSourceRouteInterceptor(readYourWritesGuard));
+        // Outside any transaction advice, so the route is set before a connection is taken.
+        advisor.setOrder(Ordered.HIGHEST_PRECEDENCE);
+        return advisor;
+    }
+
+    private static DataSource pool(HikariConfig config, MeterRegistry meterRegistry, boolean admission,
+            int permits, int maxWaiting, long timeoutMs) {
+        if (config.getMetricsTrackerFactory() == null && config.getMetricRegistry() == null) {
+            config.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(meterRegistry));
+        }
+        HikariDataSource pool = new HikariDataSource(config);
+        if (!admission) {
+            return pool;
+        }
+        AdmissionControlledDataSource gated = new AdmissionControlledDataSource(pool,
+                permits > 0 ? permits : config.getMaximumPoolSize(), maxWaiting, timeoutMs);
+        String poolName = pool.getPoolName();
+        Gauge.builder("evoting.db.admission.waiting", gated, AdmissionControlledDataSource::getWaiting)
+                .description("Callers queued for a database connection permit")
+                .tag("pool", poolName)
+                .register(meterRegistry);
+        Gauge.builder("evoting.db.admission.available", gated, AdmissionControlledDataSource::getAvailablePermits)
+                .tag("pool", poolName)
+                .register(meterRegistry);
+        FunctionCounter.builder("evoting.db.admission.rejected", gated, AdmissionControlledDataSource::getRejected)
+                .description("Connection requests rejected because the queue was full or timed out")
+                .tag("pool", poolName)
+                .register(meterRegistry);
+        return gated;
+    }
+
+    /**
+     * Per-statement profile of the repository, with a slow-statement log that
+     * captures EXPLAIN plans. {@code app.jdbc.slow-statement.threshold-ms=0}
+     * turns the slow log off.
+     */
     @Bean
-    public DataSource dataSource(HikariConfig hikariConfig) {
-        return new HikariDataSource(hikariConfig);
+    public StatementProfiler statementProfiler(MeterRegistry meterRegistry, DataSource dataSource,
+            @Value("${app.jdbc.slow-statement.threshold-ms:250}") long thresholdMs,
+            @Value("${app.jdbc.slow-statement.explain-interval-ms:60000}") long explainIntervalMs,
+            @Value("${app.jdbc.slow-statement.history-size:50}") int historySize) {
+        return new StatementProfiler(meterRegistry, dataSource, thresholdMs, explainIntervalMs, historySize);
     }
 
+    /**
+     * The repository's template. Every statement is timed and its row count
+     * recorded under the name of its SQL constant in {@link ReportingRepository}.
+     */
     @Bean
-    public NamedParameterJdbcTemplate namedParameterJdbcTemplate(DataSource dataSource) {
-        return new NamedParameterJdbcTemplate(dataSource);
+    public NamedParameterJdbcTemplate namedParameterJdbcTemplate(DataSource dataSource,
+            StatementProfiler statementProfiler) {
+        return new NamedParameterJdbcTemplate(
+                new InstrumentedJdbcTemplate(dataSource, statementProfiler, ReportingRepository.class));
     }
 }
@@ -0,0 +1,19 @@
+package com.example.evoting.config;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * The method only reads, and may be served by the read replica when one is
+ * configured. It stays on the primary when called from a
+ * {@link ReadWriteRoute} method, and for a user who wrote within the
+ * read-your-writes window (see {@link ReadYourWritesGuard}).
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface ReadOnlyRoute {
+}
@@ -0,0 +1,21 @@
+package com.example.evoting.config;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * The method writes, so it and everything it calls run on the primary. When
+ * it returns normally, the current user's reads stay on the primary for the
+ * read-your-writes window.
+ * <p>
+ * Methods with neither annotation also run on the primary, but do not open a
+ * read-your-writes window.
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface ReadWriteRoute {
+}
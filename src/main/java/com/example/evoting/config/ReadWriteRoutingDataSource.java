@@ -0,0 +1,81 @@
+package com.example.evoting.config;
+
+import java.util.Map;
+
+import javax.sql.DataSource;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+
+/**
+ * Sends each connection request to the primary or the read replica according
+ * to the route of the calling thread, which {@link DataSourceRouteInterceptor}
+ * sets from {@link ReadOnlyRoute} and {@link ReadWriteRoute}. Without a route
+ * the primary is used, so startup work, scheduled jobs and unannotated code
+ * are unaffected.
+ * <p>
+ * The route is read when a connection is taken. A transaction keeps the
+ * connection it started with, so it never switches database halfway.
+ */
+public class ReadWriteRoutingDataSource extends AbstractRoutingDataSource implements AutoCloseable {
+
+    public enum Route {
+        PRIMARY, REPLICA
+    }
+
+    private static final ThreadLocal<Route> ROUTE = new ThreadLocal<>();
+
+    private final DataSource primary;
+    private final DataSource replica;
+
+    public ReadWriteRoutingDataSource(DataSource primary, DataSource replica) {
+        this.primary = primary;
+        this.replica = replica;
+        setTargetDataSources(Map.of(Route.PRIMARY, primary, Route.REPLICA, replica));
+        setDefaultTargetDataSource(primary);
+        setLenientFallback(false);
+        afterPropertiesSet();
+    }
+
+    /**
+     * The route of the calling thread, or null outside any routed method.
+     */
+    static Route current() {
+        return ROUTE.get();
+    }
+
+    /**
+     * Sets the route of the calling thread and returns the previous one, which
+     * the caller must restore with {@link #restore}.
+     */
+    static Route enter(Route route) {
+        Route previous = ROUTE.get();
+        ROUTE.set(route);
+        return previous;
+    }
+
+    static void restore(Route previous) {
+        if (previous == null) {
+            ROUTE.remove();
+        } else {
+            ROUTE.set(previous);
+        }
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        Route route = ROUTE.get();
+        return route != null ? route : Route.PRIMARY;
+    }
+
+    /**
+     * Closes both pools on shutdown.
+     */
+    @Override
+    public void close() throws Exception {
+        for (DataSource target : new DataSource[] { replica, primary }) {
+            if (target instanceof AutoCloseable pool) {
+                pool.close();
+            }
+        }
+    }
+}
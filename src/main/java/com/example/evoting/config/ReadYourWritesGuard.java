@@ -0,0 +1,77 @@
+package com.example.evoting.config;
+
+import java.time.Duration;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Keeps a user's reads on the primary for {@code app.replica.read-your-writes-ms}
+ * after they wrote, so a voter sees their own ballot on the page after casting
+ * it even while the replica lags.
+ * <p>
+ * Users are identified by the authenticated principal. The last write per
+ * user is held in a bounded cache that expires after the window. The window
+ * should exceed the replica lag you are prepared to tolerate. The marks are
+ * per instance, which holds as long as a user's requests reach the same
+ * instance (sticky sessions).
+ */
+@Component
+public class ReadYourWritesGuard {
+
+    private final Cache<String, Boolean> recentWriters;
+    private final Counter pinned;
+
+    public ReadYourWritesGuard(MeterRegistry meterRegistry,
+            @Value("${app.replica.read-your-writes-ms:5000}") long windowMs,
+            @Value("${app.replica.read-your-writes-max-users:100000}") long maximumSize) {
+        this.recentWriters = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(Duration.ofMillis(windowMs))
+                .build();
+        this.pinned = Counter.builder("evoting.db.read-your-writes.pinned")
+                .description("Reads kept on the primary because the user wrote recently")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Records that the current user has just written.
+     */
+    public void wrote() {
+        String user = currentUser();
+        if (user != null) {
+            recentWriters.put(user, Boolean.TRUE);
+        }
+    }
+
+    /**
+     * Whether the current user wrote within the window, in which case the read
+     * must go to the primary.
+     */
+    public boolean mustReadPrimary() {
+        String user = currentUser();
+        if (user != null && recentWriters.getIfPresent(user) != null) {
+            pinned.increment();
+            return true;
+        }
+        return false;
+    }
+
+    private static String currentUser() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null || !authentication.isAuthenticated()
+                || authentication instanceof AnonymousAuthenticationToken) {
+            return null;
+        }
+        return authentication.getName();
+    }
+}
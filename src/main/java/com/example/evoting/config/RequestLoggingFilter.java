@@ -1,18 +1,75 @@
 package com.example.evoting.config;
 
-import jakarta.servlet.*;
-import jakarta.servlet.http.HttpServletRequest;
-import org.springframework.stereotype.Component;
 import java.io.IOException;
+import java.util.concurrent.ThreadLocalRandom;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 
+/**
+ * Structured access log on the {@code evoting.access} logger.
+ * <p>
+ * Logging every request would cost more than serving a cached results page, so
+ * only a {@code app.access-log.sample-rate} fraction of requests is logged.
+ * Server errors and requests slower than {@code app.access-log.slow-ms} are
+ * always logged. Fields are SLF4J key-value pairs (method, path, status,
+ * duration_ms, sampled). The logger's appender is asynchronous and drops
+ * entries rather than block a request when its queue is full (see
+ * {@code logback-spring.xml}). Per-endpoint latency is not derived from this
+ * log: every request is timed in {@code http.server.requests}.
+ * <p>
+ * The filter runs first so it also sees requests rejected by security or
+ * admission control.
+ */
 @Component
-public class RequestLoggingFilter implements Filter {
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class RequestLoggingFilter extends OncePerRequestFilter {
+
+    private static final Logger accessLog = LoggerFactory.getLogger("evoting.access");
+
+    private final double sampleRate;
+    private final long slowNanos;
+
+    public RequestLoggingFilter(@Value("${app.access-log.sample-rate:0.01}") double sampleRate,
+            @Value("${app.access-log.slow-ms:1000}") long slowMs) {
+        this.sampleRate = sampleRate;
+        this.slowNanos = slowMs * 1_000_000;
+    }
 
     @Override
-    public void doFilter(ServletRequest request, ServletResponse response, FilterChain chain)
-            throws IOException, ServletException {
-        HttpServletRequest req = (HttpServletRequest) request;
-        System.out.println("INCOMING REQUEST: " + req.getMethod() + " " + req.getRequestURI());
-        chain.doFilter(request, response);
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        if (!accessLog.isInfoEnabled()) {
+            chain.doFilter(request, response);
+            return;
+        }
+        long start = System.nanoTime();
+        int status = 500;
+        try {
+            chain.doFilter(request, response);
+            status = response.getStatus();
+        } finally {
+            long elapsed = System.nanoTime() - start;
+            boolean sampled = sampleRate >= 1 || ThreadLocalRandom.current().nextDouble() < sampleRate;
+            if (sampled || status >= 500 || elapsed >= slowNanos) {
+                accessLog.atInfo()
+                        .addKeyValue("method", request.getMethod())
+                        .addKeyValue("path", request.getRequestURI())
+                        .addKeyValue("status", status)
+                        .addKeyValue("duration_ms", elapsed / 1_000_000)
+                        .addKeyValue("sampled", sampled)
+                        .log("request");
+            }
+        }
     }
 }
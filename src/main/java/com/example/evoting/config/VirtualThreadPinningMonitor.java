@@ -0,0 +1,101 @@
+package com.example.evoting.config;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordingStream;
+
+/**
+ * Reports virtual threads that stay pinned to their carrier, typically because
+ * they block (on JDBC, I/O or a lock) while holding a monitor, e.g. inside a
+ * {@code synchronized} block or a {@code ConcurrentHashMap.compute} callback.
+ * <p>
+ * Listens to the JFR {@code jdk.VirtualThreadPinned} event in-process. Each
+ * event above {@code app.virtual-threads.pinned-threshold-ms} increments
+ * {@code evoting.virtual-threads.pinned}, tagged with the innermost application
+ * frame. The full stack is logged once per distinct call site.
+ */
+@Component
+@ConditionalOnProperty(name = "spring.threads.virtual.enabled", havingValue = "true")
+public class VirtualThreadPinningMonitor {
+
+    private static final Logger logger = LoggerFactory.getLogger(VirtualThreadPinningMonitor.class);
+    private static final String EVENT = "jdk.VirtualThreadPinned";
+    private static final String APP_PACKAGE = "com.example.evoting.";
+
+    private final MeterRegistry meterRegistry;
+    private final Duration threshold;
+    private final Set<String> reportedSites = ConcurrentHashMap.newKeySet();
+    private RecordingStream stream;
+
+    public VirtualThreadPinningMonitor(MeterRegistry meterRegistry,
+            @Value("${app.virtual-threads.pinned-threshold-ms:20}") long thresholdMs) {
+        this.meterRegistry = meterRegistry;
+        this.threshold = Duration.ofMillis(thresholdMs);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        try {
+            stream = new RecordingStream();
+            stream.enable(EVENT).withThreshold(threshold).withStackTrace();
+            stream.onEvent(EVENT, this::onPinned);
+            stream.startAsync();
+            logger.info("Watching for virtual threads pinned longer than {} ms", threshold.toMillis());
+        } catch (RuntimeException e) {
+            logger.warn("Virtual thread pinning monitor not started: {}", e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (stream != null) {
+            stream.close();
+        }
+    }
+
+    private void onPinned(RecordedEvent event) {
+        List<RecordedFrame> frames = event.getStackTrace() != null ? event.getStackTrace().getFrames() : List.of();
+        String site = frames.stream()
+                .map(RecordedFrame::getMethod)
+                .filter(method -> method.getType().getName().startsWith(APP_PACKAGE))
+                .map(method -> simpleName(method.getType().getName()) + "." + method.getName())
+                .findFirst()
+                .orElse("other");
+        Counter.builder("evoting.virtual-threads.pinned")
+                .description("Virtual threads pinned to their carrier longer than the threshold")
+                .tag("site", site)
+                .register(meterRegistry)
+                .increment();
+        if (reportedSites.add(site)) {
+            String stack = frames.stream()
+                    .limit(20)
+                    .map(frame -> "\tat " + frame.getMethod().getType().getName() + "."
+                            + frame.getMethod().getName() + ":" + frame.getLineNumber())
+                    .collect(Collectors.joining("\n"));
+            logger.warn("Virtual thread pinned for {} ms at {}\n{}", event.getDuration().toMillis(), site, stack);
+        } else {
+            logger.debug("Virtual thread pinned for {} ms at {}", event.getDuration().toMillis(), site);
+        }
+    }
+
+    private static String simpleName(String className) {
+        return className.substring(className.lastIndexOf('.') + 1);
+    }
+}
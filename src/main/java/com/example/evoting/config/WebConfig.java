@@ -1,5 +1,8 @@
 package com.example.evoting.config;
 
+import java.nio.file.Path;
+
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.web.servlet.config.annotation.ResourceHandlerRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
@@ -7,10 +10,16 @@ import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
 @Configuration
 public class WebConfig implements WebMvcConfigurer {
 
+    private final String uploadsDir;
+
+    public WebConfig(@Value("${app.uploads.dir:uploads}") String uploadsDir) {
+        this.uploadsDir = uploadsDir;
+    }
+
     @Override
     public void addResourceHandlers(ResourceHandlerRegistry registry) {
         // Map /uploads/** URL path to the local file system directory
         registry.addResourceHandler("/uploads/**")
-                .addResourceLocations("file:uploads/");
+                .addResourceLocations(Path.of(uploadsDir).toAbsolutePath().toUri().toString());
     }
 }
@@ -1,49 +1,92 @@
 package com.example.evoting.controller;
 
 import java.util.List;
-import java.util.Map;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 
+import com.example.evoting.model.Candidate;
+import com.example.evoting.model.Election;
+import com.example.evoting.model.MaintenanceJob;
+import com.example.evoting.model.VotePage;
+import com.example.evoting.model.Voter;
+import com.example.evoting.repository.StatementProfiler;
+import com.example.evoting.service.CandidateTallyService;
+import com.example.evoting.service.MaintenanceJobService;
 import com.example.evoting.service.ReportingService;
+import com.example.evoting.service.TurnoutAnalyticsService;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.ResponseBody;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 @Controller
 @RequestMapping("/admin")
 public class AdminController {
 
+    private static final Logger logger = LoggerFactory.getLogger(AdminController.class);
+
     private final ReportingService reportingService;
+    private final CandidateTallyService candidateTallyService;
+    private final TurnoutAnalyticsService turnoutAnalytics;
+    private final StatementProfiler statementProfiler;
+    private final MaintenanceJobService maintenanceJobs;
+    private final int votesPageSize;
+    private final int turnoutMinutes;
+    private final int jobsPageSize;
 
-    public AdminController(ReportingService reportingService) {
+    public AdminController(ReportingService reportingService, CandidateTallyService candidateTallyService,
+            TurnoutAnalyticsService turnoutAnalytics, StatementProfiler statementProfiler,
+            MaintenanceJobService maintenanceJobs,
+            @Value("${app.admin.votes-page-size:50}") int votesPageSize,
+            @Value("${app.admin.turnout-minutes:60}") int turnoutMinutes,
+            @Value("${app.admin.jobs-page-size:50}") int jobsPageSize) {
         this.reportingService = reportingService;
+        this.candidateTallyService = candidateTallyService;
+        this.turnoutAnalytics = turnoutAnalytics;
+        this.statementProfiler = statementProfiler;
+        this.maintenanceJobs = maintenanceJobs;
+        this.votesPageSize = votesPageSize;
+        this.turnoutMinutes = turnoutMinutes;
+        this.jobsPageSize = jobsPageSize;
     }
 
     @GetMapping
-    public String adminDashboard(@RequestParam(required = false) Long electionId, Model model) {
-        List<Map<String, Object>> elections = reportingService.loadElections();
+    public String adminDashboard(@RequestParam(required = false) Long electionId,
+            @RequestParam(defaultValue = "0") long afterId,
+            @RequestParam(required = false) String error,
+            Model model) {
+        List<Election> elections = reportingService.loadElections();
         model.addAttribute("elections", elections);
+        if (error != null) {
+            model.addAttribute("errorMessage", errorMessage(error));
+        }
 
-        Map<String, Object> selectedElection = null;
-        List<Map<String, Object>> candidates = java.util.Collections.emptyList();
-        List<Map<String, Object>> votes = java.util.Collections.emptyList();
+        Election selectedElection = null;
+        List<Candidate> candidates = java.util.Collections.emptyList();
+        VotePage votes = new VotePage(java.util.Collections.emptyList(), false);
 
         if (electionId != null) {
             // Find the selected election from the list (avoiding extra DB call if possible,
             // or just fetch it)
             selectedElection = elections.stream()
-                    .filter(e -> ((Number) e.get("election_id")).longValue() == electionId)
+                    .filter(e -> e.electionId() == electionId)
                     .findFirst()
                     .orElse(null);
 
             if (selectedElection != null) {
                 candidates = reportingService.loadCandidates(electionId);
-                votes = reportingService.getVotesByElection(electionId);
+                votes = reportingService.getVotesPage(electionId, afterId, votesPageSize);
+                model.addAttribute("turnout", turnoutAnalytics.report(electionId, turnoutMinutes));
             }
         } else if (!elections.isEmpty()) {
             // Optional: Default to the first election if none selected?
@@ -54,11 +97,72 @@ public class AdminController {
 
         model.addAttribute("selectedElection", selectedElection);
         model.addAttribute("candidates", candidates);
-        model.addAttribute("votes", votes);
+        model.addAttribute("votes", votes.votes());
+        model.addAttribute("nextVote", votes.hasMore() ? votes.last() : null);
+        model.addAttribute("pagedVotes", afterId > 0);
 
         return "admin";
     }
 
+    /**
+     * Streams every ballot of an election as CSV. Rows are written as they are
+     * read from a forward-only cursor, so memory use does not grow with the size
+     * of the election.
+     */
+    @GetMapping("/votes/{electionId}/export")
+    public ResponseEntity<StreamingResponseBody> exportVotes(@PathVariable long electionId) {
+        StreamingResponseBody body = out -> {
+            java.io.Writer writer = new java.io.BufferedWriter(
+                    new java.io.OutputStreamWriter(out, java.nio.charset.StandardCharsets.UTF_8), 64 * 1024);
+            writer.write("vote_id,voter_name,voter_nid,candidate_name,party_name\n");
+            reportingService.streamVotesByElection(electionId, vote -> {
+                try {
+                    writer.write(Long.toString(vote.voteId()));
+                    writer.write(',');
+                    writer.write(csv(vote.voterName()));
+                    writer.write(',');
+                    writer.write(csv(vote.voterNid()));
+                    writer.write(',');
+                    writer.write(csv(vote.candidateName()));
+                    writer.write(',');
+                    writer.write(csv(vote.partyName()));
+                    writer.write('\n');
+                } catch (java.io.IOException e) {
+                    throw new java.io.UncheckedIOException(e);
+                }
+            });
+            writer.flush();
+        };
+        return ResponseEntity.ok()
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"votes-" + electionId + ".csv\"")
+                .contentType(new MediaType("text", "csv", java.nio.charset.StandardCharsets.UTF_8))
+                .body(body);
+    }
+
+    /**
+     * The message shown for an {@code error} code of a redirect back to the
+     * dashboard.
+     */
+    private static String errorMessage(String error) {
+        return switch (error) {
+            case "TitleRequired" -> "An election needs a title.";
+            case "DatesRequired" -> "An election needs a start and an end date.";
+            case "ArchiveFailed" -> "The election could not be archived. See the server log for details.";
+            case "TallyRebuildFailed" -> "The vote tally could not be rebuilt. See the server log for details.";
+            default -> "The last action failed. See the server log for details.";
+        };
+    }
+
+    private static String csv(String value) {
+        if (value == null) {
+            return "";
+        }
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+
     @PostMapping("/saveElection")
     public String saveElection(
             @RequestParam(value = "title", required = false) String title,
@@ -82,8 +186,8 @@ public class AdminController {
 
     @GetMapping("/api/voter-info")
     @ResponseBody
-    public ResponseEntity<Map<String, Object>> getVoterInfo(@RequestParam String nid) {
-        Map<String, Object> voter = reportingService.findVoterByNid(nid);
+    public ResponseEntity<Voter> getVoterInfo(@RequestParam String nid) {
+        Voter voter = reportingService.findVoterByNid(nid);
         if (voter == null) {
             // Try by ID
             voter = reportingService.findVoterByIdString(nid);
@@ -94,6 +198,59 @@ public class AdminController {
         return ResponseEntity.ok(voter);
     }
 
+    /**
+     * Turnout and ballots-per-minute series of an election, for charts.
+     */
+    @GetMapping("/api/turnout/{electionId}")
+    @ResponseBody
+    public ResponseEntity<TurnoutAnalyticsService.TurnoutReport> turnout(@PathVariable long electionId,
+            @RequestParam(defaultValue = "60") int minutes) {
+        return ResponseEntity.ok(turnoutAnalytics.report(electionId, minutes));
+    }
+
+    /**
+     * Repository statements ranked by total time, and the recent slow ones with
+     * their plans.
+     */
+    @GetMapping("/statements")
+    public String statements(@RequestParam(defaultValue = "25") int top, Model model) {
+        model.addAttribute("statements", statementProfiler.top(top));
+        model.addAttribute("slowStatements", statementProfiler.recentSlow());
+        model.addAttribute("slowThresholdMs", statementProfiler.slowThresholdMs());
+        model.addAttribute("top", top);
+        return "admin-statements";
+    }
+
+    @GetMapping("/api/statements")
+    @ResponseBody
+    public ResponseEntity<List<StatementProfiler.StatementStats>> statementStats(
+            @RequestParam(defaultValue = "25") int top) {
+        return ResponseEntity.ok(statementProfiler.top(top));
+    }
+
+    /**
+     * Checks the candidate_tally table against a count of the vote table.
+     */
+    @GetMapping("/api/tally/verify")
+    @ResponseBody
+    public ResponseEntity<CandidateTallyService.Verification> verifyTally() {
+        return ResponseEntity.ok(candidateTallyService.verify());
+    }
+
+    /**
+     * Recomputes an election's candidate_tally rows from the vote table.
+     */
+    @PostMapping("/tally/rebuild")
+    public String rebuildTally(@RequestParam long electionId) {
+        try {
+            candidateTallyService.rebuild(electionId);
+        } catch (Exception e) {
+            logger.error("Could not rebuild the candidate_tally of election {}", electionId, e);
+            return "redirect:/admin?electionId=" + electionId + "&error=TallyRebuildFailed";
+        }
+        return "redirect:/admin?electionId=" + electionId;
+    }
+
     @PostMapping("/addCandidate")
     public String addCandidate(
             @RequestParam String fullName,
@@ -121,26 +278,57 @@ public class AdminController {
         return "redirect:/admin?electionId=" + electionId;
     }
 
+    /**
+     * Queues the deletion. The candidate disappears from the ballot and the
+     * results at once; its ballots are deleted in the background (see
+     * {@link #jobs}).
+     */
     @PostMapping("/deleteCandidate")
     public String deleteCandidate(@RequestParam long candidateId, @RequestParam(required = false) Long electionId) {
-        try {
-            reportingService.deleteCandidate(candidateId);
-        } catch (Exception e) {
-            e.printStackTrace();
-        }
+        reportingService.deleteCandidate(candidateId);
         if (electionId != null) {
             return "redirect:/admin?electionId=" + electionId;
         }
         return "redirect:/admin";
     }
 
-    @PostMapping("/deleteElection")
-    public String deleteElection(@RequestParam long electionId) {
+    @PostMapping("/archiveElection")
+    public String archiveElection(@RequestParam long electionId) {
         try {
-            reportingService.deleteElection(electionId);
-        } catch (Exception e) {
-            e.printStackTrace();
+            reportingService.archiveElection(electionId);
+        } catch (RuntimeException e) {
+            logger.error("Archiving election {} failed", electionId, e);
+            return "redirect:/admin?electionId=" + electionId + "&error=ArchiveFailed";
         }
-        return "redirect:/admin";
+        return "redirect:/admin?electionId=" + electionId;
+    }
+
+    @PostMapping("/deleteElection")
+    public String deleteElection(@RequestParam long electionId) {
+        reportingService.deleteElection(electionId);
+        return "redirect:/admin/jobs";
+    }
+
+    /**
+     * Background deletions, newest first, with their progress.
+     */
+    @GetMapping("/jobs")
+    public String jobs(Model model) {
+        List<MaintenanceJob> jobs = maintenanceJobs.recentJobs(jobsPageSize);
+        model.addAttribute("jobs", jobs);
+        model.addAttribute("anyActive", jobs.stream().anyMatch(MaintenanceJob::isActive));
+        return "admin-jobs";
+    }
+
+    @GetMapping("/api/jobs")
+    @ResponseBody
+    public ResponseEntity<List<MaintenanceJob>> jobList() {
+        return ResponseEntity.ok(maintenanceJobs.recentJobs(jobsPageSize));
+    }
+
+    @PostMapping("/jobs/{jobId}/cancel")
+    public String cancelJob(@PathVariable long jobId) {
+        reportingService.cancelDeletion(jobId);
+        return "redirect:/admin/jobs";
     }
 }
@@ -1,33 +1,82 @@
 package com.example.evoting.controller;
 
-import org.springframework.http.MediaType;
-import org.springframework.http.ResponseEntity;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.stereotype.Controller;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
-import org.springframework.web.bind.annotation.ResponseBody;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.context.request.ServletWebRequest;
 
 import com.example.evoting.service.ReportingService;
+import com.example.evoting.service.SymbolService;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 
 @Controller
 public class ImageController {
 
+    // A candidate's symbol never changes (a new upload means a new candidate_id),
+    // so browsers may keep it for a long time and revalidate with the ETag.
+    private static final String SYMBOL_CACHE = CacheControl.maxAge(365, TimeUnit.DAYS).cachePublic()
+            .getHeaderValue();
+
+    // Request attributes through which Tomcat's NIO connector sends a file with
+    // sendfile(2) after the servlet returns.
+    private static final String SENDFILE_SUPPORTED = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+
     private final ReportingService reportingService;
 
     public ImageController(ReportingService reportingService) {
         this.reportingService = reportingService;
     }
 
+    /**
+     * Serves a candidate symbol. {@code size} selects a pre-generated square
+     * thumbnail (e.g. 64 or 128); without it the original upload is returned.
+     * Requests carrying a matching {@code If-None-Match} get a 304 without
+     * touching the file. Otherwise the file is handed to the connector's
+     * sendfile support, so the kernel copies it to the socket. Where sendfile is
+     * unavailable (e.g. TLS on the NIO connector) the file is streamed to the
+     * response through a small buffer.
+     */
     @GetMapping("/candidate/image/{id}")
-    @ResponseBody
-    public ResponseEntity<byte[]> getCandidateImage(@PathVariable long id) {
-        byte[] imageBytes = reportingService.getCandidateSymbol(id);
-        if (imageBytes != null && imageBytes.length > 0) {
-            return ResponseEntity.ok()
-                    .contentType(MediaType.IMAGE_PNG) // Defaulting to PNG, browsers usually handle others fine
-                    .body(imageBytes);
-        } else {
-            return ResponseEntity.notFound().build();
+    public void getCandidateImage(@PathVariable long id, @RequestParam(defaultValue = "0") int size,
+            HttpServletRequest request, HttpServletResponse response) throws IOException {
+        SymbolService.StoredSymbol symbol = reportingService.getCandidateSymbol(id, size);
+        if (symbol == null || symbol.length() == 0) {
+            response.sendError(HttpServletResponse.SC_NOT_FOUND);
+            return;
+        }
+        response.setHeader(HttpHeaders.CACHE_CONTROL, SYMBOL_CACHE);
+        if (new ServletWebRequest(request, response).checkNotModified(symbol.etag())) {
+            return;
+        }
+        response.setContentType(symbol.contentType());
+        response.setContentLengthLong(symbol.length());
+        if (!symbol.resource().isFile()) {
+            try (InputStream in = symbol.resource().getInputStream()) {
+                in.transferTo(response.getOutputStream());
+            }
+            return;
+        }
+        File file = symbol.resource().getFile();
+        if (Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORTED))) {
+            request.setAttribute(SENDFILE_FILENAME, file.getAbsolutePath());
+            request.setAttribute(SENDFILE_START, 0L);
+            request.setAttribute(SENDFILE_END, symbol.length());
+            return;
         }
+        Files.copy(file.toPath(), response.getOutputStream());
     }
 }
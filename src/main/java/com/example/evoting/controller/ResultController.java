@@ -1,24 +1,30 @@
 package com.example.evoting.controller;
 
+import java.io.IOException;
 import java.security.Principal;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.http.MediaType;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import com.example.evoting.service.ReportingService;
+import com.example.evoting.service.ResultsBroadcaster;
 
 @Controller
 public class ResultController {
 
     private static final Logger logger = LoggerFactory.getLogger(ResultController.class);
     private final ReportingService reportingService;
+    private final ResultsBroadcaster resultsBroadcaster;
 
-    public ResultController(ReportingService reportingService) {
+    public ResultController(ReportingService reportingService, ResultsBroadcaster resultsBroadcaster) {
         this.reportingService = reportingService;
+        this.resultsBroadcaster = resultsBroadcaster;
     }
 
     @GetMapping("/results/{electionId}")
@@ -26,9 +32,6 @@ public class ResultController {
 
         try {
             model.addAttribute("votesPerCandidate", reportingService.loadVotesPerCandidate(electionId));
-            // Assuming constituency results might be needed, but for now showing overall
-            // model.addAttribute("constituencyResults",
-            // reportingService.loadConstituencyResults(electionId, constituencyId));
         } catch (Exception e) {
             logger.error("Error loading results", e);
             model.addAttribute("errorMessage", "Unable to load results. Please try again later.");
@@ -39,4 +42,30 @@ public class ResultController {
 
         return "results";
     }
+
+    /**
+     * Winner, margin, turnout and candidate counts of every constituency.
+     */
+    @GetMapping("/results/{electionId}/constituencies")
+    public String viewConstituencyResults(@PathVariable long electionId, Model model, Principal principal) {
+        try {
+            model.addAttribute("constituencyResults", reportingService.loadConstituencyResults(electionId));
+        } catch (Exception e) {
+            logger.error("Error loading constituency results", e);
+            model.addAttribute("errorMessage", "Unable to load results. Please try again later.");
+        }
+
+        model.addAttribute("electionId", electionId);
+        model.addAttribute("voterName", principal.getName());
+
+        return "constituency-results";
+    }
+
+    /**
+     * Server-Sent Events feed of the live tally; see {@link ResultsBroadcaster}.
+     */
+    @GetMapping(path = "/results/{electionId}/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamResults(@PathVariable long electionId) throws IOException {
+        return resultsBroadcaster.subscribe(electionId);
+    }
 }
@@ -3,7 +3,7 @@ package com.example.evoting.controller;
 
 import java.security.Principal;
 import java.util.List;
-import java.util.Map;
+import java.util.UUID;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -14,6 +14,9 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 
+import com.example.evoting.model.Candidate;
+import com.example.evoting.model.VoteOutcome;
+import com.example.evoting.model.Voter;
 import com.example.evoting.service.ReportingService;
 
 @Controller
@@ -31,23 +34,16 @@ public class VoteController {
         try {
             // Spring Security ensures principal is not null for this route
             String username = principal.getName();
-            Map<String, Object> voter = reportingService.findVoterByNid(username);
-
-            if (voter == null) {
-                // Try looking up by Voter ID
-                voter = reportingService.findVoterByIdString(username);
-            }
+            Voter voter = reportingService.findVoterByLogin(username);
 
             if (voter == null) {
                 return "redirect:/login?error=voter_not_found";
             }
 
-            long voterId = ((Number) voter.get("voter_id")).longValue();
-            long constituencyId = voter.get("constituency_id") != null
-                    ? ((Number) voter.get("constituency_id")).longValue()
-                    : 0;
+            long voterId = voter.voterId();
+            long constituencyId = voter.constituencyId();
 
-            logger.info("Voter ID: {}, Constituency ID: {}, Election ID: {}", voterId, constituencyId, electionId);
+            logger.debug("Voter ID: {}, Constituency ID: {}, Election ID: {}", voterId, constituencyId, electionId);
 
             // Check if already voted
             if (reportingService.hasVoterVoted(electionId, voterId)) {
@@ -55,20 +51,20 @@ public class VoteController {
             }
 
             // Load candidates for voter's constituency
-            List<Map<String, Object>> candidates = reportingService.findCandidatesByElectionAndConstituency(electionId,
+            List<Candidate> candidates = reportingService.findCandidatesByElectionAndConstituency(electionId,
                     constituencyId);
 
-            logger.info("Candidates found: {}", candidates.size());
-            for (Map<String, Object> c : candidates) {
-                logger.info("Candidate: {} (Constituency: {})", c.get("full_name"), c.get("constituency_id"));
+            logger.debug("Candidates found: {}", candidates.size());
+            for (Candidate c : candidates) {
+                logger.debug("Candidate: {} (Constituency: {})", c.fullName(), c.constituencyId());
             }
 
             model.addAttribute("electionId", electionId);
             model.addAttribute("candidates", candidates);
-            model.addAttribute("voterName", voter.get("full_name"));
-            // In a real app, fetch constituency name from DB
-            model.addAttribute("constituencyName", "Constituency " + constituencyId);
+            model.addAttribute("voterName", voter.fullName());
+            model.addAttribute("constituencyName", reportingService.constituencyName(constituencyId));
             model.addAttribute("voterId", voterId);
+            model.addAttribute("idempotencyKey", UUID.randomUUID().toString());
 
             return "vote";
         } catch (Exception e) {
@@ -79,16 +75,25 @@ public class VoteController {
         }
     }
 
+    /**
+     * Casts the ballot with a single insert. A voter who has already voted, and
+     * a repeat of the same form submission, both land on the results page.
+     */
     @PostMapping("/vote")
     public String castVote(
             @RequestParam long electionId,
             @RequestParam long voterId,
-            @RequestParam long candidateId) {
+            @RequestParam long candidateId,
+            @RequestParam(required = false) String idempotencyKey) {
         try {
-            if (reportingService.hasVoterVoted(electionId, voterId)) {
-                return "redirect:/results/" + electionId;
+            VoteOutcome outcome = reportingService.castVote(electionId, voterId, candidateId, idempotencyKey);
+            if (outcome == VoteOutcome.ALREADY_VOTED) {
+                logger.debug("Voter {} has already voted in election {}", voterId, electionId);
+            } else if (outcome == VoteOutcome.REJECTED) {
+                logger.warn("Rejected ballot of voter {} for candidate {} in election {}", voterId, candidateId,
+                        electionId);
+                return "redirect:/vote/" + electionId + "?error=vote_rejected";
             }
-            reportingService.castVote(electionId, voterId, candidateId);
             return "redirect:/results/" + electionId;
         } catch (Exception e) {
             logger.error("Error casting vote", e);
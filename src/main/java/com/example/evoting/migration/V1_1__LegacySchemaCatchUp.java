@@ -0,0 +1,161 @@
+package com.example.evoting.migration;
+
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.flywaydb.core.api.migration.BaseJavaMigration;
+import org.flywaydb.core.api.migration.Context;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+/**
+ * Brings a database that predates Flyway up to the V1 schema.
+ * <p>
+ * Such databases are baselined at V1, but the oldest of them lack columns and
+ * tables that V1 has. These used to be added by probes and ALTERs on every
+ * start. This migration runs once, before the indexes of V2 need those
+ * columns, and does nothing on a database created from V1.
+ * <p>
+ * On MySQL and MariaDB each step asks for an online algorithm: new nullable
+ * columns are added with {@code ALGORITHM=INSTANT} and the unique index with
+ * {@code ALGORITHM=INPLACE, LOCK=NONE}. A server that cannot do that fails the
+ * step instead of silently copying a large table under a lock. Rerun it in a
+ * maintenance window in that case.
+ */
+@Component
+public class V1_1__LegacySchemaCatchUp extends BaseJavaMigration {
+
+    private static final Logger logger = LoggerFactory.getLogger(V1_1__LegacySchemaCatchUp.class);
+
+    private static final String INSTANT = ", ALGORITHM=INSTANT";
+    private static final String ONLINE = ", ALGORITHM=INPLACE, LOCK=NONE";
+
+    @Override
+    public void migrate(Context context) throws Exception {
+        Connection connection = context.getConnection();
+        Schema schema = new Schema(connection);
+        try (Statement statement = connection.createStatement()) {
+            addColumn(schema, statement, "voter", "password", "VARCHAR(255)");
+            addColumn(schema, statement, "admin", "password", "VARCHAR(255)");
+            addColumn(schema, statement, "candidate", "voter_id", "BIGINT");
+            addColumn(schema, statement, "candidate", "symbol_hash", "VARCHAR(64)");
+            addColumn(schema, statement, "vote", "cast_at", "TIMESTAMP(3) NULL");
+
+            if (!schema.hasUniqueIndex("vote", "voter_id", "election_id")) {
+                logger.info("Adding unique index on vote (voter_id, election_id)");
+                statement.execute("ALTER TABLE vote ADD UNIQUE INDEX uq_vote_voter_election (voter_id, election_id)"
+                        + schema.suffix(ONLINE));
+            }
+
+            if (!schema.hasTable("candidate_tally")) {
+                // Filled by CandidateTallyService's startup repair.
+                logger.info("Creating candidate_tally");
+                statement.execute("""
+                        CREATE TABLE candidate_tally (
+                            election_id BIGINT NOT NULL,
+                            candidate_id BIGINT NOT NULL,
+                            constituency_id BIGINT,
+                            shard INT NOT NULL,
+                            votes BIGINT NOT NULL DEFAULT 0,
+                            PRIMARY KEY (election_id, candidate_id, shard)
+                        )""");
+            }
+        }
+    }
+
+    private static void addColumn(Schema schema, Statement statement, String table, String column, String type)
+            throws SQLException {
+        if (schema.hasColumn(table, column)) {
+            return;
+        }
+        logger.info("Adding column {}.{}", table, column);
+        statement.execute("ALTER TABLE " + table + " ADD COLUMN " + column + " " + type + schema.suffix(INSTANT));
+    }
+
+    /**
+     * Catalog lookups through {@link DatabaseMetaData}, which work on MySQL and
+     * H2 alike. Names are tried as written and in upper case, because H2
+     * upper-cases unquoted identifiers unless {@code DATABASE_TO_LOWER} is set.
+     */
+    private static final class Schema {
+        private final DatabaseMetaData metaData;
+        private final String catalog;
+        private final String schemaName;
+        private final boolean mysql;
+
+        Schema(Connection connection) throws SQLException {
+            this.metaData = connection.getMetaData();
+            this.catalog = connection.getCatalog();
+            this.schemaName = connection.getSchema();
+            String product = metaData.getDatabaseProductName().toLowerCase(Locale.ROOT);
+            this.mysql = product.contains("mysql") || product.contains("mariadb");
+        }
+
+        String suffix(String onlineClause) {
+            return mysql ? onlineClause : "";
+        }
+
+        boolean hasTable(String table) throws SQLException {
+            for (String name : names(table)) {
+                try (ResultSet rs = metaData.getTables(catalog, schemaName, name, null)) {
+                    if (rs.next()) {
+                        return true;
+                    }
+                }
+            }
+            return false;
+        }
+
+        boolean hasColumn(String table, String column) throws SQLException {
+            for (String tableName : names(table)) {
+                for (String columnName : names(column)) {
+                    try (ResultSet rs = metaData.getColumns(catalog, schemaName, tableName, columnName)) {
+                        if (rs.next()) {
+                            return true;
+                        }
+                    }
+                }
+            }
+            return false;
+        }
+
+        /**
+         * Whether a unique index covers exactly {@code columns}, in any order.
+         */
+        boolean hasUniqueIndex(String table, String... columns) throws SQLException {
+            for (String tableName : names(table)) {
+                Map<String, List<String>> indexes = new TreeMap<>();
+                try (ResultSet rs = metaData.getIndexInfo(catalog, schemaName, tableName, true, true)) {
+                    while (rs.next()) {
+                        String index = rs.getString("INDEX_NAME");
+                        String column = rs.getString("COLUMN_NAME");
+                        if (index != null && column != null) {
+                            indexes.computeIfAbsent(index, k -> new ArrayList<>())
+                                    .add(column.toLowerCase(Locale.ROOT));
+                        }
+                    }
+                }
+                for (List<String> indexed : indexes.values()) {
+                    if (indexed.size() == columns.length && indexed.containsAll(List.of(columns))) {
+                        return true;
+                    }
+                }
+            }
+            return false;
+        }
+
+        private static List<String> names(String name) {
+            String upper = name.toUpperCase(Locale.ROOT);
+            return upper.equals(name) ? List.of(name) : List.of(name, upper);
+        }
+    }
+}
@@ -0,0 +1,107 @@
+package com.example.evoting.migration;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.StringJoiner;
+
+import org.flywaydb.core.api.migration.BaseJavaMigration;
+import org.flywaydb.core.api.migration.Context;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import com.example.evoting.repository.ReportingRepository;
+import com.example.evoting.repository.VotePartitionManager;
+
+/**
+ * Partitions {@code vote} by {@code election_id}, one LIST partition per
+ * election, so that deleting or archiving an election is a partition drop or
+ * exchange instead of a DELETE of every ballot. Only MySQL and MariaDB are
+ * partitioned; on other databases this migration does nothing and
+ * {@link VotePartitionManager} falls back to plain statements.
+ * <p>
+ * MySQL requires every unique key of a partitioned table to contain the
+ * partitioning column and does not support foreign keys on it. The foreign
+ * keys of {@code vote} are dropped and its primary key becomes
+ * {@code (vote_id, election_id)}. In their place the ballot insert
+ * ({@link ReportingRepository#SQL_INSERT_VOTE}) selects the voter and the
+ * candidate of the election, so a ballot naming a voter that does not exist or
+ * a candidate outside the election writes no row and is rejected. The rebuild
+ * copies the table once and blocks writes to it while it runs, so apply it in a
+ * maintenance window on a large database.
+ */
+@Component
+public class V3__PartitionVoteByElection extends BaseJavaMigration {
+
+    private static final Logger logger = LoggerFactory.getLogger(V3__PartitionVoteByElection.class);
+
+    @Override
+    public void migrate(Context context) throws Exception {
+        Connection connection = context.getConnection();
+        String product = connection.getMetaData().getDatabaseProductName().toLowerCase(Locale.ROOT);
+        if (!product.contains("mysql") && !product.contains("mariadb")) {
+            logger.info("vote stays unpartitioned on {}", product);
+            return;
+        }
+        try (Statement statement = connection.createStatement()) {
+            if (count(statement, """
+                    SELECT COUNT(*) FROM information_schema.PARTITIONS
+                    WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = 'vote' AND PARTITION_NAME IS NOT NULL""") > 0) {
+                return;
+            }
+            long orphans = count(statement, "SELECT COUNT(*) FROM vote WHERE election_id IS NULL");
+            if (orphans > 0) {
+                throw new IllegalStateException(orphans + " ballots have no election_id; "
+                        + "assign or remove them before partitioning vote");
+            }
+
+            for (String foreignKey : strings(statement, """
+                    SELECT CONSTRAINT_NAME FROM information_schema.TABLE_CONSTRAINTS
+                    WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = 'vote'
+                      AND CONSTRAINT_TYPE = 'FOREIGN KEY'""")) {
+                statement.execute("ALTER TABLE vote DROP FOREIGN KEY `" + foreignKey + "`");
+            }
+
+            StringJoiner partitions = new StringJoiner(", ", "(", ")");
+            for (String electionId : strings(statement, """
+                    SELECT election_id FROM election
+                    UNION
+                    SELECT DISTINCT election_id FROM vote
+                    ORDER BY 1""")) {
+                long id = Long.parseLong(electionId);
+                partitions.add(VotePartitionManager.partitionDefinition(id));
+            }
+            if (partitions.length() == 2) {
+                // LIST needs at least one partition; elections are numbered from 1.
+                partitions.add(VotePartitionManager.partitionDefinition(0));
+            }
+
+            long start = System.nanoTime();
+            statement.execute("ALTER TABLE vote MODIFY election_id BIGINT NOT NULL,"
+                    + " DROP PRIMARY KEY, ADD PRIMARY KEY (vote_id, election_id)"
+                    + " PARTITION BY LIST (election_id) " + partitions);
+            logger.info("Partitioned vote by election in {} ms", (System.nanoTime() - start) / 1_000_000);
+        }
+    }
+
+    private static long count(Statement statement, String sql) throws SQLException {
+        try (ResultSet rs = statement.executeQuery(sql)) {
+            return rs.next() ? rs.getLong(1) : 0;
+        }
+    }
+
+    private static List<String> strings(Statement statement, String sql) throws SQLException {
+        List<String> values = new ArrayList<>();
+        try (ResultSet rs = statement.executeQuery(sql)) {
+            while (rs.next()) {
+                values.add(rs.getString(1));
+            }
+        }
+        return values;
+    }
+}
@@ -0,0 +1,7 @@
+package com.example.evoting.model;
+
+/**
+ * An administrator account.
+ */
+public record Admin(long adminId, String username, String password) {
+}
@@ -0,0 +1,7 @@
+package com.example.evoting.model;
+
+/**
+ * A vote to be recorded: which voter chose which candidate in which election.
+ */
+public record Ballot(long electionId, long voterId, long candidateId) {
+}
@@ -0,0 +1,8 @@
+package com.example.evoting.model;
+
+/**
+ * The ballot a voter cast in an election, together with the chosen candidate.
+ */
+public record BallotReceipt(long voteId, long voterId, long candidateId, long electionId, String candidateName,
+        String partyName, long constituencyId) {
+}
@@ -0,0 +1,9 @@
+package com.example.evoting.model;
+
+/**
+ * A candidate standing in one constituency of an election. The symbol image is
+ * not part of this record; it is fetched separately.
+ */
+public record Candidate(long candidateId, String fullName, String partyName, long constituencyId,
+        long electionId) {
+}
@@ -0,0 +1,8 @@
+package com.example.evoting.model;
+
+/**
+ * Number of votes a candidate has received in an election.
+ */
+public record CandidateTally(long electionId, long candidateId, String candidateName, String partyName,
+        long totalVotes) {
+}
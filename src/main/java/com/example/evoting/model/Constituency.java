@@ -0,0 +1,7 @@
+package com.example.evoting.model;
+
+/**
+ * A constituency and the number of voters registered in it.
+ */
+public record Constituency(long constituencyId, String name, long registeredVoters) {
+}
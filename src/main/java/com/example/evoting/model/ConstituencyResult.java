@@ -0,0 +1,37 @@
+package com.example.evoting.model;
+
+import java.util.List;
+
+/**
+ * Standings of one constituency in an election. {@code candidates} is ordered
+ * by vote count, highest first.
+ */
+public record ConstituencyResult(long constituencyId, String name, long registeredVoters, long ballots,
+        List<CandidateTally> candidates) {
+
+    /**
+     * The leading candidate, or null while no ballot has been counted.
+     */
+    public CandidateTally winner() {
+        return ballots > 0 && !candidates.isEmpty() ? candidates.get(0) : null;
+    }
+
+    /**
+     * Votes between the leader and the runner-up; the leader's total when
+     * unopposed.
+     */
+    public long margin() {
+        if (candidates.isEmpty()) {
+            return 0;
+        }
+        long runnerUp = candidates.size() > 1 ? candidates.get(1).totalVotes() : 0;
+        return candidates.get(0).totalVotes() - runnerUp;
+    }
+
+    /**
+     * Ballots cast as a percentage of registered voters.
+     */
+    public double turnoutPercent() {
+        return registeredVoters > 0 ? ballots * 100.0 / registeredVoters : 0;
+    }
+}
@@ -0,0 +1,9 @@
+package com.example.evoting.model;
+
+import java.time.LocalDate;
+
+/**
+ * A row of the {@code election} table.
+ */
+public record Election(long electionId, String title, String status, LocalDate startDate, LocalDate endDate) {
+}
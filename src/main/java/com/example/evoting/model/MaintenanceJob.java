@@ -0,0 +1,24 @@
+package com.example.evoting.model;
+
+import java.time.Instant;
+
+/**
+ * A row of the {@code maintenance_job} table: a background deletion and its
+ * progress.
+ */
+public record MaintenanceJob(long jobId, String kind, long targetId, String status, long rowsDeleted,
+        String message, Instant createdAt, Instant updatedAt) {
+
+    public static final String DELETE_ELECTION = "delete-election";
+    public static final String DELETE_CANDIDATE = "delete-candidate";
+
+    public static final String QUEUED = "queued";
+    public static final String RUNNING = "running";
+    public static final String DONE = "done";
+    public static final String FAILED = "failed";
+    public static final String CANCELLED = "cancelled";
+
+    public boolean isActive() {
+        return QUEUED.equals(status) || RUNNING.equals(status);
+    }
+}
@@ -0,0 +1,9 @@
+package com.example.evoting.model;
+
+/**
+ * Published once a background deletion has removed its target, an election or
+ * a candidate, with everything that belonged to it. {@code kind} is one of the
+ * {@link MaintenanceJob} kinds.
+ */
+public record RecordsDeletedEvent(String kind, long targetId) {
+}
@@ -0,0 +1,7 @@
+package com.example.evoting.model;
+
+/**
+ * Published once a ballot has been committed.
+ */
+public record VoteCastEvent(long electionId, long candidateId) {
+}
@@ -0,0 +1,16 @@
+package com.example.evoting.model;
+
+/**
+ * Result of casting a ballot.
+ */
+public enum VoteOutcome {
+
+    /** The ballot was committed. */
+    ACCEPTED,
+
+    /** The voter had already cast a ballot in this election; nothing was written. */
+    ALREADY_VOTED,
+
+    /** The voter does not exist or the candidate does not stand in the election; nothing was written. */
+    REJECTED
+}
@@ -0,0 +1,14 @@
+package com.example.evoting.model;
+
+import java.util.List;
+
+/**
+ * One keyset page of the admin voting records. The last row is the cursor for
+ * the next page when {@code hasMore} is set.
+ */
+public record VotePage(List<VoteRow> votes, boolean hasMore) {
+
+    public VoteRow last() {
+        return votes.isEmpty() ? null : votes.get(votes.size() - 1);
+    }
+}
@@ -0,0 +1,7 @@
+package com.example.evoting.model;
+
+/**
+ * One ballot as shown in the admin voting records listing.
+ */
+public record VoteRow(long voteId, String voterName, String voterNid, String candidateName, String partyName) {
+}
@@ -0,0 +1,12 @@
+package com.example.evoting.model;
+
+import java.time.LocalDate;
+
+/**
+ * A registered voter. {@code constituencyId} is {@code 0} when the voter has not
+ * been assigned to a constituency. Credentials are not part of this projection;
+ * see {@link VoterCredentials}.
+ */
+public record Voter(long voterId, String fullName, String nidNumber, LocalDate dateOfBirth, String gender,
+        long constituencyId) {
+}
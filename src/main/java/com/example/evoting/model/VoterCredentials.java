@@ -0,0 +1,8 @@
+package com.example.evoting.model;
+
+/**
+ * The columns needed to authenticate a voter. Only loaded on login and never
+ * cached.
+ */
+public record VoterCredentials(long voterId, String nidNumber, String password) {
+}
@@ -0,0 +1,10 @@
+package com.example.evoting.model;
+
+import java.util.List;
+
+/**
+ * What a voter sees after logging in to an election: either the ballot they
+ * already cast or the candidates of their constituency.
+ */
+public record VoterSession(Voter voter, boolean hasVoted, BallotReceipt myVote, List<Candidate> candidates) {
+}
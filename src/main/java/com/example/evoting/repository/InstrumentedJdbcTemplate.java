@@ -0,0 +1,181 @@
+package com.example.evoting.repository;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.sql.DataSource;
+
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementCreator;
+import org.springframework.jdbc.core.PreparedStatementSetter;
+import org.springframework.jdbc.core.ResultSetExtractor;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.SqlProvider;
+import org.springframework.jdbc.core.namedparam.NamedParameterUtils;
+import org.springframework.jdbc.support.KeyHolder;
+
+import com.example.evoting.repository.StatementProfiler.Profile;
+
+/**
+ * A {@link JdbcTemplate} that times every statement and records how many rows it
+ * returned or changed, tagged with the name of the SQL constant it ran.
+ * <p>
+ * Statement names come from the {@code public static final String SQL_*}
+ * fields of the classes passed in. Both the named-parameter text and the
+ * {@code ?} form that {@code NamedParameterJdbcTemplate} hands down are
+ * recognised; anything else is profiled as {@code other}. Each statement is
+ * resolved to its {@link StatementProfiler.Profile} with one hash lookup, and
+ * the profile holds the meters, so a call costs two clock reads and the meter
+ * updates on top of the JDBC call.
+ * <p>
+ * Only the entry points the named-parameter template funnels into are
+ * instrumented: PreparedStatementCreator queries and updates, generated-key
+ * updates and batches. Streaming queries pass a creator that implements
+ * {@link SqlProvider} so they are named too.
+ */
+public class InstrumentedJdbcTemplate extends JdbcTemplate {
+
+    static final String QUERY_TIMER = "evoting.jdbc.query";
+    static final String ROWS_SUMMARY = "evoting.jdbc.rows";
+
+    private final Map<String, Profile> profiles;
+    private final Profile other;
+
+    public InstrumentedJdbcTemplate(DataSource dataSource, StatementProfiler profiler, Class<?>... statementHolders) {
+        super(dataSource);
+        this.profiles = statementProfiles(profiler, statementHolders);
+        this.other = profiler.profile("other", null);
+    }
+
+    @Override
+    public <T> T query(PreparedStatementCreator psc, PreparedStatementSetter pss, ResultSetExtractor<T> rse)
+            throws DataAccessException {
+        long start = System.nanoTime();
+        Profile profile = profileOf(psc);
+        try {
+            T result = super.query(psc, pss, rse);
+            profile.record(psc, null, false, start, result instanceof List<?> rows ? rows.size() : -1);
+            return result;
+        } catch (RuntimeException e) {
+            profile.record(psc, null, true, start, -1);
+            throw e;
+        }
+    }
+
+    @Override
+    public void query(PreparedStatementCreator psc, RowCallbackHandler rch) throws DataAccessException {
+        long start = System.nanoTime();
+        Profile profile = profileOf(psc);
+        try {
+            Integer rows = super.query(psc, null, new CountingExtractor(rch));
+            profile.record(psc, null, false, start, rows != null ? rows : -1);
+        } catch (RuntimeException e) {
+            profile.record(psc, null, true, start, -1);
+            throw e;
+        }
+    }
+
+    @Override
+    protected int update(PreparedStatementCreator psc, PreparedStatementSetter pss) throws DataAccessException {
+        long start = System.nanoTime();
+        Profile profile = profileOf(psc);
+        try {
+            int rows = super.update(psc, pss);
+            profile.record(psc, null, false, start, rows);
+            return rows;
+        } catch (RuntimeException e) {
+            profile.record(psc, null, true, start, -1);
+            throw e;
+        }
+    }
+
+    @Override
+    public int update(PreparedStatementCreator psc, KeyHolder generatedKeyHolder) throws DataAccessException {
+        long start = System.nanoTime();
+        Profile profile = profileOf(psc);
+        try {
+            int rows = super.update(psc, generatedKeyHolder);
+            profile.record(psc, null, false, start, rows);
+            return rows;
+        } catch (RuntimeException e) {
+            profile.record(psc, null, true, start, -1);
+            throw e;
+        }
+    }
+
+    @Override
+    public int[] batchUpdate(String sql, BatchPreparedStatementSetter pss) throws DataAccessException {
+        long start = System.nanoTime();
+        Profile profile = profileOf(sql);
+        try {
+            int[] counts = super.batchUpdate(sql, pss);
+            long rows = 0;
+            for (int count : counts) {
+                // SUCCESS_NO_INFO (-2) still means one statement of the batch applied.
+                rows += count >= 0 ? count : count == Statement.SUCCESS_NO_INFO ? 1 : 0;
+            }
+            profile.record(null, sql, false, start, rows);
+            return counts;
+        } catch (RuntimeException e) {
+            profile.record(null, sql, true, start, -1);
+            throw e;
+        }
+    }
+
+    private Profile profileOf(PreparedStatementCreator psc) {
+        return psc instanceof SqlProvider provider ? profileOf(provider.getSql()) : other;
+    }
+
+    private Profile profileOf(String sql) {
+        Profile profile = sql != null ? profiles.get(sql) : null;
+        return profile != null ? profile : other;
+    }
+
+    private static Map<String, Profile> statementProfiles(StatementProfiler profiler, Class<?>... holders) {
+        Map<String, Profile> profiles = new HashMap<>();
+        for (Class<?> holder : holders) {
+            for (Field field : holder.getFields()) {
+                int modifiers = field.getModifiers();
+                if (!field.getName().startsWith("SQL_") || field.getType() != String.class
+                        || !Modifier.isStatic(modifiers) || !Modifier.isFinal(modifiers)) {
+                    continue;
+                }
+                try {
+                    String sql = (String) field.get(null);
+                    Profile profile = profiler.profile(field.getName(), sql);
+                    profiles.put(sql, profile);
+                    profiles.putIfAbsent(NamedParameterUtils.parseSqlStatementIntoString(sql), profile);
+                } catch (IllegalAccessException e) {
+                    throw new IllegalStateException("Cannot read " + holder.getSimpleName() + "." + field.getName(), e);
+                }
+            }
+        }
+        return Map.copyOf(profiles);
+    }
+
+    private static final class CountingExtractor implements ResultSetExtractor<Integer> {
+        private final RowCallbackHandler handler;
+
+        CountingExtractor(RowCallbackHandler handler) {
+            this.handler = handler;
+        }
+
+        @Override
+        public Integer extractData(ResultSet rs) throws SQLException {
+            int rows = 0;
+            while (rs.next()) {
+                handler.processRow(rs);
+                rows++;
+            }
+            return rows;
+        }
+    }
+}
@@ -1,43 +1,133 @@
 package com.example.evoting.repository;
 
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.function.Consumer;
 
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.PreparedStatementCreator;
+import org.springframework.jdbc.core.PreparedStatementSetter;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.SqlProvider;
 import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
 import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
 import org.springframework.stereotype.Repository;
 
+import com.example.evoting.model.Admin;
+import com.example.evoting.model.Ballot;
+import com.example.evoting.model.BallotReceipt;
+import com.example.evoting.model.Candidate;
+import com.example.evoting.model.CandidateTally;
+import com.example.evoting.model.Constituency;
+import com.example.evoting.model.Election;
+import com.example.evoting.model.MaintenanceJob;
+import com.example.evoting.model.VoteRow;
+import com.example.evoting.model.Voter;
+import com.example.evoting.model.VoterCredentials;
+
 @Repository
 public class ReportingRepository {
 
+        // Row mappers read columns by position, so they must stay in step with the
+        // SELECT lists of the queries that use them. Each use case has its own
+        // projection: LOB columns (candidate.symbol) and credentials are never part
+        // of a listing, ballot or detail query.
+
+        private static final RowMapper<Election> ELECTION = (rs, rowNum) -> new Election(
+                        rs.getLong(1), rs.getString(2), rs.getString(3), localDate(rs, 4), localDate(rs, 5));
+
+        private static final RowMapper<Candidate> CANDIDATE = (rs, rowNum) -> new Candidate(
+                        rs.getLong(1), rs.getString(2), rs.getString(3), rs.getLong(4), rs.getLong(5));
+
+        private static final RowMapper<Voter> VOTER = (rs, rowNum) -> new Voter(
+                        rs.getLong(1), rs.getString(2), rs.getString(3), localDate(rs, 4), rs.getString(5),
+                        rs.getLong(6));
+
+        private static final RowMapper<VoterCredentials> VOTER_CREDENTIALS = (rs, rowNum) -> new VoterCredentials(
+                        rs.getLong(1), rs.getString(2), rs.getString(3));
+
+        private static final RowMapper<Admin> ADMIN = (rs, rowNum) -> new Admin(
+                        rs.getLong(1), rs.getString(2), rs.getString(3));
+
+        private static final RowMapper<CandidateTally> CANDIDATE_TALLY = (rs, rowNum) -> new CandidateTally(
+                        rs.getLong(1), rs.getLong(2), rs.getString(3), rs.getString(4), rs.getLong(5));
+
+        private static final RowMapper<ConstituencyCandidateTally> CONSTITUENCY_CANDIDATE_TALLY = (rs,
+                        rowNum) -> new ConstituencyCandidateTally(rs.getLong(6), CANDIDATE_TALLY.mapRow(rs, rowNum));
+
+        private static final RowMapper<BallotReceipt> BALLOT_RECEIPT = (rs, rowNum) -> new BallotReceipt(
+                        rs.getLong(1), rs.getLong(2), rs.getLong(3), rs.getLong(4), rs.getString(5),
+                        rs.getString(6), rs.getLong(7));
+
+        private static final RowMapper<VoteRow> VOTE_ROW = (rs, rowNum) -> new VoteRow(
+                        rs.getLong(1), rs.getString(2), rs.getString(3), rs.getString(4), rs.getString(5));
+
+        private static final RowMapper<MaintenanceJob> MAINTENANCE_JOB = (rs, rowNum) -> new MaintenanceJob(
+                        rs.getLong(1), rs.getString(2), rs.getLong(3), rs.getString(4), rs.getLong(5),
+                        rs.getString(6), rs.getTimestamp(7).toInstant(), rs.getTimestamp(8).toInstant());
+
+        private static LocalDate localDate(ResultSet rs, int column) throws SQLException {
+                java.sql.Date date = rs.getDate(column);
+                return date != null ? date.toLocalDate() : null;
+        }
 
         /**
-         * SQL-3: Count votes for each candidate in an election.
+         * SQL-3: Count votes for each candidate in an election. Sums the
+         * candidate_tally shards, so the cost depends on the number of candidates,
+         * not ballots.
          */
         public static final String SQL_VOTES_PER_CANDIDATE = """
-                        SELECT c.candidate_id,
+                        SELECT t.election_id,
+                                c.candidate_id,
                                 c.full_name AS candidate_name,
                                 c.party_name AS party_name,
-                                COUNT(v.vote_id) AS total_votes
-                        FROM vote v
-                        JOIN candidate c ON v.candidate_id = c.candidate_id
-                        WHERE v.election_id = :electionId
-                        GROUP BY c.candidate_id, c.full_name, c.party_name
+                                SUM(t.votes) AS total_votes
+                        FROM candidate_tally t
+                        JOIN candidate c ON t.candidate_id = c.candidate_id
+                        WHERE t.election_id = :electionId
+                          AND c.deleting = FALSE
+                        GROUP BY t.election_id, c.candidate_id, c.full_name, c.party_name
+                        HAVING SUM(t.votes) > 0
                         ORDER BY total_votes DESC
                         """;
 
         /**
-         * SQL-4: Show results by constituency for a given election.
+         * SQL-4: Show results by constituency for a given election, from
+         * candidate_tally.
          */
         public static final String SQL_RESULTS_BY_CONSTITUENCY = """
-                        SELECT c.full_name AS candidate_name,
-                               COUNT(v.vote_id) AS total_votes
-                        FROM vote v
+                        SELECT t.election_id,
+                               c.candidate_id,
+                               c.full_name AS candidate_name,
+                               c.party_name AS party_name,
+                               SUM(t.votes) AS total_votes
+                        FROM candidate_tally t
                         JOIN candidate c
-                          ON v.candidate_id = c.candidate_id
-                        WHERE c.constituency_id = :constituencyId
-                          AND v.election_id = :electionId
-                        GROUP BY c.candidate_id, c.full_name
+                          ON t.candidate_id = c.candidate_id
+                        WHERE t.constituency_id = :constituencyId
+                          AND t.election_id = :electionId
+                          AND c.deleting = FALSE
+                        GROUP BY t.election_id, c.candidate_id, c.full_name, c.party_name
+                        HAVING SUM(t.votes) > 0
                         ORDER BY total_votes DESC
                         """;
 
@@ -52,30 +142,38 @@ public class ReportingRepository {
                         """;
 
         private final NamedParameterJdbcTemplate jdbcTemplate;
+        private final int streamFetchSize;
+        private final int tallyShards;
 
-        public ReportingRepository(NamedParameterJdbcTemplate jdbcTemplate) {
+        public ReportingRepository(NamedParameterJdbcTemplate jdbcTemplate,
+                        @Value("${app.jdbc.stream-fetch-size:1000}") int streamFetchSize,
+                        @Value("${app.candidate-tally.shards:8}") int tallyShards) {
                 this.jdbcTemplate = jdbcTemplate;
+                this.streamFetchSize = streamFetchSize;
+                this.tallyShards = tallyShards;
         }
 
 
-        public List<Map<String, Object>> findCandidatesForElection(long electionId) {
-                return jdbcTemplate.queryForList(
+        public List<Candidate> findCandidatesForElection(long electionId) {
+                return jdbcTemplate.query(
                                 SQL_CANDIDATES_FOR_ELECTION,
-                                new MapSqlParameterSource("electionId", electionId));
+                                new MapSqlParameterSource("electionId", electionId),
+                                CANDIDATE);
         }
 
-        public List<Map<String, Object>> findVotesPerCandidate(long electionId) {
-                return jdbcTemplate.queryForList(
+        public List<CandidateTally> findVotesPerCandidate(long electionId) {
+                return jdbcTemplate.query(
                                 SQL_VOTES_PER_CANDIDATE,
-                                new MapSqlParameterSource("electionId", electionId));
+                                new MapSqlParameterSource("electionId", electionId),
+                                CANDIDATE_TALLY);
         }
 
-        public List<Map<String, Object>> findConstituencyResults(long electionId, long constituencyId) {
+        public List<CandidateTally> findConstituencyResults(long electionId, long constituencyId) {
                 MapSqlParameterSource params = new MapSqlParameterSource()
                                 .addValue("electionId", electionId)
                                 .addValue("constituencyId", constituencyId);
 
-                return jdbcTemplate.queryForList(SQL_RESULTS_BY_CONSTITUENCY, params);
+                return jdbcTemplate.query(SQL_RESULTS_BY_CONSTITUENCY, params, CANDIDATE_TALLY);
         }
 
         /**
@@ -91,11 +189,11 @@ public class ReportingRepository {
                         LIMIT 1
                         """;
 
-        public Map<String, Object> findVoteByVoterAndElection(long electionId, long voterId) {
+        public BallotReceipt findVoteByVoterAndElection(long electionId, long voterId) {
                 MapSqlParameterSource params = new MapSqlParameterSource()
                                 .addValue("electionId", electionId)
                                 .addValue("voterId", voterId);
-                List<Map<String, Object>> rows = jdbcTemplate.queryForList(SQL_FIND_VOTE_BY_VOTER_ELECTION, params);
+                List<BallotReceipt> rows = jdbcTemplate.query(SQL_FIND_VOTE_BY_VOTER_ELECTION, params, BALLOT_RECEIPT);
                 return rows.isEmpty() ? null : rows.get(0);
         }
 
@@ -109,62 +207,274 @@ public class ReportingRepository {
         }
 
         /**
-         * SQL to insert a vote. Assumes `vote` table has (voter_id, candidate_id,
-         * election_id) columns
-         * and vote_id is auto-generated.
+         * The candidate and cast_at of a voter's ballot, read from the unique
+         * (voter_id, election_id) key.
+         */
+        public static final String SQL_VOTER_BALLOT = """
+                        SELECT candidate_id, cast_at
+                        FROM vote
+                        WHERE voter_id = :voterId
+                          AND election_id = :electionId
+                        """;
+
+        /**
+         * The voter's ballot in an election, or {@code null} if there is none.
+         */
+        public VoterBallot findVoterBallot(long electionId, long voterId) {
+                MapSqlParameterSource params = new MapSqlParameterSource()
+                                .addValue("electionId", electionId)
+                                .addValue("voterId", voterId);
+                List<VoterBallot> ballots = jdbcTemplate.query(SQL_VOTER_BALLOT, params,
+                                (rs, rowNum) -> {
+                                        Timestamp castAt = rs.getTimestamp("cast_at");
+                                        return new VoterBallot(rs.getLong("candidate_id"),
+                                                        castAt != null ? castAt.toInstant() : null);
+                                });
+                return ballots.isEmpty() ? null : ballots.get(0);
+        }
+
+        public record VoterBallot(long candidateId, Instant castAt) {
+        }
+
+        /**
+         * Which of the given voters already have a ballot in an election, read from
+         * the unique (voter_id, election_id) key.
+         */
+        public static final String SQL_VOTERS_WHO_VOTED = """
+                        SELECT voter_id
+                        FROM vote
+                        WHERE election_id = :electionId
+                          AND voter_id IN (:voterIds)
+                        """;
+
+        public Set<Long> findVotersWhoVoted(long electionId, Collection<Long> voterIds) {
+                if (voterIds.isEmpty()) {
+                        return Set.of();
+                }
+                MapSqlParameterSource params = new MapSqlParameterSource()
+                                .addValue("electionId", electionId)
+                                .addValue("voterIds", voterIds);
+                return new HashSet<>(jdbcTemplate.queryForList(SQL_VOTERS_WHO_VOTED, params, Long.class));
+        }
+
+        /**
+         * SQL to insert a vote. vote_id is auto-generated; cast_at is taken from the
+         * application clock so it lines up with the in-memory turnout series. The
+         * row is only written if the voter exists and the candidate stands in the
+         * election, because vote has no foreign keys once partitioned, and only
+         * while the election is not completed or archived: an archived election's
+         * ballots have left vote, so the unique key would no longer catch a second
+         * ballot. A candidate being deleted (see {@link #markCandidateDeleting})
+         * takes no ballots. 0 rows means the ballot was rejected.
          */
         public static final String SQL_INSERT_VOTE = """
-                        INSERT INTO vote (voter_id, candidate_id, election_id)
-                        VALUES (:voterId, :candidateId, :electionId)
+                        INSERT INTO vote (voter_id, candidate_id, election_id, cast_at)
+                        SELECT vr.voter_id, c.candidate_id, c.election_id, :castAt
+                        FROM voter vr
+                        JOIN candidate c ON c.candidate_id = :candidateId AND c.election_id = :electionId
+                        JOIN election e ON e.election_id = c.election_id
+                        WHERE vr.voter_id = :voterId
+                          AND c.deleting = FALSE
+                          AND (e.status IS NULL OR e.status NOT IN ('completed', 'archived'))
                         """;
 
+        /**
+         * Adds votes to one shard of a candidate's tally. The shard is picked from
+         * the voter id, so concurrent ballots for a popular candidate are spread
+         * over several rows instead of queueing on one row lock.
+         */
+        public static final String SQL_INCREMENT_TALLY = """
+                        UPDATE candidate_tally
+                        SET votes = votes + :votes
+                        WHERE election_id = :electionId
+                          AND candidate_id = :candidateId
+                          AND shard = :shard
+                        """;
+
+        /**
+         * Inserts a ballot and counts it in candidate_tally. Both statements must
+         * run in the caller's transaction. Returns 0 if the voter or the candidate
+         * does not exist.
+         */
         public int insertVote(long electionId, long voterId, long candidateId) {
+                return insertVote(electionId, voterId, candidateId, Instant.now());
+        }
+
+        /**
+         * {@link #insertVote(long, long, long)} with the ballot's cast_at given by
+         * the caller.
+         */
+        public int insertVote(long electionId, long voterId, long candidateId, Instant castAt) {
                 MapSqlParameterSource params = new MapSqlParameterSource()
                                 .addValue("electionId", electionId)
                                 .addValue("voterId", voterId)
-                                .addValue("candidateId", candidateId);
+                                .addValue("candidateId", candidateId)
+                                .addValue("castAt", Timestamp.from(castAt));
+
+                int rows = jdbcTemplate.update(SQL_INSERT_VOTE, params);
+                if (rows > 0) {
+                        incrementTally(List.of(new TallyIncrement(electionId, candidateId, tallyShard(voterId), rows)));
+                }
+                return rows;
+        }
+
+        /**
+         * Inserts several ballots with a single JDBC batch and counts them in
+         * candidate_tally with one increment per (candidate, shard), applied in key
+         * order so concurrent batches cannot deadlock. Must run in the caller's
+         * transaction. A ballot whose voter or candidate does not exist gets 0 in
+         * the returned counts and is not tallied.
+         */
+        public int[] insertVotes(List<Ballot> ballots) {
+                return insertVotes(ballots, Instant.now());
+        }
 
-                return jdbcTemplate.update(SQL_INSERT_VOTE, params);
+        /**
+         * {@link #insertVotes(List)} with the cast_at of every ballot given by the
+         * caller.
+         */
+        public int[] insertVotes(List<Ballot> ballots, Instant batchCastAt) {
+                MapSqlParameterSource[] batch = new MapSqlParameterSource[ballots.size()];
+                Map<TallyIncrement, Integer> counts = new TreeMap<>(TALLY_KEY_ORDER);
+                Timestamp castAt = Timestamp.from(batchCastAt);
+                for (int i = 0; i < batch.length; i++) {
+                        Ballot ballot = ballots.get(i);
+                        batch[i] = new MapSqlParameterSource()
+                                        .addValue("electionId", ballot.electionId())
+                                        .addValue("voterId", ballot.voterId())
+                                        .addValue("candidateId", ballot.candidateId())
+                                        .addValue("castAt", castAt);
+                }
+                int[] rows = jdbcTemplate.batchUpdate(SQL_INSERT_VOTE, batch);
+                for (int i = 0; i < rows.length; i++) {
+                        // Drivers may report SUCCESS_NO_INFO (-2) for batched rows; only 0 is a miss.
+                        if (rows[i] != 0) {
+                                Ballot ballot = ballots.get(i);
+                                counts.merge(new TallyIncrement(ballot.electionId(), ballot.candidateId(),
+                                                tallyShard(ballot.voterId()), 0), 1, Integer::sum);
+                        }
+                }
+                List<TallyIncrement> increments = new ArrayList<>(counts.size());
+                counts.forEach((key, votes) -> increments.add(new TallyIncrement(key.electionId(), key.candidateId(),
+                                key.shard(), votes)));
+                incrementTally(increments);
+                return rows;
         }
 
-        public Map<String, Object> findVoterByIdString(String idStr) {
+        private void incrementTally(List<TallyIncrement> increments) {
+                MapSqlParameterSource[] batch = new MapSqlParameterSource[increments.size()];
+                for (int i = 0; i < batch.length; i++) {
+                        TallyIncrement increment = increments.get(i);
+                        batch[i] = new MapSqlParameterSource()
+                                        .addValue("electionId", increment.electionId())
+                                        .addValue("candidateId", increment.candidateId())
+                                        .addValue("shard", increment.shard())
+                                        .addValue("votes", increment.votes());
+                }
+                int[] updated = jdbcTemplate.batchUpdate(SQL_INCREMENT_TALLY, batch);
+                for (int i = 0; i < updated.length; i++) {
+                        // Drivers may report SUCCESS_NO_INFO (-2) for batched rows; only 0 is a miss.
+                        if (updated[i] == 0) {
+                                throw new IllegalStateException("No candidate_tally row for candidate "
+                                                + increments.get(i).candidateId() + " in election "
+                                                + increments.get(i).electionId());
+                        }
+                }
+        }
+
+        private int tallyShard(long voterId) {
+                return (int) Math.floorMod(voterId, (long) tallyShards);
+        }
+
+        private static final Comparator<TallyIncrement> TALLY_KEY_ORDER = Comparator
+                        .comparingLong(TallyIncrement::electionId)
+                        .thenComparingLong(TallyIncrement::candidateId)
+                        .thenComparingInt(TallyIncrement::shard);
+
+        private record TallyIncrement(long electionId, long candidateId, int shard, int votes) {
+        }
+
+        public Voter findVoterByIdString(String idStr) {
                 try {
-                        long id = Long.parseLong(idStr);
-                        String sql = "SELECT * FROM voter WHERE voter_id = ?";
-                        return jdbcTemplate.getJdbcTemplate().queryForMap(sql, id);
-                } catch (NumberFormatException | org.springframework.dao.EmptyResultDataAccessException e) {
+                        return findVoterById(Long.parseLong(idStr));
+                } catch (NumberFormatException e) {
                         return null;
                 }
         }
 
         // Find a voter by national id (nid)
         public static final String SQL_FIND_VOTER_BY_NID = """
-                        SELECT voter_id, full_name, nid_number, date_of_birth, gender
+                        SELECT voter_id, full_name, nid_number, date_of_birth, gender, constituency_id
                         FROM voter
                         WHERE nid_number = :nidNumber
                         LIMIT 1
                         """;
 
-        public Map<String, Object> findVoterByNid(String nid) {
+        public Voter findVoterByNid(String nid) {
                 MapSqlParameterSource params = new MapSqlParameterSource().addValue("nidNumber", nid);
-                List<Map<String, Object>> rows = jdbcTemplate.queryForList(SQL_FIND_VOTER_BY_NID, params);
+                List<Voter> rows = jdbcTemplate.query(SQL_FIND_VOTER_BY_NID, params, VOTER);
                 return rows.isEmpty() ? null : rows.get(0);
         }
 
         // Find a voter by voter_id
         public static final String SQL_FIND_VOTER_BY_ID = """
-                        SELECT voter_id, full_name, nid_number, date_of_birth, gender
+                        SELECT voter_id, full_name, nid_number, date_of_birth, gender, constituency_id
                         FROM voter
                         WHERE voter_id = :voterId
                         LIMIT 1
                         """;
 
-        public Map<String, Object> findVoterById(long voterId) {
+        public Voter findVoterById(long voterId) {
                 MapSqlParameterSource params = new MapSqlParameterSource().addValue("voterId", voterId);
-                List<Map<String, Object>> rows = jdbcTemplate.queryForList(SQL_FIND_VOTER_BY_ID, params);
+                List<Voter> rows = jdbcTemplate.query(SQL_FIND_VOTER_BY_ID, params, VOTER);
                 return rows.isEmpty() ? null : rows.get(0);
         }
 
+        // Authentication projection: the login name may be an NID or a voter_id
+        public static final String SQL_FIND_VOTER_CREDENTIALS_BY_NID = """
+                        SELECT voter_id, nid_number, password
+                        FROM voter
+                        WHERE nid_number = :nidNumber
+                        LIMIT 1
+                        """;
+
+        public static final String SQL_FIND_VOTER_CREDENTIALS_BY_ID = """
+                        SELECT voter_id, nid_number, password
+                        FROM voter
+                        WHERE voter_id = :voterId
+                        LIMIT 1
+                        """;
+
+        public VoterCredentials findVoterCredentialsByNid(String nid) {
+                MapSqlParameterSource params = new MapSqlParameterSource().addValue("nidNumber", nid);
+                List<VoterCredentials> rows = jdbcTemplate.query(SQL_FIND_VOTER_CREDENTIALS_BY_NID, params,
+                                VOTER_CREDENTIALS);
+                return rows.isEmpty() ? null : rows.get(0);
+        }
+
+        public VoterCredentials findVoterCredentialsById(long voterId) {
+                MapSqlParameterSource params = new MapSqlParameterSource().addValue("voterId", voterId);
+                List<VoterCredentials> rows = jdbcTemplate.query(SQL_FIND_VOTER_CREDENTIALS_BY_ID, params,
+                                VOTER_CREDENTIALS);
+                return rows.isEmpty() ? null : rows.get(0);
+        }
+
+        /**
+         * Resolves a login name the same way the login form does: first as an NID,
+         * then as a numeric voter_id.
+         */
+        public VoterCredentials findVoterCredentialsByLogin(String username) {
+                VoterCredentials credentials = findVoterCredentialsByNid(username);
+                if (credentials != null) {
+                        return credentials;
+                }
+                try {
+                        return findVoterCredentialsById(Long.parseLong(username));
+                } catch (NumberFormatException e) {
+                        return null;
+                }
+        }
+
         // Admin queries
         public static final String SQL_FIND_ADMIN_BY_USERNAME = """
                         SELECT admin_id, username, password
@@ -173,9 +483,9 @@ public class ReportingRepository {
                         LIMIT 1
                         """;
 
-        public Map<String, Object> findAdminByUsername(String username) {
+        public Admin findAdminByUsername(String username) {
                 MapSqlParameterSource params = new MapSqlParameterSource().addValue("username", username);
-                List<Map<String, Object>> rows = jdbcTemplate.queryForList(SQL_FIND_ADMIN_BY_USERNAME, params);
+                List<Admin> rows = jdbcTemplate.query(SQL_FIND_ADMIN_BY_USERNAME, params, ADMIN);
                 return rows.isEmpty() ? null : rows.get(0);
         }
 
@@ -198,14 +508,36 @@ public class ReportingRepository {
                         VALUES (:fullName, :nidNumber, :dob, :gender, :password)
                         """;
 
-        public int insertVoter(String fullName, String nidNumber, String dob, String gender, String passwordHash) {
+        /**
+         * Inserts a voter and returns the generated voter_id.
+         */
+        public long insertVoter(String fullName, String nidNumber, String dob, String gender, String passwordHash) {
                 MapSqlParameterSource params = new MapSqlParameterSource()
                                 .addValue("fullName", fullName)
                                 .addValue("nidNumber", nidNumber)
                                 .addValue("dob", dob)
                                 .addValue("gender", gender)
                                 .addValue("password", passwordHash);
-                return jdbcTemplate.update(SQL_INSERT_VOTER, params);
+                KeyHolder keyHolder = new GeneratedKeyHolder();
+                int rows = jdbcTemplate.update(SQL_INSERT_VOTER, params, keyHolder, new String[] { "voter_id" });
+                Number key = keyHolder.getKey();
+                if (rows != 1 || key == null) {
+                        throw new IllegalStateException("Failed to insert voter");
+                }
+                return key.longValue();
+        }
+
+        public static final String SQL_UPDATE_VOTER_PASSWORD = """
+                        UPDATE voter
+                        SET password = :password
+                        WHERE voter_id = :voterId
+                        """;
+
+        public int updateVoterPassword(long voterId, String passwordHash) {
+                MapSqlParameterSource params = new MapSqlParameterSource()
+                                .addValue("voterId", voterId)
+                                .addValue("password", passwordHash);
+                return jdbcTemplate.update(SQL_UPDATE_VOTER_PASSWORD, params);
         }
 
         public static final String SQL_CANDIDATES_FOR_ELECTION = """
@@ -216,44 +548,92 @@ public class ReportingRepository {
                                election_id
                         FROM candidate
                         WHERE election_id = :electionId
+                          AND deleting = FALSE
                         ORDER BY candidate_id
                         """;
 
         // ... (other queries)
 
-        // Insert candidate
+        // Insert candidate. The symbol itself lives in the SymbolStore; the row only
+        // records its content hash.
         public static final String SQL_INSERT_CANDIDATE = """
-                        INSERT INTO candidate (full_name, party_name, constituency_id, election_id, symbol, voter_id)
-                        VALUES (:fullName, :partyName, :constituencyId, :electionId, :symbol, :voterId)
+                        INSERT INTO candidate (full_name, party_name, constituency_id, election_id, symbol_hash, voter_id)
+                        VALUES (:fullName, :partyName, :constituencyId, :electionId, :symbolHash, :voterId)
                         """;
 
-        public int insertCandidate(String fullName, String partyName, long constituencyId, long electionId,
-                        byte[] symbol, long voterId) {
+        /**
+         * Inserts a candidate and returns its generated candidate_id.
+         */
+        public long insertCandidate(String fullName, String partyName, long constituencyId, long electionId,
+                        String symbolHash, long voterId) {
                 MapSqlParameterSource params = new MapSqlParameterSource()
                                 .addValue("fullName", fullName)
                                 .addValue("partyName", partyName)
                                 .addValue("constituencyId", constituencyId)
                                 .addValue("electionId", electionId)
-                                .addValue("symbol", symbol) // JDBC handles byte[] as BLOB
+                                .addValue("symbolHash", symbolHash)
                                 .addValue("voterId", voterId);
-                return jdbcTemplate.update(SQL_INSERT_CANDIDATE, params);
+                KeyHolder keyHolder = new GeneratedKeyHolder();
+                int rows = jdbcTemplate.update(SQL_INSERT_CANDIDATE, params, keyHolder, new String[] { "candidate_id" });
+                Number key = keyHolder.getKey();
+                if (rows != 1 || key == null) {
+                        throw new IllegalStateException("Failed to insert candidate");
+                }
+                return key.longValue();
         }
 
-        public byte[] getCandidateSymbol(long candidateId) {
-                String sql = "SELECT symbol FROM candidate WHERE candidate_id = :candidateId";
-                MapSqlParameterSource params = new MapSqlParameterSource().addValue("candidateId", candidateId);
-                try {
-                        return jdbcTemplate.queryForObject(sql, params, byte[].class);
-                } catch (Exception e) {
-                        return null;
-                }
+        public static final String SQL_CANDIDATE_SYMBOL_HASH = "SELECT symbol_hash FROM candidate WHERE candidate_id = :candidateId";
+
+        /**
+         * Content hash of a candidate's symbol, or {@code null} if the candidate does
+         * not exist or has no symbol.
+         */
+        public String findCandidateSymbolHash(long candidateId) {
+                List<String> hashes = jdbcTemplate.queryForList(SQL_CANDIDATE_SYMBOL_HASH,
+                                new MapSqlParameterSource("candidateId", candidateId), String.class);
+                return hashes.isEmpty() ? null : hashes.get(0);
+        }
+
+        // Symbols still stored inline from before the SymbolStore existed.
+        public static final String SQL_CANDIDATES_WITH_BLOB_SYMBOL = """
+                        SELECT candidate_id, symbol
+                        FROM candidate
+                        WHERE symbol IS NOT NULL AND symbol_hash IS NULL
+                        ORDER BY candidate_id
+                        LIMIT :limit
+                        """;
+
+        public List<LegacySymbol> findCandidatesWithBlobSymbol(int limit) {
+                return jdbcTemplate.query(SQL_CANDIDATES_WITH_BLOB_SYMBOL, new MapSqlParameterSource("limit", limit),
+                                (rs, rowNum) -> new LegacySymbol(rs.getLong(1), rs.getBytes(2)));
+        }
+
+        public static final String SQL_UPDATE_CANDIDATE_SYMBOL_HASH = """
+                        UPDATE candidate SET symbol_hash = :symbolHash, symbol = NULL
+                        WHERE candidate_id = :candidateId
+                        """;
+
+        /**
+         * Points a candidate at its stored symbol and drops the inline copy.
+         */
+        public int updateCandidateSymbolHash(long candidateId, String symbolHash) {
+                MapSqlParameterSource params = new MapSqlParameterSource()
+                                .addValue("candidateId", candidateId)
+                                .addValue("symbolHash", symbolHash);
+                return jdbcTemplate.update(SQL_UPDATE_CANDIDATE_SYMBOL_HASH, params);
+        }
+
+        public record LegacySymbol(long candidateId, byte[] bytes) {
         }
 
         public static final String SQL_DELETE_CANDIDATE = "DELETE FROM candidate WHERE candidate_id = :candidateId";
         public static final String SQL_DELETE_VOTES_BY_CANDIDATE = "DELETE FROM vote WHERE candidate_id = :candidateId";
 
+        public static final String SQL_DELETE_TALLY_BY_CANDIDATE = "DELETE FROM candidate_tally WHERE candidate_id = :candidateId";
+
         public int deleteVotesByCandidateId(long candidateId) {
                 MapSqlParameterSource params = new MapSqlParameterSource().addValue("candidateId", candidateId);
+                jdbcTemplate.update(SQL_DELETE_TALLY_BY_CANDIDATE, params);
                 return jdbcTemplate.update(SQL_DELETE_VOTES_BY_CANDIDATE, params);
         }
 
@@ -284,25 +664,37 @@ public class ReportingRepository {
         public static final String SQL_SELECT_ELECTIONS = """
                         SELECT election_id, title, status, start_date, end_date
                         FROM election
+                        WHERE deleting = FALSE
                         ORDER BY election_id DESC
                         """;
 
-        public List<Map<String, Object>> findAllElections() {
-                return jdbcTemplate.queryForList(SQL_SELECT_ELECTIONS, Map.of());
+        public List<Election> findAllElections() {
+                return jdbcTemplate.query(SQL_SELECT_ELECTIONS, Map.of(), ELECTION);
         }
 
-        public static final String SQL_ALL_CANDIDATES = "SELECT * FROM candidate ORDER BY election_id DESC, constituency_id ASC";
+        public static final String SQL_ALL_CANDIDATES = """
+                        SELECT candidate_id,
+                               full_name,
+                               party_name,
+                               constituency_id,
+                               election_id
+                        FROM candidate
+                        WHERE deleting = FALSE
+                        ORDER BY election_id DESC, constituency_id ASC
+                        """;
 
-        public List<Map<String, Object>> findAllCandidates() {
-                return jdbcTemplate.queryForList(SQL_ALL_CANDIDATES, Map.of());
+        public List<Candidate> findAllCandidates() {
+                return jdbcTemplate.query(SQL_ALL_CANDIDATES, Map.of(), CANDIDATE);
         }
 
         public static final String SQL_DELETE_VOTES_BY_ELECTION = "DELETE FROM vote WHERE election_id = :electionId";
+        public static final String SQL_DELETE_TALLY_BY_ELECTION = "DELETE FROM candidate_tally WHERE election_id = :electionId";
         public static final String SQL_DELETE_CANDIDATES_BY_ELECTION = "DELETE FROM candidate WHERE election_id = :electionId";
         public static final String SQL_DELETE_ELECTION = "DELETE FROM election WHERE election_id = :electionId";
 
         public int deleteVotesByElectionId(long electionId) {
                 MapSqlParameterSource params = new MapSqlParameterSource().addValue("electionId", electionId);
+                jdbcTemplate.update(SQL_DELETE_TALLY_BY_ELECTION, params);
                 return jdbcTemplate.update(SQL_DELETE_VOTES_BY_ELECTION, params);
         }
 
@@ -316,7 +708,281 @@ public class ReportingRepository {
                 return jdbcTemplate.update(SQL_DELETE_ELECTION, params);
         }
 
-        public static final String SQL_VOTES_BY_ELECTION = """
+        public static final String SQL_UPDATE_ELECTION_STATUS = "UPDATE election SET status = :status WHERE election_id = :electionId";
+
+        public int updateElectionStatus(long electionId, String status) {
+                MapSqlParameterSource params = new MapSqlParameterSource()
+                                .addValue("electionId", electionId)
+                                .addValue("status", status);
+                return jdbcTemplate.update(SQL_UPDATE_ELECTION_STATUS, params);
+        }
+
+        /**
+         * One chunk of an election's or a candidate's ballots, for the background
+         * deletions. Both use idx_vote_election_candidate and, on MySQL, touch a
+         * single partition.
+         */
+        public static final String SQL_DELETE_VOTES_BY_ELECTION_CHUNK = """
+                        DELETE FROM vote
+                        WHERE election_id = :electionId
+                        LIMIT :limit
+                        """;
+
+        public static final String SQL_DELETE_VOTES_BY_CANDIDATE_CHUNK = """
+                        DELETE FROM vote
+                        WHERE election_id = :electionId
+                          AND candidate_id = :candidateId
+                        LIMIT :limit
+                        """;
+
+        public int deleteVotesByElectionChunk(long electionId, int limit) {
+                MapSqlParameterSource params = new MapSqlParameterSource()
+                                .addValue("electionId", electionId)
+                                .addValue("limit", limit);
+                return jdbcTemplate.update(SQL_DELETE_VOTES_BY_ELECTION_CHUNK, params);
+        }
+
+        public int deleteVotesByCandidateChunk(long electionId, long candidateId, int limit) {
+                MapSqlParameterSource params = new MapSqlParameterSource()
+                                .addValue("electionId", electionId)
+                                .addValue("candidateId", candidateId)
+                                .addValue("limit", limit);
+                return jdbcTemplate.update(SQL_DELETE_VOTES_BY_CANDIDATE_CHUNK, params);
+        }
+
+        public static final String SQL_CANDIDATE_ELECTION = "SELECT election_id FROM candidate WHERE candidate_id = :candidateId";
+
+        /**
+         * The election a candidate stands in, or {@code null} if the candidate does
+         * not exist.
+         */
+        public Long findCandidateElectionId(long candidateId) {
+                List<Long> ids = jdbcTemplate.queryForList(SQL_CANDIDATE_ELECTION,
+                                new MapSqlParameterSource("candidateId", candidateId), Long.class);
+                return ids.isEmpty() ? null : ids.get(0);
+        }
+
+        // Background deletions (maintenance_job)
+
+        public static final String SQL_INSERT_MAINTENANCE_JOB = """
+                        INSERT INTO maintenance_job (kind, target_id, status, rows_deleted, created_at, updated_at)
+                        VALUES (:kind, :targetId, 'queued', 0, :now, :now)
+                        """;
+
+        public static final String SQL_MAINTENANCE_JOBS = """
+                        SELECT job_id, kind, target_id, status, rows_deleted, message, created_at, updated_at
+                        FROM maintenance_job
+                        ORDER BY job_id DESC
+                        LIMIT :limit
+                        """;
+
+        public static final String SQL_ACTIVE_MAINTENANCE_JOB = """
+                        SELECT job_id, kind, target_id, status, rows_deleted, message, created_at, updated_at
+                        FROM maintenance_job
+                        WHERE status IN ('queued', 'running')
+                          AND kind = :kind
+                          AND target_id = :targetId
+                        """;
+
+        /**
+         * The oldest job that is waiting, or running without a heartbeat since
+         * {@code staleBefore} (its worker died).
+         */
+        public static final String SQL_NEXT_MAINTENANCE_JOB = """
+                        SELECT job_id, kind, target_id, status, rows_deleted, message, created_at, updated_at
+                        FROM maintenance_job
+                        WHERE status = 'queued'
+                           OR (status = 'running' AND updated_at < :staleBefore)
+                        ORDER BY job_id
+                        LIMIT 1
+                        """;
+
+        /**
+         * Takes a job over if nobody else has touched it since it was read.
+         */
+        public static final String SQL_CLAIM_MAINTENANCE_JOB = """
+                        UPDATE maintenance_job
+                        SET status = 'running', updated_at = :now
+                        WHERE job_id = :jobId
+                          AND status = :status
+                          AND updated_at = :updatedAt
+                        """;
+
+        /**
+         * Adds a chunk to the progress and beats the heartbeat. Updates nothing
+         * once the job is no longer running, which is how the worker notices.
+         */
+        public static final String SQL_MAINTENANCE_JOB_PROGRESS = """
+                        UPDATE maintenance_job
+                        SET rows_deleted = rows_deleted + :rows, updated_at = :now
+                        WHERE job_id = :jobId
+                          AND status = 'running'
+                        """;
+
+        public static final String SQL_FINISH_MAINTENANCE_JOB = """
+                        UPDATE maintenance_job
+                        SET status = :status, message = :message, updated_at = :now
+                        WHERE job_id = :jobId
+                          AND status = 'running'
+                        """;
+
+        /**
+         * Only a job that has not started can be cancelled: once ballots are being
+         * deleted the target is gone for good, and the job has to finish.
+         */
+        public static final String SQL_CANCEL_MAINTENANCE_JOB = """
+                        UPDATE maintenance_job
+                        SET status = 'cancelled', updated_at = :now
+                        WHERE job_id = :jobId
+                          AND status = 'queued'
+                        """;
+
+        public static final String SQL_MAINTENANCE_JOB = """
+                        SELECT job_id, kind, target_id, status, rows_deleted, message, created_at, updated_at
+                        FROM maintenance_job
+                        WHERE job_id = :jobId
+                        """;
+
+        /**
+         * Flags an election and its candidates as being deleted. Clearing it skips
+         * candidates that have a deletion of their own pending or failed.
+         */
+        public static final String SQL_MARK_ELECTION_DELETING = """
+                        UPDATE election
+                        SET deleting = :deleting
+                        WHERE election_id = :electionId
+                        """;
+
+        public static final String SQL_MARK_ELECTION_CANDIDATES_DELETING = """
+                        UPDATE candidate
+                        SET deleting = :deleting
+                        WHERE election_id = :electionId
+                          AND (:deleting = TRUE
+                               OR NOT EXISTS (SELECT 1
+                                              FROM maintenance_job j
+                                              WHERE j.kind = 'delete-candidate'
+                                                AND j.target_id = candidate.candidate_id
+                                                AND j.status IN ('queued', 'running', 'failed')))
+                        """;
+
+        /**
+         * Flags one candidate as being deleted. It stays flagged while its election
+         * is being deleted.
+         */
+        public static final String SQL_MARK_CANDIDATE_DELETING = """
+                        UPDATE candidate
+                        SET deleting = :deleting
+                        WHERE candidate_id = :candidateId
+                          AND (:deleting = TRUE
+                               OR NOT EXISTS (SELECT 1
+                                              FROM election e
+                                              WHERE e.election_id = candidate.election_id
+                                                AND e.deleting = TRUE))
+                        """;
+
+        /**
+         * Sets or clears the deletion flag of an election and its candidates.
+         * Flagged candidates take no ballots ({@link #SQL_INSERT_VOTE}), and flagged
+         * rows are left out of the election and candidate lists and the results.
+         */
+        public void markElectionDeleting(long electionId, boolean deleting) {
+                MapSqlParameterSource params = new MapSqlParameterSource()
+                                .addValue("electionId", electionId)
+                                .addValue("deleting", deleting);
+                jdbcTemplate.update(SQL_MARK_ELECTION_DELETING, params);
+                jdbcTemplate.update(SQL_MARK_ELECTION_CANDIDATES_DELETING, params);
+        }
+
+        public void markCandidateDeleting(long candidateId, boolean deleting) {
+                MapSqlParameterSource params = new MapSqlParameterSource()
+                                .addValue("candidateId", candidateId)
+                                .addValue("deleting", deleting);
+                jdbcTemplate.update(SQL_MARK_CANDIDATE_DELETING, params);
+        }
+
+        public MaintenanceJob findMaintenanceJob(long jobId) {
+                List<MaintenanceJob> jobs = jdbcTemplate.query(SQL_MAINTENANCE_JOB,
+                                new MapSqlParameterSource("jobId", jobId), MAINTENANCE_JOB);
+                return jobs.isEmpty() ? null : jobs.get(0);
+        }
+
+        public long insertMaintenanceJob(String kind, long targetId, Instant now) {
+                MapSqlParameterSource params = new MapSqlParameterSource()
+                                .addValue("kind", kind)
+                                .addValue("targetId", targetId)
+                                .addValue("now", Timestamp.from(now));
+                KeyHolder keyHolder = new GeneratedKeyHolder();
+                int rows = jdbcTemplate.update(SQL_INSERT_MAINTENANCE_JOB, params, keyHolder, new String[] { "job_id" });
+                Number key = keyHolder.getKey();
+                if (rows != 1 || key == null) {
+                        throw new IllegalStateException("Failed to insert maintenance job");
+                }
+                return key.longValue();
+        }
+
+        public List<MaintenanceJob> findMaintenanceJobs(int limit) {
+                return jdbcTemplate.query(SQL_MAINTENANCE_JOBS, new MapSqlParameterSource("limit", limit),
+                                MAINTENANCE_JOB);
+        }
+
+        public MaintenanceJob findActiveMaintenanceJob(String kind, long targetId) {
+                MapSqlParameterSource params = new MapSqlParameterSource()
+                                .addValue("kind", kind)
+                                .addValue("targetId", targetId);
+                List<MaintenanceJob> jobs = jdbcTemplate.query(SQL_ACTIVE_MAINTENANCE_JOB, params, MAINTENANCE_JOB);
+                return jobs.isEmpty() ? null : jobs.get(0);
+        }
+
+        public MaintenanceJob findNextMaintenanceJob(Instant staleBefore) {
+                List<MaintenanceJob> jobs = jdbcTemplate.query(SQL_NEXT_MAINTENANCE_JOB,
+                                new MapSqlParameterSource("staleBefore", Timestamp.from(staleBefore)), MAINTENANCE_JOB);
+                return jobs.isEmpty() ? null : jobs.get(0);
+        }
+
+        public boolean claimMaintenanceJob(MaintenanceJob job, Instant now) {
+                MapSqlParameterSource params = new MapSqlParameterSource()
+                                .addValue("jobId", job.jobId())
+                                .addValue("status", job.status())
+                                .addValue("updatedAt", Timestamp.from(job.updatedAt()))
+                                .addValue("now", Timestamp.from(now));
+                return jdbcTemplate.update(SQL_CLAIM_MAINTENANCE_JOB, params) == 1;
+        }
+
+        /**
+         * Returns false if the job is no longer running.
+         */
+        public boolean recordMaintenanceProgress(long jobId, long rows, Instant now) {
+                MapSqlParameterSource params = new MapSqlParameterSource()
+                                .addValue("jobId", jobId)
+                                .addValue("rows", rows)
+                                .addValue("now", Timestamp.from(now));
+                return jdbcTemplate.update(SQL_MAINTENANCE_JOB_PROGRESS, params) == 1;
+        }
+
+        public boolean finishMaintenanceJob(long jobId, String status, String message, Instant now) {
+                MapSqlParameterSource params = new MapSqlParameterSource()
+                                .addValue("jobId", jobId)
+                                .addValue("status", status)
+                                .addValue("message", message)
+                                .addValue("now", Timestamp.from(now));
+                return jdbcTemplate.update(SQL_FINISH_MAINTENANCE_JOB, params) == 1;
+        }
+
+        public boolean cancelMaintenanceJob(long jobId, Instant now) {
+                MapSqlParameterSource params = new MapSqlParameterSource()
+                                .addValue("jobId", jobId)
+                                .addValue("now", Timestamp.from(now));
+                return jdbcTemplate.update(SQL_CANCEL_MAINTENANCE_JOB, params) == 1;
+        }
+
+        /**
+         * One page of the admin voting records in vote_id order, keyed on the last
+         * vote id seen so no OFFSET scan is needed. The first page uses id 0. On
+         * MySQL the election's partition is read in primary key order and the scan
+         * stops after {@code :limit} rows; ordering by voter name instead would sort
+         * every ballot of the election for each page.
+         */
+        public static final String SQL_VOTES_BY_ELECTION_PAGE = """
                         SELECT v.vote_id,
                                vr.full_name AS voter_name,
                                vr.nid_number AS voter_nid,
@@ -326,11 +992,355 @@ public class ReportingRepository {
                         JOIN voter vr ON v.voter_id = vr.voter_id
                         JOIN candidate c ON v.candidate_id = c.candidate_id
                         WHERE v.election_id = :electionId
-                        ORDER BY vr.full_name
+                          AND v.vote_id > :afterId
+                        ORDER BY v.vote_id
+                        LIMIT :limit
+                        """;
+
+        /**
+         * Every ballot of an election in vote_id order, for streaming exports. Uses
+         * positional parameters because it is executed through a hand-built,
+         * forward-only statement with a fetch size.
+         */
+        public static final String SQL_VOTES_BY_ELECTION = """
+                        SELECT v.vote_id,
+                               vr.full_name AS voter_name,
+                               vr.nid_number AS voter_nid,
+                               c.full_name AS candidate_name,
+                               c.party_name
+                        FROM vote v
+                        JOIN voter vr ON v.voter_id = vr.voter_id
+                        JOIN candidate c ON v.candidate_id = c.candidate_id
+                        WHERE v.election_id = ?
+                        ORDER BY v.vote_id
+                        """;
+
+        public List<VoteRow> findVotesByElectionPage(long electionId, long afterId, int limit) {
+                return findVotesByElectionPage(VotePartitionManager.VOTE_TABLE, electionId, afterId, limit);
+        }
+
+        /**
+         * {@link #findVotesByElectionPage(long, long, int)} against
+         * {@code voteTable}, which is {@code vote} or an election's archive table
+         * from {@link VotePartitionManager#voteTable(long)}.
+         */
+        public List<VoteRow> findVotesByElectionPage(String voteTable, long electionId, long afterId, int limit) {
+                MapSqlParameterSource params = new MapSqlParameterSource()
+                                .addValue("electionId", electionId)
+                                .addValue("afterId", afterId)
+                                .addValue("limit", limit);
+                return jdbcTemplate.query(fromVoteTable(SQL_VOTES_BY_ELECTION_PAGE, voteTable), params, VOTE_ROW);
+        }
+
+        /**
+         * Pushes every ballot of an election to {@code sink} without holding the
+         * result in memory. The statement is forward-only with a fetch size, which
+         * MySQL honours as a server-side cursor when the URL sets
+         * {@code useCursorFetch=true}.
+         */
+        public void streamVotesByElection(long electionId, Consumer<VoteRow> sink) {
+                streamVotesByElection(VotePartitionManager.VOTE_TABLE, electionId, sink);
+        }
+
+        public void streamVotesByElection(String voteTable, long electionId, Consumer<VoteRow> sink) {
+                jdbcTemplate.getJdbcTemplate().query(
+                                new CursorStatement(fromVoteTable(SQL_VOTES_BY_ELECTION, voteTable), streamFetchSize,
+                                                ps -> ps.setLong(1, electionId)),
+                                (RowCallbackHandler) rs -> sink.accept(VOTE_ROW.mapRow(rs, 0)));
+        }
+
+        /**
+         * Points a ballot query at another table with the vote table's columns.
+         * For the live table the constant itself is returned, so statement
+         * profiling still names it.
+         */
+        private static String fromVoteTable(String sql, String voteTable) {
+                if (VotePartitionManager.VOTE_TABLE.equals(voteTable)) {
+                        return sql;
+                }
+                return sql.replace("FROM vote v", "FROM " + voteTable + " v");
+        }
+
+        /**
+         * Per-candidate vote counts for every election from candidate_tally,
+         * including candidates that have not received a vote yet. Used to seed and
+         * reconcile the live tally.
+         */
+        public static final String SQL_CANDIDATE_TALLIES = """
+                        SELECT c.election_id,
+                               c.candidate_id,
+                               c.full_name AS candidate_name,
+                               c.party_name AS party_name,
+                               COALESCE(SUM(t.votes), 0) AS total_votes
+                        FROM candidate c
+                        LEFT JOIN candidate_tally t
+                          ON t.election_id = c.election_id
+                         AND t.candidate_id = c.candidate_id
+                        WHERE c.deleting = FALSE
+                        GROUP BY c.election_id, c.candidate_id, c.full_name, c.party_name
+                        """;
+
+        public static final String SQL_CANDIDATE_TALLIES_FOR_ELECTION = """
+                        SELECT c.election_id,
+                               c.candidate_id,
+                               c.full_name AS candidate_name,
+                               c.party_name AS party_name,
+                               COALESCE(SUM(t.votes), 0) AS total_votes
+                        FROM candidate c
+                        LEFT JOIN candidate_tally t
+                          ON t.election_id = c.election_id
+                         AND t.candidate_id = c.candidate_id
+                        WHERE c.election_id = :electionId
+                          AND c.deleting = FALSE
+                        GROUP BY c.election_id, c.candidate_id, c.full_name, c.party_name
+                        """;
+
+        /**
+         * Per-candidate vote counts for every election counted from the vote table,
+         * for {@link #SQL_TALLY_TABLE_TOTALS} to be verified against. The ballots of
+         * an archived election have left the vote table, so its counts are the
+         * final candidate_tally totals.
+         */
+        public static final String SQL_CANDIDATE_VOTE_COUNTS = """
+                        SELECT c.election_id,
+                               c.candidate_id,
+                               c.full_name AS candidate_name,
+                               c.party_name AS party_name,
+                               COUNT(v.vote_id) AS total_votes
+                        FROM candidate c
+                        LEFT JOIN election e ON e.election_id = c.election_id
+                        LEFT JOIN vote v
+                          ON v.candidate_id = c.candidate_id
+                         AND v.election_id = c.election_id
+                        WHERE e.status IS NULL OR e.status <> 'archived'
+                        GROUP BY c.election_id, c.candidate_id, c.full_name, c.party_name
+                        UNION ALL
+                        SELECT t.election_id,
+                               t.candidate_id,
+                               c.full_name AS candidate_name,
+                               c.party_name AS party_name,
+                               SUM(t.votes) AS total_votes
+                        FROM candidate_tally t
+                        JOIN election e ON e.election_id = t.election_id
+                        JOIN candidate c ON t.candidate_id = c.candidate_id
+                        WHERE e.status = 'archived'
+                        GROUP BY t.election_id, t.candidate_id, c.full_name, c.party_name
                         """;
 
-        public List<Map<String, Object>> findVotesByElection(long electionId) {
-                return jdbcTemplate.queryForList(SQL_VOTES_BY_ELECTION,
-                                new MapSqlParameterSource("electionId", electionId));
+        public List<CandidateTally> findCandidateTallies() {
+                return jdbcTemplate.query(SQL_CANDIDATE_TALLIES, Map.of(), CANDIDATE_TALLY);
+        }
+
+        public List<CandidateTally> findCandidateTallies(long electionId) {
+                return jdbcTemplate.query(SQL_CANDIDATE_TALLIES_FOR_ELECTION,
+                                new MapSqlParameterSource("electionId", electionId), CANDIDATE_TALLY);
+        }
+
+        public List<CandidateTally> findCandidateVoteCounts() {
+                return jdbcTemplate.query(SQL_CANDIDATE_VOTE_COUNTS, Map.of(), CANDIDATE_TALLY);
+        }
+
+        /**
+         * Creates the zero-count shard rows of every candidate (or of one election)
+         * that does not have them yet. A null {@code electionId} matches every
+         * election.
+         */
+        public static final String SQL_INSERT_MISSING_TALLY_SHARDS = """
+                        INSERT INTO candidate_tally (election_id, candidate_id, constituency_id, shard, votes)
+                        SELECT c.election_id, c.candidate_id, c.constituency_id, :shard, 0
+                        FROM candidate c
+                        WHERE c.election_id IS NOT NULL
+                          AND (:electionId IS NULL OR c.election_id = :electionId)
+                          AND NOT EXISTS (SELECT 1
+                                          FROM candidate_tally t
+                                          WHERE t.election_id = c.election_id
+                                            AND t.candidate_id = c.candidate_id
+                                            AND t.shard = :shard)
+                        """;
+
+        /**
+         * Recounts an election from the vote table into shard 0 of each candidate
+         * (the other shards having been reset to zero).
+         */
+        public static final String SQL_RECOUNT_TALLY = """
+                        UPDATE candidate_tally t
+                        SET votes = (SELECT COUNT(*)
+                                     FROM vote v
+                                     WHERE v.election_id = t.election_id
+                                       AND v.candidate_id = t.candidate_id)
+                        WHERE t.election_id = :electionId
+                          AND t.shard = 0
+                        """;
+
+        public static final String SQL_RESET_TALLY = "UPDATE candidate_tally SET votes = 0 WHERE election_id = :electionId";
+
+        /**
+         * candidate_tally totals per candidate, for verification against the vote
+         * table ({@link #SQL_CANDIDATE_VOTE_COUNTS}).
+         */
+        public static final String SQL_TALLY_TABLE_TOTALS = """
+                        SELECT t.election_id,
+                               t.candidate_id,
+                               c.full_name AS candidate_name,
+                               c.party_name AS party_name,
+                               SUM(t.votes) AS total_votes
+                        FROM candidate_tally t
+                        JOIN candidate c ON t.candidate_id = c.candidate_id
+                        GROUP BY t.election_id, t.candidate_id, c.full_name, c.party_name
+                        """;
+
+        /**
+         * Gives every candidate, or every candidate of one election when
+         * {@code electionId} is not null, its full set of tally shards. Returns the
+         * number of rows created.
+         */
+        public int insertMissingTallyShards(Long electionId) {
+                MapSqlParameterSource[] batch = new MapSqlParameterSource[tallyShards];
+                for (int shard = 0; shard < tallyShards; shard++) {
+                        batch[shard] = new MapSqlParameterSource()
+                                        .addValue("shard", shard)
+                                        .addValue("electionId", electionId, Types.BIGINT);
+                }
+                int created = 0;
+                for (int rows : jdbcTemplate.batchUpdate(SQL_INSERT_MISSING_TALLY_SHARDS, batch)) {
+                        created += Math.max(rows, 0);
+                }
+                return created;
+        }
+
+        /**
+         * Recomputes an election's candidate_tally rows from the vote table. Must
+         * run in the caller's transaction. The reset locks the election's tally
+         * rows, so a ballot committing meanwhile either waits for the rebuild or is
+         * rolled back as a deadlock victim; it is never lost. Meant for maintenance
+         * windows rather than a busy polling day.
+         */
+        public void rebuildTally(long electionId) {
+                MapSqlParameterSource params = new MapSqlParameterSource("electionId", electionId);
+                insertMissingTallyShards(electionId);
+                jdbcTemplate.update(SQL_RESET_TALLY, params);
+                jdbcTemplate.update(SQL_RECOUNT_TALLY, params);
+        }
+
+        public List<CandidateTally> findTallyTableTotals() {
+                return jdbcTemplate.query(SQL_TALLY_TABLE_TOTALS, Map.of(), CANDIDATE_TALLY);
+        }
+
+        /**
+         * Every candidate of an election with its constituency and vote count, in
+         * constituency order: the whole constituency rollup in one grouped query
+         * over candidate_tally.
+         */
+        public static final String SQL_CONSTITUENCY_ROLLUP = """
+                        SELECT t.election_id,
+                               c.candidate_id,
+                               c.full_name AS candidate_name,
+                               c.party_name AS party_name,
+                               SUM(t.votes) AS total_votes,
+                               t.constituency_id
+                        FROM candidate_tally t
+                        JOIN candidate c ON t.candidate_id = c.candidate_id
+                        WHERE t.election_id = :electionId
+                          AND c.deleting = FALSE
+                        GROUP BY t.election_id, t.constituency_id, c.candidate_id, c.full_name, c.party_name
+                        ORDER BY t.constituency_id
+                        """;
+
+        public static final String SQL_CONSTITUENCIES = """
+                        SELECT constituency_id, name
+                        FROM constituency
+                        """;
+
+        public static final String SQL_REGISTERED_VOTERS_BY_CONSTITUENCY = """
+                        SELECT constituency_id, COUNT(*) AS registered
+                        FROM voter
+                        GROUP BY constituency_id
+                        """;
+
+        public List<ConstituencyCandidateTally> findConstituencyRollup(long electionId) {
+                return jdbcTemplate.query(SQL_CONSTITUENCY_ROLLUP, new MapSqlParameterSource("electionId", electionId),
+                                CONSTITUENCY_CANDIDATE_TALLY);
+        }
+
+        /**
+         * Every constituency with its registered voter count. Constituencies that
+         * voters reference but the constituency table does not list are included
+         * with a null name.
+         */
+        public List<Constituency> findConstituencies() {
+                Map<Long, String> names = new HashMap<>();
+                jdbcTemplate.query(SQL_CONSTITUENCIES, Map.of(),
+                                (RowCallbackHandler) rs -> names.put(rs.getLong(1), rs.getString(2)));
+                Map<Long, Long> registered = new HashMap<>();
+                jdbcTemplate.query(SQL_REGISTERED_VOTERS_BY_CONSTITUENCY, Map.of(),
+                                (RowCallbackHandler) rs -> registered.put(rs.getLong(1), rs.getLong(2)));
+                Set<Long> ids = new TreeSet<>(names.keySet());
+                ids.addAll(registered.keySet());
+                List<Constituency> constituencies = new ArrayList<>(ids.size());
+                for (long id : ids) {
+                        constituencies.add(new Constituency(id, names.get(id), registered.getOrDefault(id, 0L)));
+                }
+                return constituencies;
+        }
+
+        public record ConstituencyCandidateTally(long constituencyId, CandidateTally tally) {
+        }
+
+        /**
+         * Cast time and constituency of every ballot in a time window, for
+         * backfilling the turnout series. Positional parameters, like
+         * {@link #SQL_VOTES_BY_ELECTION}; the window is served by idx_vote_cast_at.
+         */
+        public static final String SQL_VOTE_TIMES = """
+                        SELECT v.election_id, c.constituency_id, v.cast_at
+                        FROM vote v
+                        JOIN candidate c ON v.candidate_id = c.candidate_id
+                        WHERE v.cast_at >= ?
+                          AND v.cast_at < ?
+                        """;
+
+        /**
+         * Streams the ballots cast in {@code [from, until)} through a forward-only
+         * cursor, without holding them in memory.
+         */
+        public void streamVoteTimes(Instant from, Instant until, Consumer<VoteTime> sink) {
+                jdbcTemplate.getJdbcTemplate().query(
+                                new CursorStatement(SQL_VOTE_TIMES, streamFetchSize, ps -> {
+                                        ps.setTimestamp(1, Timestamp.from(from));
+                                        ps.setTimestamp(2, Timestamp.from(until));
+                                }),
+                                (RowCallbackHandler) rs -> sink.accept(
+                                new VoteTime(rs.getLong(1), rs.getLong(2), rs.getTimestamp(3).toInstant())));
+        }
+
+        public record VoteTime(long electionId, long constituencyId, Instant castAt) {
+        }
+
+        /**
+         * A forward-only, read-only statement with a fetch size, as the streaming
+         * queries need. It names its SQL and can bind its values again, so the
+         * statement profiler can tag it and EXPLAIN it.
+         */
+        private record CursorStatement(String sql, int fetchSize, PreparedStatementSetter binder)
+                        implements PreparedStatementCreator, PreparedStatementSetter, SqlProvider {
+
+                @Override
+                public PreparedStatement createPreparedStatement(Connection con) throws SQLException {
+                        PreparedStatement ps = con.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY,
+                                        ResultSet.CONCUR_READ_ONLY);
+                        ps.setFetchSize(fetchSize);
+                        setValues(ps);
+                        return ps;
+                }
+
+                @Override
+                public void setValues(PreparedStatement ps) throws SQLException {
+                        binder.setValues(ps);
+                }
+
+                @Override
+                public String getSql() {
+                        return sql;
+                }
         }
 }
@@ -0,0 +1,353 @@
+package com.example.evoting.repository;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import javax.sql.DataSource;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.PreparedStatementCreator;
+import org.springframework.jdbc.core.PreparedStatementSetter;
+import org.springframework.jdbc.core.SqlProvider;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.distribution.HistogramSnapshot;
+import io.micrometer.core.instrument.distribution.ValueAtPercentile;
+
+/**
+ * Per-statement profile of {@link ReportingRepository}: call count, total and
+ * percentile latency and rows, for every SQL constant, plus a log of slow
+ * statements with their {@code EXPLAIN} plans.
+ * <p>
+ * {@link InstrumentedJdbcTemplate} resolves each statement to a {@link Profile}
+ * once per call and reports to it. The figures live in the statement's
+ * Micrometer timer and row summary ({@code evoting.jdbc.query},
+ * {@code evoting.jdbc.rows}), so the admin page and the Prometheus scrape show
+ * the same numbers. A fast statement costs one comparison against the slow
+ * threshold on top of the meter updates.
+ * <p>
+ * A statement slower than {@code app.jdbc.slow-statement.threshold-ms} is
+ * logged with its parameter names and the values redacted. Its plan is
+ * captured by re-running it as {@code EXPLAIN} with the same bind values on a
+ * separate connection, on a single background thread. That happens at most
+ * once per statement every {@code explain-interval-ms}, and further requests
+ * are dropped while the thread is busy, so a database that is slow across the
+ * board is not also flooded with EXPLAINs.
+ */
+public class StatementProfiler {
+
+    private static final Logger logger = LoggerFactory.getLogger(StatementProfiler.class);
+
+    private static final Pattern NAMED_PARAMETER = Pattern.compile("(?<![:\\w]):([A-Za-z_]\\w*)");
+    private static final Set<String> EXPLAINABLE = Set.of("select", "insert", "update", "delete", "with");
+
+    private final MeterRegistry meterRegistry;
+    private final DataSource dataSource;
+    private final long slowNanos;
+    private final long explainIntervalNanos;
+    private final int historySize;
+    private final ConcurrentHashMap<String, Profile> profiles = new ConcurrentHashMap<>();
+    private final ArrayDeque<SlowStatement> history = new ArrayDeque<>();
+    private final ThreadPoolExecutor explainer;
+
+    public StatementProfiler(MeterRegistry meterRegistry, DataSource dataSource, long slowThresholdMs,
+            long explainIntervalMs, int historySize) {
+        this.meterRegistry = meterRegistry;
+        this.dataSource = dataSource;
+        this.slowNanos = slowThresholdMs > 0 ? TimeUnit.MILLISECONDS.toNanos(slowThresholdMs) : Long.MAX_VALUE;
+        this.explainIntervalNanos = TimeUnit.MILLISECONDS.toNanos(explainIntervalMs);
+        this.historySize = Math.max(1, historySize);
+        this.explainer = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(8),
+                task -> {
+                    Thread thread = new Thread(task, "statement-explain");
+                    thread.setDaemon(true);
+                    return thread;
+                }, new ThreadPoolExecutor.DiscardPolicy());
+    }
+
+    /**
+     * The profile of a statement, created on first use. {@code sql} is the text
+     * with named parameters, used to list them in the slow log.
+     */
+    public Profile profile(String name, String sql) {
+        Profile profile = profiles.get(name);
+        if (profile == null) {
+            Profile created = new Profile(name, parameterNames(sql));
+            profile = profiles.putIfAbsent(name, created);
+            if (profile == null) {
+                profile = created;
+            }
+        }
+        return profile;
+    }
+
+    /**
+     * The {@code limit} statements with the highest total time, highest first.
+     * Statements that have not run are left out.
+     */
+    public List<StatementStats> top(int limit) {
+        List<StatementStats> stats = new ArrayList<>();
+        for (Profile profile : profiles.values()) {
+            StatementStats row = profile.stats();
+            if (row.calls() > 0) {
+                stats.add(row);
+            }
+        }
+        stats.sort(Comparator.comparingDouble(StatementStats::totalMs).reversed());
+        return List.copyOf(stats.subList(0, Math.min(Math.max(limit, 0), stats.size())));
+    }
+
+    /**
+     * The most recent slow statements, newest first.
+     */
+    public List<SlowStatement> recentSlow() {
+        synchronized (history) {
+            List<SlowStatement> recent = new ArrayList<>(history);
+            return List.copyOf(recent.reversed());
+        }
+    }
+
+    public long slowThresholdMs() {
+        return slowNanos == Long.MAX_VALUE ? 0 : TimeUnit.NANOSECONDS.toMillis(slowNanos);
+    }
+
+    public void close() {
+        explainer.shutdownNow();
+    }
+
+    private void slow(Profile profile, PreparedStatementCreator psc, String sql, long elapsedNanos, long rows) {
+        Instant at = Instant.now();
+        long now = System.nanoTime();
+        long last = profile.lastExplain.get();
+        boolean explain = psc instanceof PreparedStatementSetter && sql != null && explainable(sql)
+                && (last == 0 || now - last >= explainIntervalNanos) && profile.lastExplain.compareAndSet(last, now);
+        if (explain) {
+            explainer.execute(() -> remember(new SlowStatement(at, profile.name, elapsedNanos / 1_000_000.0, rows,
+                    profile.redactedParameters, explain(sql, (PreparedStatementSetter) psc))));
+        } else {
+            remember(new SlowStatement(at, profile.name, elapsedNanos / 1_000_000.0, rows,
+                    profile.redactedParameters, null));
+        }
+    }
+
+    private void remember(SlowStatement statement) {
+        if (statement.plan() != null) {
+            logger.warn("Slow statement {} took {} ms, {} rows, parameters {}\n{}", statement.name(),
+                    Math.round(statement.durationMs()), statement.rows(), statement.parameters(), statement.plan());
+        } else {
+            logger.warn("Slow statement {} took {} ms, {} rows, parameters {}", statement.name(),
+                    Math.round(statement.durationMs()), statement.rows(), statement.parameters());
+        }
+        synchronized (history) {
+            if (history.size() == historySize) {
+                history.removeFirst();
+            }
+            history.addLast(statement);
+        }
+    }
+
+    /**
+     * Runs {@code EXPLAIN} for the statement with the bind values of the slow
+     * call and renders the plan one row per line.
+     */
+    private String explain(String sql, PreparedStatementSetter binds) {
+        try (Connection con = dataSource.getConnection();
+                PreparedStatement ps = con.prepareStatement("EXPLAIN " + sql)) {
+            binds.setValues(ps);
+            StringBuilder plan = new StringBuilder();
+            try (ResultSet rs = ps.executeQuery()) {
+                ResultSetMetaData meta = rs.getMetaData();
+                while (rs.next()) {
+                    if (!plan.isEmpty()) {
+                        plan.append('\n');
+                    }
+                    for (int column = 1; column <= meta.getColumnCount(); column++) {
+                        Object value = rs.getObject(column);
+                        if (value == null) {
+                            continue;
+                        }
+                        if (column > 1) {
+                            plan.append(' ');
+                        }
+                        plan.append(meta.getColumnLabel(column).toLowerCase(Locale.ROOT)).append('=').append(value);
+                    }
+                }
+            }
+            return plan.toString();
+        } catch (SQLException | RuntimeException e) {
+            return "EXPLAIN failed: " + e.getMessage();
+        }
+    }
+
+    private static boolean explainable(String sql) {
+        String trimmed = sql.stripLeading();
+        int end = 0;
+        while (end < trimmed.length() && Character.isLetter(trimmed.charAt(end))) {
+            end++;
+        }
+        return EXPLAINABLE.contains(trimmed.substring(0, end).toLowerCase(Locale.ROOT));
+    }
+
+    private static String parameterNames(String sql) {
+        if (sql == null) {
+            return "[]";
+        }
+        Set<String> names = new LinkedHashSet<>();
+        Matcher matcher = NAMED_PARAMETER.matcher(sql);
+        while (matcher.find()) {
+            names.add(matcher.group(1) + "=?");
+        }
+        if (names.isEmpty()) {
+            long positional = sql.chars().filter(c -> c == '?').count();
+            for (int i = 1; i <= positional; i++) {
+                names.add(i + "=?");
+            }
+        }
+        return names.toString();
+    }
+
+    /**
+     * The meters and slow-log state of one statement.
+     */
+    public final class Profile {
+        private final String name;
+        private final String redactedParameters;
+        private final AtomicLong lastExplain = new AtomicLong();
+        private volatile Meters succeeded;
+        private volatile Meters failed;
+
+        private Profile(String name, String redactedParameters) {
+            this.name = name;
+            this.redactedParameters = redactedParameters;
+        }
+
+        /**
+         * Records one call. {@code rows} is negative when unknown; {@code psc} is
+         * null for batches, which are never explained.
+         */
+        void record(PreparedStatementCreator psc, String sql, boolean error, long start, long rows) {
+            long elapsed = System.nanoTime() - start;
+            Meters meters = meters(error);
+            meters.timer.record(elapsed, TimeUnit.NANOSECONDS);
+            if (rows >= 0) {
+                meters.rows.record(rows);
+            }
+            if (elapsed >= slowNanos) {
+                slow(this, psc, sql != null ? sql : psc instanceof SqlProvider provider ? provider.getSql() : null,
+                        elapsed, rows);
+            }
+        }
+
+        private Meters meters(boolean error) {
+            Meters meters = error ? failed : succeeded;
+            if (meters == null) {
+                synchronized (this) {
+                    meters = error ? failed : succeeded;
+                    if (meters == null) {
+                        meters = register(error ? "error" : "success");
+                        if (error) {
+                            failed = meters;
+                        } else {
+                            succeeded = meters;
+                        }
+                    }
+                }
+            }
+            return meters;
+        }
+
+        private Meters register(String outcome) {
+            return new Meters(
+                    Timer.builder(InstrumentedJdbcTemplate.QUERY_TIMER)
+                            .description("Statements run by the reporting repository")
+                            .tag("query", name)
+                            .tag("outcome", outcome)
+                            .publishPercentiles(0.5, 0.95, 0.99)
+                            .register(meterRegistry),
+                    DistributionSummary.builder(InstrumentedJdbcTemplate.ROWS_SUMMARY)
+                            .description("Rows returned or changed per statement")
+                            .baseUnit("rows")
+                            .tag("query", name)
+                            .tag("outcome", outcome)
+                            .register(meterRegistry));
+        }
+
+        StatementStats stats() {
+            Meters ok = succeeded;
+            Meters bad = failed;
+            long calls = 0;
+            long errors = 0;
+            double totalMs = 0;
+            double maxMs = 0;
+            double rows = 0;
+            double p50 = 0;
+            double p95 = 0;
+            double p99 = 0;
+            if (ok != null) {
+                HistogramSnapshot snapshot = ok.timer.takeSnapshot();
+                calls += snapshot.count();
+                totalMs += snapshot.total(TimeUnit.MILLISECONDS);
+                maxMs = Math.max(maxMs, snapshot.max(TimeUnit.MILLISECONDS));
+                rows += ok.rows.totalAmount();
+                for (ValueAtPercentile percentile : snapshot.percentileValues()) {
+                    double value = percentile.value(TimeUnit.MILLISECONDS);
+                    if (percentile.percentile() == 0.5) {
+                        p50 = value;
+                    } else if (percentile.percentile() == 0.95) {
+                        p95 = value;
+                    } else if (percentile.percentile() == 0.99) {
+                        p99 = value;
+                    }
+                }
+            }
+            if (bad != null) {
+                errors = bad.timer.count();
+                calls += errors;
+                totalMs += bad.timer.totalTime(TimeUnit.MILLISECONDS);
+                maxMs = Math.max(maxMs, bad.timer.max(TimeUnit.MILLISECONDS));
+            }
+            return new StatementStats(name, calls, errors, totalMs, calls > 0 ? totalMs / calls : 0, p50, p95, p99,
+                    maxMs, (long) rows, calls > 0 ? rows / calls : 0);
+        }
+    }
+
+    private record Meters(Timer timer, DistributionSummary rows) {
+    }
+
+    /**
+     * Figures of one statement since startup. Percentiles and the maximum cover
+     * the recent window Micrometer keeps (two minutes by default) and only
+     * successful calls.
+     */
+    public record StatementStats(String name, long calls, long errors, double totalMs, double meanMs, double p50Ms,
+            double p95Ms, double p99Ms, double maxMs, long rows, double rowsPerCall) {
+    }
+
+    /**
+     * One slow call. {@code plan} is null when no plan was captured for it.
+     */
+    public record SlowStatement(Instant at, String name, double durationMs, long rows, String parameters,
+            String plan) {
+    }
+}
@@ -0,0 +1,241 @@
+package com.example.evoting.repository;
+
+import java.sql.DatabaseMetaData;
+import java.sql.ResultSet;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.StringJoiner;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PostConstruct;
+
+/**
+ * Storage of ballots per election.
+ * <p>
+ * On MySQL the {@code vote} table is LIST-partitioned by {@code election_id}
+ * (migration V3). Each election has partition {@code p<id>}. The partition is
+ * added when the election is created, and again at startup for any election
+ * that lacks one. Deleting an election drops its partition. Archiving it
+ * exchanges the partition with an empty table {@code vote_archive_<id>},
+ * which is a metadata swap, and then drops the now empty partition. The
+ * archive table is rebuilt with {@code app.vote-archive.row-format}
+ * (COMPRESSED by default) away from the live table. It is only ever read
+ * afterwards.
+ * <p>
+ * On databases without partitioning, such as H2 in the benchmarks, the same
+ * operations fall back to {@code CREATE TABLE ... AS SELECT} and DELETE.
+ * <p>
+ * DDL commits implicitly on MySQL, so none of these methods may be called
+ * inside a transaction. They are serialised on this object because
+ * concurrent partition changes on one table only queue on its metadata lock.
+ */
+@Component
+public class VotePartitionManager {
+
+    private static final Logger logger = LoggerFactory.getLogger(VotePartitionManager.class);
+
+    static final String VOTE_TABLE = "vote";
+    private static final String ARCHIVE_PREFIX = "vote_archive_";
+
+    private static final String SQL_PARTITIONS = """
+            SELECT PARTITION_NAME
+            FROM information_schema.PARTITIONS
+            WHERE TABLE_SCHEMA = DATABASE()
+              AND TABLE_NAME = 'vote'
+              AND PARTITION_NAME IS NOT NULL
+            """;
+
+    private final JdbcTemplate jdbc;
+    private final String archiveRowFormat;
+    private final Set<Long> archived = ConcurrentHashMap.newKeySet();
+    private volatile boolean partitioned;
+
+    public VotePartitionManager(JdbcTemplate jdbc,
+            @Value("${app.vote-archive.row-format:COMPRESSED}") String archiveRowFormat) {
+        this.jdbc = jdbc;
+        this.archiveRowFormat = archiveRowFormat;
+    }
+
+    /**
+     * Detects partitioning, finds the archived elections and adds any missing
+     * partitions. Runs before the web server accepts ballots.
+     */
+    @PostConstruct
+    public void start() {
+        try {
+            partitioned = !jdbc.queryForList(SQL_PARTITIONS, String.class).isEmpty();
+        } catch (Exception e) {
+            // information_schema.PARTITIONS is MySQL-only.
+            partitioned = false;
+        }
+        try {
+            archived.addAll(findArchiveTables());
+            int added = ensurePartitions();
+            logger.info("vote partitioned by election: {}; {} partitions added, {} elections archived",
+                    partitioned, added, archived.size());
+        } catch (Exception e) {
+            logger.warn("Vote partition check failed: {}", e.getMessage());
+        }
+    }
+
+    public boolean isPartitioned() {
+        return partitioned;
+    }
+
+    public boolean isArchived(long electionId) {
+        return archived.contains(electionId);
+    }
+
+    /**
+     * The table holding an election's ballots: {@code vote}, or its archive
+     * table once the election has been archived.
+     */
+    public String voteTable(long electionId) {
+        return archived.contains(electionId) ? archiveTable(electionId) : VOTE_TABLE;
+    }
+
+    /**
+     * Gives every live election its partition. Returns the number added.
+     */
+    public synchronized int ensurePartitions() {
+        if (!partitioned) {
+            return 0;
+        }
+        Set<String> existing = new HashSet<>();
+        for (String name : jdbc.queryForList(SQL_PARTITIONS, String.class)) {
+            existing.add(name.toLowerCase(Locale.ROOT));
+        }
+        StringJoiner missing = new StringJoiner(", ");
+        int added = 0;
+        for (long electionId : jdbc.queryForList("SELECT election_id FROM election", Long.class)) {
+            if (!archived.contains(electionId) && !existing.contains(partitionName(electionId))) {
+                missing.add(partitionDefinition(electionId));
+                added++;
+            }
+        }
+        if (added > 0) {
+            jdbc.execute("ALTER TABLE vote ADD PARTITION (" + missing + ")");
+        }
+        return added;
+    }
+
+    /**
+     * Removes an election's ballots wholesale: drops its archive table and, if
+     * {@code vote} is partitioned, its partition. Returns false when the
+     * ballots still have to be deleted row by row.
+     */
+    public synchronized boolean dropElection(long electionId) {
+        jdbc.execute("DROP TABLE IF EXISTS " + archiveTable(electionId));
+        boolean wasArchived = archived.remove(electionId);
+        if (!partitioned) {
+            return wasArchived;
+        }
+        if (hasPartition(electionId)) {
+            jdbc.execute("ALTER TABLE vote DROP PARTITION " + partitionName(electionId));
+        }
+        return true;
+    }
+
+    /**
+     * Moves an election's ballots out of {@code vote} into
+     * {@code vote_archive_<id>}. Safe to call again after an interrupted run.
+     */
+    public synchronized void archive(long electionId) {
+        String table = archiveTable(electionId);
+        long start = System.nanoTime();
+        if (partitioned) {
+            if (hasPartition(electionId)) {
+                // A non-empty archive table means the exchange already happened.
+                if (!tableExists(table) || isEmpty(table)) {
+                    jdbc.execute("DROP TABLE IF EXISTS " + table);
+                    jdbc.execute("CREATE TABLE " + table + " LIKE vote");
+                    jdbc.execute("ALTER TABLE " + table + " REMOVE PARTITIONING");
+                    jdbc.execute("ALTER TABLE vote EXCHANGE PARTITION " + partitionName(electionId)
+                            + " WITH TABLE " + table);
+                }
+                jdbc.execute("ALTER TABLE vote DROP PARTITION " + partitionName(electionId));
+            }
+            if (!archiveRowFormat.isBlank()) {
+                jdbc.execute("ALTER TABLE " + table + " ROW_FORMAT=" + archiveRowFormat);
+            }
+        } else {
+            if (!tableExists(table)) {
+                jdbc.execute("CREATE TABLE " + table + " AS SELECT * FROM vote WHERE election_id = " + electionId);
+            }
+            jdbc.update("DELETE FROM vote WHERE election_id = ?", electionId);
+        }
+        archived.add(electionId);
+        logger.info("Archived the ballots of election {} to {} in {} ms", electionId, table,
+                (System.nanoTime() - start) / 1_000_000);
+    }
+
+    public static String archiveTable(long electionId) {
+        return ARCHIVE_PREFIX + electionId;
+    }
+
+    public static String partitionDefinition(long electionId) {
+        return "PARTITION " + partitionName(electionId) + " VALUES IN (" + electionId + ")";
+    }
+
+    static String partitionName(long electionId) {
+        return "p" + electionId;
+    }
+
+    private boolean hasPartition(long electionId) {
+        for (String name : jdbc.queryForList(SQL_PARTITIONS, String.class)) {
+            if (name.equalsIgnoreCase(partitionName(electionId))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private boolean isEmpty(String table) {
+        return jdbc.queryForList("SELECT 1 FROM " + table + " LIMIT 1").isEmpty();
+    }
+
+    private boolean tableExists(String table) {
+        return !tables(table).isEmpty();
+    }
+
+    private Set<Long> findArchiveTables() {
+        Set<Long> ids = new HashSet<>();
+        for (String table : tables(ARCHIVE_PREFIX + "%")) {
+            try {
+                ids.add(Long.parseLong(table.substring(ARCHIVE_PREFIX.length())));
+            } catch (NumberFormatException e) {
+                // Not one of ours.
+            }
+        }
+        return ids;
+    }
+
+    /**
+     * Lower-cased names of the tables matching {@code pattern} in the current
+     * schema, tried as written and upper-cased for H2.
+     */
+    private List<String> tables(String pattern) {
+        return jdbc.execute((ConnectionCallback<List<String>>) connection -> {
+            DatabaseMetaData metaData = connection.getMetaData();
+            Set<String> names = new HashSet<>();
+            for (String candidate : Set.of(pattern, pattern.toUpperCase(Locale.ROOT))) {
+                try (ResultSet rs = metaData.getTables(connection.getCatalog(), connection.getSchema(), candidate,
+                        new String[] { "TABLE" })) {
+                    while (rs.next()) {
+                        names.add(rs.getString("TABLE_NAME").toLowerCase(Locale.ROOT));
+                    }
+                }
+            }
+            return List.copyOf(names);
+        });
+    }
+}
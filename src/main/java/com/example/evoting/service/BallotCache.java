@@ -0,0 +1,171 @@
+package com.example.evoting.service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.stereotype.Service;
+
+import com.example.evoting.model.Candidate;
+import com.example.evoting.repository.ReportingRepository;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Immutable per-election snapshots of the candidate list, pre-indexed by
+ * constituency.
+ * <p>
+ * Candidates barely change while polling is open, so the ballot for a voter is
+ * a binary search over a sorted {@code long[]} of constituency ids instead of a
+ * query plus a stream filter. A snapshot is built on first use and replaced as a
+ * whole whenever the candidates of its election change.
+ * <p>
+ * Snapshots are loaded outside the map's locks: a JDBC call inside
+ * {@code compute} would block other keys in the same bin and pin a virtual
+ * thread to its carrier. A generation counter, bumped by every refresh and
+ * eviction, keeps a load that raced with a change from being installed.
+ * <p>
+ * An election without candidates gets no snapshot, so requests for election ids
+ * that do not exist cannot grow the map; the map holds at most one snapshot per
+ * election that has candidates.
+ */
+@Service
+public class BallotCache {
+
+    private final ReportingRepository repository;
+    private final ConcurrentHashMap<Long, BallotSnapshot> snapshots = new ConcurrentHashMap<>();
+    private final AtomicLong generation = new AtomicLong();
+    private final CacheStats stats;
+
+    public BallotCache(ReportingRepository repository, MeterRegistry meterRegistry) {
+        this.repository = repository;
+        this.stats = new CacheStats(meterRegistry, "ballots");
+    }
+
+    /**
+     * All candidates of an election, ordered by candidate_id.
+     */
+    public List<Candidate> candidates(long electionId) {
+        return snapshot(electionId).all;
+    }
+
+    /**
+     * The candidates a voter of {@code constituencyId} sees on the ballot.
+     */
+    public List<Candidate> candidates(long electionId, long constituencyId) {
+        return snapshot(electionId).constituency(constituencyId);
+    }
+
+    /**
+     * A candidate of an election, or null if the election has no such candidate.
+     */
+    public Candidate candidate(long electionId, long candidateId) {
+        return snapshot(electionId).find(candidateId);
+    }
+
+    /**
+     * Rebuilds the snapshot of an election from the database and swaps it in. If
+     * another refresh or eviction started meanwhile, the entry is dropped instead
+     * so an older snapshot can never replace a newer one; the next read reloads.
+     */
+    public void refresh(long electionId) {
+        long stamp = generation.incrementAndGet();
+        BallotSnapshot fresh = load(electionId);
+        snapshots.compute(electionId, (id, current) -> generation.get() == stamp && !fresh.isEmpty() ? fresh : null);
+    }
+
+    public void evictElection(long electionId) {
+        generation.incrementAndGet();
+        snapshots.remove(electionId);
+    }
+
+    public void removeCandidate(long candidateId) {
+        snapshots.forEach((electionId, snapshot) -> {
+            if (snapshot.contains(candidateId)) {
+                refresh(electionId);
+            }
+        });
+    }
+
+    private BallotSnapshot snapshot(long electionId) {
+        BallotSnapshot snapshot = snapshots.get(electionId);
+        if (snapshot != null) {
+            stats.hit();
+            return snapshot;
+        }
+        stats.miss();
+        long stamp = generation.get();
+        BallotSnapshot loaded = load(electionId);
+        if (loaded.isEmpty()) {
+            return loaded;
+        }
+        BallotSnapshot installed = snapshots.compute(electionId,
+                (id, current) -> current != null ? current : generation.get() == stamp ? loaded : null);
+        return installed != null ? installed : loaded;
+    }
+
+    private BallotSnapshot load(long electionId) {
+        return BallotSnapshot.of(repository.findCandidatesForElection(electionId));
+    }
+
+    private static final class BallotSnapshot {
+        private final List<Candidate> all;
+        private final long[] constituencyIds;
+        private final List<Candidate>[] byConstituency;
+
+        private BallotSnapshot(List<Candidate> all, long[] constituencyIds, List<Candidate>[] byConstituency) {
+            this.all = all;
+            this.constituencyIds = constituencyIds;
+            this.byConstituency = byConstituency;
+        }
+
+        @SuppressWarnings("unchecked")
+        static BallotSnapshot of(List<Candidate> candidates) {
+            long[] ids = candidates.stream().mapToLong(Candidate::constituencyId).distinct().sorted().toArray();
+            List<Candidate>[] groups = new List[ids.length];
+            for (int i = 0; i < ids.length; i++) {
+                groups[i] = new ArrayList<>();
+            }
+            for (Candidate candidate : candidates) {
+                groups[Arrays.binarySearch(ids, candidate.constituencyId())].add(candidate);
+            }
+            for (int i = 0; i < ids.length; i++) {
+                groups[i] = List.copyOf(groups[i]);
+            }
+            return new BallotSnapshot(List.copyOf(candidates), ids, groups);
+        }
+
+        List<Candidate> constituency(long constituencyId) {
+            int index = Arrays.binarySearch(constituencyIds, constituencyId);
+            return index >= 0 ? byConstituency[index] : List.of();
+        }
+
+        boolean isEmpty() {
+            return all.isEmpty();
+        }
+
+        boolean contains(long candidateId) {
+            return find(candidateId) != null;
+        }
+
+        // Binary search: 'all' is ordered by candidate_id.
+        Candidate find(long candidateId) {
+            int low = 0;
+            int high = all.size() - 1;
+            while (low <= high) {
+                int mid = (low + high) >>> 1;
+                long id = all.get(mid).candidateId();
+                if (id < candidateId) {
+                    low = mid + 1;
+                } else if (id > candidateId) {
+                    high = mid - 1;
+                } else {
+                    return all.get(mid);
+                }
+            }
+            return null;
+        }
+    }
+}
@@ -0,0 +1,143 @@
+package com.example.evoting.service;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.example.evoting.model.CandidateTally;
+import com.example.evoting.repository.ReportingRepository;
+import com.example.evoting.repository.VotePartitionManager;
+
+/**
+ * Maintains the {@code candidate_tally} table, the per-candidate vote counts
+ * that {@link ReportingRepository#insertVote} keeps up to date in each ballot's
+ * own transaction and that the result queries read instead of counting votes.
+ * <p>
+ * {@link #verify()} compares the table with a count of the vote table, and
+ * {@link #rebuild(long)} recomputes one election from it. At startup every
+ * candidate gets its shard rows; {@code app.candidate-tally.startup-check=verify}
+ * then also counts the whole vote table and reports the elections that
+ * disagree ({@code none}, the default, skips the count). Rebuilding is left to
+ * an administrator. Archived elections have no ballots left to count, so their
+ * tally is final and never rebuilt.
+ */
+@Service
+public class CandidateTallyService {
+
+    private static final Logger logger = LoggerFactory.getLogger(CandidateTallyService.class);
+
+    private final ReportingRepository repository;
+    private final TransactionTemplate transactionTemplate;
+    private final VotePartitionManager votePartitions;
+    private final String startupCheck;
+    private volatile Verification lastVerification;
+
+    public CandidateTallyService(ReportingRepository repository, PlatformTransactionManager transactionManager,
+            VotePartitionManager votePartitions,
+            @Value("${app.candidate-tally.startup-check:none}") String startupCheck) {
+        this.repository = repository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.votePartitions = votePartitions;
+        this.startupCheck = startupCheck;
+    }
+
+    /**
+     * The table itself is created by the schema migrations.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Order(Ordered.HIGHEST_PRECEDENCE + 1)
+    public void checkOnStartup() {
+        try {
+            int created = repository.insertMissingTallyShards(null);
+            if (created > 0) {
+                logger.info("Created {} candidate_tally shard rows", created);
+            }
+            if (!"verify".equals(startupCheck)) {
+                return;
+            }
+            Verification verification = verify();
+            if (!verification.elections().isEmpty()) {
+                logger.warn("Rebuild the candidate_tally of elections {} from the admin dashboard",
+                        verification.elections());
+            }
+        } catch (Exception e) {
+            logger.warn("candidate_tally startup check failed: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Recomputes an election's tally from the vote table in one transaction.
+     */
+    public void rebuild(long electionId) {
+        if (votePartitions.isArchived(electionId)) {
+            logger.info("Election {} is archived; its candidate_tally is final", electionId);
+            return;
+        }
+        long start = System.nanoTime();
+        transactionTemplate.executeWithoutResult(status -> repository.rebuildTally(electionId));
+        logger.info("Rebuilt candidate_tally for election {} in {} ms", electionId,
+                (System.nanoTime() - start) / 1_000_000);
+    }
+
+    /**
+     * Compares candidate_tally with a count of the vote table for every
+     * candidate. Ballots committed while the two queries run may show up as a
+     * transient difference.
+     */
+    public Verification verify() {
+        Map<Long, CandidateTally> table = new HashMap<>();
+        for (CandidateTally row : repository.findTallyTableTotals()) {
+            table.put(row.candidateId(), row);
+        }
+        List<String> mismatches = new ArrayList<>();
+        Set<Long> elections = new TreeSet<>();
+        int checked = 0;
+        for (CandidateTally counted : repository.findCandidateVoteCounts()) {
+            checked++;
+            CandidateTally tallied = table.get(counted.candidateId());
+            long actual = tallied != null ? tallied.totalVotes() : -1;
+            if (actual != counted.totalVotes()) {
+                mismatches.add("election " + counted.electionId() + " candidate " + counted.candidateId()
+                        + ": tally=" + actual + " votes=" + counted.totalVotes());
+                elections.add(counted.electionId());
+            }
+        }
+        Verification verification = new Verification(Instant.now(), checked, List.copyOf(mismatches),
+                List.copyOf(elections));
+        lastVerification = verification;
+        if (mismatches.isEmpty()) {
+            logger.info("candidate_tally agrees with the vote table for {} candidates", checked);
+        } else {
+            logger.warn("candidate_tally differs from the vote table for {} of {} candidates: {}",
+                    mismatches.size(), checked, mismatches);
+        }
+        return verification;
+    }
+
+    public Verification getLastVerification() {
+        return lastVerification;
+    }
+
+    /**
+     * Outcome of a verification run; {@code elections} lists the elections with
+     * at least one mismatch.
+     */
+    public record Verification(Instant checkedAt, int candidatesChecked, List<String> mismatches,
+            List<Long> elections) {
+    }
+}
@@ -0,0 +1,63 @@
+package com.example.evoting.service;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import com.example.evoting.model.Constituency;
+import com.example.evoting.repository.ReportingRepository;
+
+/**
+ * Constituency names and registered voter counts, held in memory.
+ * <p>
+ * Both change rarely while an election runs, so they are loaded at startup and
+ * refreshed every {@code app.constituency-results.refresh-interval-ms}.
+ * Lookups never query; an unknown id gets a generated label.
+ */
+@Service
+public class ConstituencyDirectory {
+
+    private static final Logger logger = LoggerFactory.getLogger(ConstituencyDirectory.class);
+
+    private final ReportingRepository repository;
+    private volatile Map<Long, Constituency> constituencies = Map.of();
+
+    public ConstituencyDirectory(ReportingRepository repository) {
+        this.repository = repository;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(fixedDelayString = "${app.constituency-results.refresh-interval-ms:300000}",
+            initialDelayString = "${app.constituency-results.refresh-interval-ms:300000}")
+    public void refresh() {
+        try {
+            List<Constituency> rows = repository.findConstituencies();
+            Map<Long, Constituency> loaded = new HashMap<>(rows.size() * 2);
+            for (Constituency row : rows) {
+                loaded.put(row.constituencyId(), row);
+            }
+            constituencies = Map.copyOf(loaded);
+            logger.debug("Loaded {} constituencies", loaded.size());
+        } catch (Exception e) {
+            logger.warn("Constituency directory not refreshed: {}", e.getMessage());
+        }
+    }
+
+    public String name(long constituencyId) {
+        Constituency constituency = constituencies.get(constituencyId);
+        return constituency != null && constituency.name() != null ? constituency.name()
+                : "Constituency " + constituencyId;
+    }
+
+    public long registeredVoters(long constituencyId) {
+        Constituency constituency = constituencies.get(constituencyId);
+        return constituency != null ? constituency.registeredVoters() : 0;
+    }
+}
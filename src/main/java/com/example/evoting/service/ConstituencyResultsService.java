@@ -0,0 +1,203 @@
+package com.example.evoting.service;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import com.example.evoting.model.CandidateTally;
+import com.example.evoting.model.ConstituencyResult;
+import com.example.evoting.model.VoteCastEvent;
+import com.example.evoting.repository.ReportingRepository;
+import com.example.evoting.repository.ReportingRepository.ConstituencyCandidateTally;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Per-constituency results of an election: winner, margin, turnout and every
+ * candidate's count, for all constituencies at once.
+ * <p>
+ * An election's rollup is loaded with one grouped query over
+ * {@code candidate_tally} and then kept current in memory: every
+ * {@link VoteCastEvent} increments its candidate's counter. The result list is
+ * rebuilt from the counters only when a vote has arrived since it was last
+ * built. Ballots committed while a rollup loads may be missed until the
+ * scheduled refresh reloads it.
+ * <p>
+ * As in {@link BallotCache}, loads run outside the map's locks and a
+ * generation counter keeps a load that raced with an eviction from being
+ * installed. An election without candidates gets no rollup, so requests for
+ * election ids that do not exist cannot grow the map.
+ */
+@Service
+public class ConstituencyResultsService {
+
+    private static final Comparator<CandidateTally> BY_VOTES_DESC = Comparator
+            .comparingLong(CandidateTally::totalVotes).reversed()
+            .thenComparingLong(CandidateTally::candidateId);
+
+    private final ReportingRepository repository;
+    private final ConstituencyDirectory directory;
+    private final ConcurrentHashMap<Long, ElectionRollup> rollups = new ConcurrentHashMap<>();
+    private final AtomicLong generation = new AtomicLong();
+    private final CacheStats stats;
+
+    public ConstituencyResultsService(ReportingRepository repository, ConstituencyDirectory directory,
+            MeterRegistry meterRegistry) {
+        this.repository = repository;
+        this.directory = directory;
+        this.stats = new CacheStats(meterRegistry, "constituency.rollups");
+    }
+
+    /**
+     * Results of every constituency that has candidates in the election, in
+     * constituency order.
+     */
+    public List<ConstituencyResult> results(long electionId) {
+        return rollup(electionId).view(directory);
+    }
+
+    @EventListener
+    public void onVoteCast(VoteCastEvent event) {
+        ElectionRollup rollup = rollups.get(event.electionId());
+        if (rollup == null) {
+            return;
+        }
+        if (!rollup.record(event.candidateId())) {
+            // A candidate added after the load; reload on the next read.
+            evictElection(event.electionId());
+        }
+    }
+
+    public void evictElection(long electionId) {
+        generation.incrementAndGet();
+        rollups.remove(electionId);
+    }
+
+    public void evictAll() {
+        generation.incrementAndGet();
+        rollups.clear();
+    }
+
+    /**
+     * Reloads every cached rollup so ballots missed while it was loading, and
+     * changes made outside this application, are picked up.
+     */
+    @Scheduled(fixedDelayString = "${app.constituency-results.refresh-interval-ms:300000}",
+            initialDelayString = "${app.constituency-results.refresh-interval-ms:300000}")
+    public void refresh() {
+        for (Long electionId : rollups.keySet()) {
+            long stamp = generation.incrementAndGet();
+            ElectionRollup fresh = load(electionId);
+            rollups.computeIfPresent(electionId,
+                    (id, current) -> generation.get() == stamp && !fresh.isEmpty() ? fresh : null);
+        }
+    }
+
+    private ElectionRollup rollup(long electionId) {
+        ElectionRollup rollup = rollups.get(electionId);
+        if (rollup != null) {
+            stats.hit();
+            return rollup;
+        }
+        stats.miss();
+        long stamp = generation.get();
+        ElectionRollup loaded = load(electionId);
+        if (loaded.isEmpty()) {
+            return loaded;
+        }
+        ElectionRollup installed = rollups.compute(electionId,
+                (id, current) -> current != null ? current : generation.get() == stamp ? loaded : null);
+        return installed != null ? installed : loaded;
+    }
+
+    private ElectionRollup load(long electionId) {
+        return new ElectionRollup(electionId, repository.findConstituencyRollup(electionId));
+    }
+
+    private static final class ElectionRollup {
+        private final long electionId;
+        // Candidates grouped by constituency, in constituency order.
+        private final Map<Long, List<CandidateCounter>> byConstituency = new LinkedHashMap<>();
+        private final Map<Long, CandidateCounter> byCandidate = new HashMap<>();
+        private final AtomicLong version = new AtomicLong();
+        private volatile View view;
+
+        ElectionRollup(long electionId, List<ConstituencyCandidateTally> rows) {
+            this.electionId = electionId;
+            for (ConstituencyCandidateTally row : rows) {
+                CandidateCounter counter = new CandidateCounter(row.tally());
+                byConstituency.computeIfAbsent(row.constituencyId(), id -> new ArrayList<>()).add(counter);
+                byCandidate.put(counter.candidateId, counter);
+            }
+        }
+
+        boolean isEmpty() {
+            return byCandidate.isEmpty();
+        }
+
+        boolean record(long candidateId) {
+            CandidateCounter counter = byCandidate.get(candidateId);
+            if (counter == null) {
+                return false;
+            }
+            counter.votes.increment();
+            version.incrementAndGet();
+            return true;
+        }
+
+        List<ConstituencyResult> view(ConstituencyDirectory directory) {
+            long current = version.get();
+            View cached = view;
+            if (cached != null && cached.version == current) {
+                return cached.results;
+            }
+            List<ConstituencyResult> results = new ArrayList<>(byConstituency.size());
+            byConstituency.forEach((constituencyId, counters) -> {
+                List<CandidateTally> candidates = new ArrayList<>(counters.size());
+                long ballots = 0;
+                for (CandidateCounter counter : counters) {
+                    CandidateTally tally = counter.toTally(electionId);
+                    candidates.add(tally);
+                    ballots += tally.totalVotes();
+                }
+                candidates.sort(BY_VOTES_DESC);
+                results.add(new ConstituencyResult(constituencyId, directory.name(constituencyId),
+                        directory.registeredVoters(constituencyId), ballots, List.copyOf(candidates)));
+            });
+            List<ConstituencyResult> built = List.copyOf(results);
+            view = new View(current, built);
+            return built;
+        }
+    }
+
+    private record View(long version, List<ConstituencyResult> results) {
+    }
+
+    private static final class CandidateCounter {
+        private final long candidateId;
+        private final String candidateName;
+        private final String partyName;
+        private final LongAdder votes = new LongAdder();
+
+        CandidateCounter(CandidateTally row) {
+            this.candidateId = row.candidateId();
+            this.candidateName = row.candidateName();
+            this.partyName = row.partyName();
+            votes.add(row.totalVotes());
+        }
+
+        CandidateTally toTally(long electionId) {
+            return new CandidateTally(electionId, candidateId, candidateName, partyName, votes.sum());
+        }
+    }
+}
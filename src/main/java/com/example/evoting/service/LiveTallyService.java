@@ -0,0 +1,395 @@
+package com.example.evoting.service;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import com.example.evoting.model.CandidateTally;
+import com.example.evoting.repository.ReportingRepository;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+import jakarta.annotation.PostConstruct;
+
+/**
+ * In-memory per-election, per-candidate vote counters.
+ * <p>
+ * Counters are loaded from {@code candidate_tally} and then incremented by
+ * {@link ReportingService#castVote} after the ballot has been committed, so the
+ * results page can be served in O(candidates) without touching the database.
+ * Every election is loaded at startup, before ballots are taken; an election
+ * missing from the map later on is loaded on its first read. Only elections
+ * that have candidates are kept, so reads of unknown ids do not grow the map.
+ * <p>
+ * A load must count every ballot exactly once: a ballot committed before its
+ * query is in the loaded counts, any later one has to be recorded on top.
+ * Ballots therefore hold a {@link #beginBallot registration} from before their
+ * transaction until they are recorded. A load installs its election as loading,
+ * moves new registrations to the next epoch and waits for the ballots of the
+ * previous epoch to finish before it queries; their commits are in the result
+ * and recording them on the loading election is a no-op. A ballot that starts
+ * while its election is loading waits for the load, as do readers, so one query
+ * serves them all.
+ * <p>
+ * A scheduled reconciliation compares the counters with candidate_tally and
+ * reports any drift, which then comes from ballots this instance did not see
+ * (another instance, or rows changed in the database directly). A drift seen
+ * with the same difference on two runs in a row is not a ballot in flight, and
+ * the counter is corrected.
+ */
+@Service
+public class LiveTallyService {
+
+    private static final Logger logger = LoggerFactory.getLogger(LiveTallyService.class);
+
+    private static final Comparator<CandidateTally> BY_VOTES_DESC = Comparator
+            .comparingLong(CandidateTally::totalVotes).reversed()
+            .thenComparingLong(CandidateTally::candidateId);
+
+    private static final long IN_FLIGHT_POLL_NANOS = TimeUnit.MICROSECONDS.toNanos(200);
+
+    private final ReportingRepository repository;
+    private final ConcurrentHashMap<Long, ElectionTally> elections = new ConcurrentHashMap<>();
+    private final CacheStats stats;
+    // Ballots between beginBallot and close, by epoch; loads flip the epoch under epochLock.
+    private final AtomicLong[] inFlight = { new AtomicLong(), new AtomicLong() };
+    private final ReentrantLock epochLock = new ReentrantLock();
+    private volatile int epoch;
+    private volatile boolean ready;
+    private volatile DriftReport lastReport;
+    // Candidate id -> memory minus database at the last reconciliation.
+    private Map<Long, Long> lastDrift = Map.of();
+
+    public LiveTallyService(ReportingRepository repository, MeterRegistry meterRegistry) {
+        this.repository = repository;
+        this.stats = new CacheStats(meterRegistry, "live.tally");
+    }
+
+    /**
+     * Seeds every election before the web server starts accepting requests, so
+     * no ballot can be in flight. If the database is not reachable yet, results
+     * fall back to SQL until the reconciliation job enables per-election loads.
+     */
+    @PostConstruct
+    public void seed() {
+        try {
+            Map<Long, ElectionTally> seeded = new HashMap<>();
+            for (CandidateTally row : repository.findCandidateTallies()) {
+                seeded.computeIfAbsent(row.electionId(), id -> ElectionTally.loaded()).add(row);
+            }
+            elections.clear();
+            elections.putAll(seeded);
+            ready = true;
+            logger.info("Live tally seeded for {} elections", seeded.size());
+        } catch (Exception e) {
+            ready = false;
+            logger.warn("Live tally seed failed, results will be served from SQL: {}", e.getMessage());
+        }
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * Registers a ballot about to be written, until the returned registration is
+     * closed. Close it once the ballot is recorded or known not to be committed.
+     * Waits while the election is loading.
+     */
+    public BallotRegistration beginBallot(long electionId) {
+        while (true) {
+            int current = epoch;
+            AtomicLong ballots = inFlight[current];
+            ballots.incrementAndGet();
+            if (epoch != current) {
+                // A load flipped the epoch meanwhile and may not have seen this ballot.
+                ballots.decrementAndGet();
+                continue;
+            }
+            ElectionTally tally = elections.get(electionId);
+            if (tally == null || !tally.isLoading()) {
+                return ballots::decrementAndGet;
+            }
+            // Its commit could land on either side of the load's query; start after it.
+            ballots.decrementAndGet();
+            tally.awaitQuietly();
+        }
+    }
+
+    /**
+     * Records one committed ballot. A ballot for a candidate the tally does not
+     * know about yet drops the election so it is reloaded on the next read. A
+     * ballot for a loading election is already in the loaded counts.
+     */
+    public void recordVote(long electionId, long candidateId) {
+        ElectionTally tally = elections.get(electionId);
+        if (tally == null || tally.isLoading()) {
+            return;
+        }
+        CandidateCounter counter = tally.candidates.get(candidateId);
+        if (counter == null) {
+            elections.remove(electionId, tally);
+            return;
+        }
+        counter.votes.increment();
+    }
+
+    /**
+     * Returns the current standings of an election, highest vote count first.
+     * While the election is loading, waits for that load instead of running
+     * another query.
+     */
+    public List<CandidateTally> snapshot(long electionId) {
+        ElectionTally tally = elections.get(electionId);
+        if (tally != null && !tally.isLoading()) {
+            stats.hit();
+            return standings(electionId, tally);
+        }
+        stats.miss();
+        if (tally == null) {
+            // Installed before the query, not loaded in computeIfAbsent: a JDBC call
+            // must not run under the map's bin lock (it would also pin a virtual
+            // thread), and ballots must see the election as loading.
+            ElectionTally loading = ElectionTally.loading();
+            ElectionTally current = elections.putIfAbsent(electionId, loading);
+            if (current == null) {
+                return load(electionId, loading);
+            }
+            tally = current;
+        }
+        return tally.await();
+    }
+
+    private List<CandidateTally> load(long electionId, ElectionTally loading) {
+        List<CandidateTally> rows;
+        try {
+            awaitBallotsInFlight();
+            rows = repository.findCandidateTallies(electionId);
+        } catch (RuntimeException e) {
+            elections.remove(electionId, loading);
+            loading.fail(e);
+            throw e;
+        }
+        if (rows.isEmpty()) {
+            // No candidates (or no such election): nothing worth keeping.
+            elections.remove(electionId, loading);
+            loading.finish(List.of());
+            return List.of();
+        }
+        for (CandidateTally row : rows) {
+            loading.add(row);
+        }
+        List<CandidateTally> standings = standings(electionId, loading);
+        loading.finish(standings);
+        return standings;
+    }
+
+    /**
+     * Moves new ballots to the next epoch and waits until every ballot of the
+     * current one has finished. Called after the loading election is installed,
+     * so any ballot still to begin either sees it or is in the next epoch.
+     */
+    private void awaitBallotsInFlight() {
+        epochLock.lock();
+        try {
+            int previous = epoch;
+            epoch = previous ^ 1;
+            while (inFlight[previous].get() > 0) {
+                LockSupport.parkNanos(IN_FLIGHT_POLL_NANOS);
+            }
+        } finally {
+            epochLock.unlock();
+        }
+    }
+
+    private static List<CandidateTally> standings(long electionId, ElectionTally tally) {
+        List<CandidateTally> rows = new ArrayList<>(tally.candidates.size());
+        for (CandidateCounter counter : tally.candidates.values()) {
+            rows.add(counter.toTally(electionId));
+        }
+        rows.sort(BY_VOTES_DESC);
+        return rows;
+    }
+
+    /**
+     * Forgets an election so its counters are rebuilt from the database on the
+     * next read. Called whenever its candidate list changes.
+     */
+    public void evictElection(long electionId) {
+        elections.remove(electionId);
+    }
+
+    public void removeCandidate(long candidateId) {
+        elections.forEach((electionId, tally) -> {
+            if (tally.candidates.containsKey(candidateId)) {
+                elections.remove(electionId, tally);
+            }
+        });
+    }
+
+    public DriftReport getLastReport() {
+        return lastReport;
+    }
+
+    /**
+     * Compares the in-memory counters with candidate_tally and logs every
+     * candidate whose count differs. Ballots committed while the query runs may
+     * show up as a transient difference of a few votes, so a counter is only
+     * corrected once the same difference has been seen twice in a row. An
+     * election with a candidate the counters do not know is reloaded.
+     */
+    @Scheduled(fixedDelayString = "${app.tally.reconcile-interval-ms:300000}",
+            initialDelayString = "${app.tally.reconcile-interval-ms:300000}")
+    public void reconcile() {
+        if (!ready) {
+            // Ballots may be in flight by now, so elections are loaded one by one.
+            elections.clear();
+            ready = true;
+            logger.info("Live tally enabled; elections are loaded on their first read");
+            return;
+        }
+        List<String> drifts = new ArrayList<>();
+        Map<Long, Long> drift = new HashMap<>();
+        int checked = 0;
+        int repaired = 0;
+        for (CandidateTally row : repository.findCandidateTallies()) {
+            ElectionTally tally = elections.get(row.electionId());
+            if (tally == null || tally.isLoading()) {
+                continue;
+            }
+            checked++;
+            CandidateCounter counter = tally.candidates.get(row.candidateId());
+            if (counter == null) {
+                drifts.add("election " + row.electionId() + " candidate " + row.candidateId()
+                        + ": memory=missing db=" + row.totalVotes());
+                elections.remove(row.electionId(), tally);
+                continue;
+            }
+            long difference = counter.votes.sum() - row.totalVotes();
+            if (difference == 0) {
+                continue;
+            }
+            drifts.add("election " + row.electionId() + " candidate " + row.candidateId()
+                    + ": memory=" + (row.totalVotes() + difference) + " db=" + row.totalVotes());
+            if (Long.valueOf(difference).equals(lastDrift.get(row.candidateId()))) {
+                counter.votes.add(-difference);
+                repaired++;
+            } else {
+                drift.put(row.candidateId(), difference);
+            }
+        }
+        lastDrift = drift;
+        lastReport = new DriftReport(Instant.now(), checked, List.copyOf(drifts), repaired);
+        if (drifts.isEmpty()) {
+            logger.debug("Live tally reconciled {} candidates without drift", checked);
+        } else {
+            logger.warn("Live tally drift detected for {} of {} candidates, {} corrected: {}", drifts.size(),
+                    checked, repaired, drifts);
+        }
+    }
+
+    /**
+     * Outcome of the last reconciliation run.
+     */
+    public record DriftReport(Instant checkedAt, int candidatesChecked, List<String> drifts, int repaired) {
+    }
+
+    /**
+     * A ballot registered with {@link #beginBallot}; closing it more than once
+     * is an error.
+     */
+    @FunctionalInterface
+    public interface BallotRegistration extends AutoCloseable {
+        @Override
+        void close();
+    }
+
+    private static final class ElectionTally {
+        private final ConcurrentHashMap<Long, CandidateCounter> candidates = new ConcurrentHashMap<>();
+        // Completed with the standings once loaded, or with the failure of the load.
+        private final CompletableFuture<List<CandidateTally>> loaded;
+
+        private ElectionTally(CompletableFuture<List<CandidateTally>> loaded) {
+            this.loaded = loaded;
+        }
+
+        static ElectionTally loaded() {
+            return new ElectionTally(CompletableFuture.completedFuture(List.of()));
+        }
+
+        static ElectionTally loading() {
+            return new ElectionTally(new CompletableFuture<>());
+        }
+
+        boolean isLoading() {
+            return !loaded.isDone();
+        }
+
+        void finish(List<CandidateTally> standings) {
+            loaded.complete(standings);
+        }
+
+        void fail(RuntimeException e) {
+            loaded.completeExceptionally(e);
+        }
+
+        /**
+         * The standings the load produced, or its failure.
+         */
+        List<CandidateTally> await() {
+            try {
+                return loaded.join();
+            } catch (CompletionException e) {
+                throw e.getCause() instanceof RuntimeException cause ? cause : e;
+            }
+        }
+
+        void awaitQuietly() {
+            try {
+                loaded.join();
+            } catch (CompletionException e) {
+                // The failed load removed the election; the ballot goes ahead without it.
+            }
+        }
+
+        void add(CandidateTally row) {
+            CandidateCounter counter = new CandidateCounter(row.candidateId(), row.candidateName(),
+                    row.partyName());
+            counter.votes.add(row.totalVotes());
+            candidates.put(counter.candidateId, counter);
+        }
+    }
+
+    private static final class CandidateCounter {
+        private final long candidateId;
+        private final String candidateName;
+        private final String partyName;
+        private final LongAdder votes = new LongAdder();
+
+        CandidateCounter(long candidateId, String candidateName, String partyName) {
+            this.candidateId = candidateId;
+            this.candidateName = candidateName;
+            this.partyName = partyName;
+        }
+
+        CandidateTally toTally(long electionId) {
+            return new CandidateTally(electionId, candidateId, candidateName, partyName, votes.sum());
+        }
+    }
+}
@@ -0,0 +1,274 @@
+package com.example.evoting.service;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntSupplier;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.example.evoting.model.MaintenanceJob;
+import com.example.evoting.model.RecordsDeletedEvent;
+import com.example.evoting.repository.ReportingRepository;
+import com.example.evoting.repository.VotePartitionManager;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Deletes elections and candidates in the background.
+ * <p>
+ * A deletion is recorded in {@code maintenance_job} and returns at once. In the
+ * same transaction the target is flagged as being deleted: from then on its
+ * candidates take no ballots and it is left out of listings and results, so
+ * nobody sees totals that the deletion is about to take apart. A single worker
+ * thread removes the target's ballots {@code app.maintenance.chunk-size} rows
+ * at a time. Each chunk is its own transaction, followed by a pause of
+ * {@code app.maintenance.chunk-pause-ms}, so row locks and undo stay small and
+ * ballots being cast on the same tables are not held up. The job's progress is
+ * written in the chunk's transaction; that write also serves as the heartbeat.
+ * <p>
+ * Only a queued job can be cancelled, which clears the flag again. Once the
+ * first chunk has run the target has lost ballots and has to go; a job that
+ * fails leaves the target flagged, and submitting the deletion again finishes
+ * it.
+ * <p>
+ * The remaining rows (tally, candidates, election) are deleted in one short
+ * transaction at the end, and a {@link RecordsDeletedEvent} is published. Where
+ * {@code vote} is partitioned, an election's ballots go first with its
+ * partition and the chunks find nothing left. Jobs survive a restart. Queued
+ * jobs run at the next poll. A running job whose heartbeat is older than
+ * {@code app.maintenance.stale-after-ms} is taken over by the next worker that
+ * polls, on this node or another.
+ */
+@Service
+public class MaintenanceJobService {
+
+    private static final Logger logger = LoggerFactory.getLogger(MaintenanceJobService.class);
+
+    private final ReportingRepository repository;
+    private final VotePartitionManager votePartitions;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher events;
+    private final MeterRegistry meterRegistry;
+    private final int chunkSize;
+    private final long chunkPauseMs;
+    private final long staleAfterMs;
+    // One worker; at most one more drain waits behind it, further wake-ups are dropped.
+    private final ThreadPoolExecutor worker = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(1), runnable -> {
+                Thread thread = new Thread(runnable, "maintenance-job");
+                thread.setDaemon(true);
+                return thread;
+            }, new ThreadPoolExecutor.DiscardPolicy());
+
+    public MaintenanceJobService(ReportingRepository repository, VotePartitionManager votePartitions,
+            PlatformTransactionManager transactionManager, ApplicationEventPublisher events,
+            MeterRegistry meterRegistry,
+            @Value("${app.maintenance.chunk-size:10000}") int chunkSize,
+            @Value("${app.maintenance.chunk-pause-ms:100}") long chunkPauseMs,
+            @Value("${app.maintenance.stale-after-ms:60000}") long staleAfterMs) {
+        this.repository = repository;
+        this.votePartitions = votePartitions;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.events = events;
+        this.meterRegistry = meterRegistry;
+        this.chunkSize = chunkSize;
+        this.chunkPauseMs = chunkPauseMs;
+        this.staleAfterMs = staleAfterMs;
+    }
+
+    /**
+     * Queues the deletion of an election and returns its job id. A deletion of
+     * the same election that is already queued or running is returned instead.
+     */
+    public long submitDeleteElection(long electionId) {
+        return submit(MaintenanceJob.DELETE_ELECTION, electionId);
+    }
+
+    public long submitDeleteCandidate(long candidateId) {
+        return submit(MaintenanceJob.DELETE_CANDIDATE, candidateId);
+    }
+
+    /**
+     * Cancels a job that has not started yet and makes its target visible again.
+     * Returns the cancelled job, or {@code null} if it is running or finished.
+     */
+    public MaintenanceJob cancel(long jobId) {
+        return transactionTemplate.execute(status -> {
+            MaintenanceJob job = repository.findMaintenanceJob(jobId);
+            if (job == null || !repository.cancelMaintenanceJob(jobId, now())) {
+                return null;
+            }
+            mark(job.kind(), job.targetId(), false);
+            return job;
+        });
+    }
+
+    public List<MaintenanceJob> recentJobs(int limit) {
+        return repository.findMaintenanceJobs(limit);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void resume() {
+        wake();
+    }
+
+    @Scheduled(fixedDelayString = "${app.maintenance.poll-interval-ms:30000}",
+            initialDelayString = "${app.maintenance.poll-interval-ms:30000}")
+    public void poll() {
+        wake();
+    }
+
+    @PreDestroy
+    public void close() {
+        // Interrupts the chunk pause; the job is picked up again once its heartbeat is stale.
+        worker.shutdownNow();
+    }
+
+    private synchronized long submit(String kind, long targetId) {
+        Long jobId = transactionTemplate.execute(status -> {
+            MaintenanceJob active = repository.findActiveMaintenanceJob(kind, targetId);
+            long id = active != null ? active.jobId() : repository.insertMaintenanceJob(kind, targetId, now());
+            mark(kind, targetId, true);
+            return id;
+        });
+        wake();
+        return jobId;
+    }
+
+    private void mark(String kind, long targetId, boolean deleting) {
+        switch (kind) {
+            case MaintenanceJob.DELETE_ELECTION -> repository.markElectionDeleting(targetId, deleting);
+            case MaintenanceJob.DELETE_CANDIDATE -> repository.markCandidateDeleting(targetId, deleting);
+            default -> throw new IllegalStateException("Unknown maintenance job kind " + kind);
+        }
+    }
+
+    private void wake() {
+        worker.execute(this::drain);
+    }
+
+    private void drain() {
+        try {
+            MaintenanceJob job;
+            while (!Thread.currentThread().isInterrupted()
+                    && (job = repository.findNextMaintenanceJob(now().minusMillis(staleAfterMs))) != null) {
+                if (!repository.claimMaintenanceJob(job, now())) {
+                    // Another worker took it; the next poll looks again.
+                    return;
+                }
+                run(job);
+            }
+        } catch (Exception e) {
+            logger.warn("Maintenance worker stopped: {}", e.getMessage());
+        }
+    }
+
+    private void run(MaintenanceJob job) {
+        long start = System.nanoTime();
+        logger.info("Maintenance job {} started: {} {}", job.jobId(), job.kind(), job.targetId());
+        try {
+            boolean completed = switch (job.kind()) {
+                case MaintenanceJob.DELETE_ELECTION -> deleteElection(job);
+                case MaintenanceJob.DELETE_CANDIDATE -> deleteCandidate(job);
+                default -> throw new IllegalStateException("Unknown maintenance job kind " + job.kind());
+            };
+            if (!completed) {
+                logger.info("Maintenance job {} stopped before completion", job.jobId());
+                return;
+            }
+            repository.finishMaintenanceJob(job.jobId(), MaintenanceJob.DONE, null, now());
+            events.publishEvent(new RecordsDeletedEvent(job.kind(), job.targetId()));
+            logger.info("Maintenance job {} finished in {} ms", job.jobId(), (System.nanoTime() - start) / 1_000_000);
+        } catch (RuntimeException e) {
+            logger.warn("Maintenance job {} failed: {}", job.jobId(), e.getMessage());
+            String message = String.valueOf(e.getMessage());
+            repository.finishMaintenanceJob(job.jobId(), MaintenanceJob.FAILED,
+                    message.length() > 1000 ? message.substring(0, 1000) : message, now());
+        }
+    }
+
+    private boolean deleteElection(MaintenanceJob job) {
+        long electionId = job.targetId();
+        votePartitions.dropElection(electionId);
+        if (!deleteInChunks(job, () -> repository.deleteVotesByElectionChunk(electionId, chunkSize))) {
+            return false;
+        }
+        transactionTemplate.executeWithoutResult(status -> {
+            // Also removes the tally and any ballot cast since the last chunk.
+            repository.deleteVotesByElectionId(electionId);
+            repository.deleteCandidatesByElectionId(electionId);
+            repository.deleteElection(electionId);
+        });
+        // A partition re-added by ensurePartitions while the job ran.
+        votePartitions.dropElection(electionId);
+        return true;
+    }
+
+    private boolean deleteCandidate(MaintenanceJob job) {
+        long candidateId = job.targetId();
+        Long electionId = repository.findCandidateElectionId(candidateId);
+        if (electionId != null && !deleteInChunks(job,
+                () -> repository.deleteVotesByCandidateChunk(electionId, candidateId, chunkSize))) {
+            return false;
+        }
+        transactionTemplate.executeWithoutResult(status -> {
+            repository.deleteVotesByCandidateId(candidateId);
+            repository.deleteCandidate(candidateId);
+        });
+        return true;
+    }
+
+    /**
+     * Runs {@code chunk} until it deletes fewer than a full chunk. Returns false
+     * if the job is no longer running or the worker is shutting down.
+     */
+    private boolean deleteInChunks(MaintenanceJob job, IntSupplier chunk) {
+        while (true) {
+            int[] deleted = new int[1];
+            Boolean running = transactionTemplate.execute(status -> {
+                deleted[0] = chunk.getAsInt();
+                if (!repository.recordMaintenanceProgress(job.jobId(), deleted[0], now())) {
+                    status.setRollbackOnly();
+                    return false;
+                }
+                return true;
+            });
+            if (!Boolean.TRUE.equals(running)) {
+                return false;
+            }
+            meterRegistry.counter("evoting.maintenance.rows.deleted", "kind", job.kind()).increment(deleted[0]);
+            if (deleted[0] < chunkSize) {
+                return true;
+            }
+            try {
+                Thread.sleep(chunkPauseMs);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+        }
+    }
+
+    /**
+     * Millisecond precision, as stored in {@code maintenance_job}, so a job's
+     * {@code updated_at} can be compared with what was written.
+     */
+    private static Instant now() {
+        return Instant.now().truncatedTo(ChronoUnit.MILLIS);
+    }
+}
@@ -1,95 +1,264 @@
 package com.example.evoting.service;
 
 import java.util.List;
-import java.util.Map;
+import java.util.function.Consumer;
 
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DuplicateKeyException;
 import org.springframework.stereotype.Service;
-
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.example.evoting.config.ReadOnlyRoute;
+import com.example.evoting.config.ReadWriteRoute;
+import com.example.evoting.model.BallotReceipt;
+import com.example.evoting.model.Candidate;
+import com.example.evoting.model.CandidateTally;
+import com.example.evoting.model.ConstituencyResult;
+import com.example.evoting.model.Election;
+import com.example.evoting.model.MaintenanceJob;
+import com.example.evoting.model.RecordsDeletedEvent;
+import com.example.evoting.model.VoteCastEvent;
+import com.example.evoting.model.VoteOutcome;
+import com.example.evoting.model.VotePage;
+import com.example.evoting.model.VoteRow;
+import com.example.evoting.model.Voter;
+import com.example.evoting.model.VoterCredentials;
+import com.example.evoting.model.VoterSession;
 import com.example.evoting.repository.ReportingRepository;
+import com.example.evoting.repository.VotePartitionManager;
 
 @Service
 public class ReportingService {
 
     private final ReportingRepository repository;
-
-    public ReportingService(ReportingRepository repository) {
+    private final LiveTallyService liveTally;
+    private final VoteIngestionPipeline ingestionPipeline;
+    private final TransactionTemplate transactionTemplate;
+    private final VoterIdentityCache voterCache;
+    private final BallotCache ballotCache;
+    private final SymbolService symbolService;
+    private final ApplicationEventPublisher events;
+    private final ConstituencyDirectory constituencies;
+    private final ConstituencyResultsService constituencyResults;
+    private final TurnoutAnalyticsService turnoutAnalytics;
+    private final VoteSubmissionCache submissions;
+    private final VoteMetrics voteMetrics;
+    private final VotePartitionManager votePartitions;
+    private final MaintenanceJobService maintenanceJobs;
+
+    public ReportingService(ReportingRepository repository, LiveTallyService liveTally,
+            VoteIngestionPipeline ingestionPipeline, PlatformTransactionManager transactionManager,
+            VoterIdentityCache voterCache, BallotCache ballotCache, SymbolService symbolService,
+            ApplicationEventPublisher events, ConstituencyDirectory constituencies,
+            ConstituencyResultsService constituencyResults, TurnoutAnalyticsService turnoutAnalytics,
+            VoteSubmissionCache submissions, VoteMetrics voteMetrics, VotePartitionManager votePartitions,
+            MaintenanceJobService maintenanceJobs) {
         this.repository = repository;
+        this.liveTally = liveTally;
+        this.ingestionPipeline = ingestionPipeline;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.voterCache = voterCache;
+        this.ballotCache = ballotCache;
+        this.symbolService = symbolService;
+        this.events = events;
+        this.constituencies = constituencies;
+        this.constituencyResults = constituencyResults;
+        this.turnoutAnalytics = turnoutAnalytics;
+        this.submissions = submissions;
+        this.voteMetrics = voteMetrics;
+        this.votePartitions = votePartitions;
+        this.maintenanceJobs = maintenanceJobs;
     }
 
 
-    public List<Map<String, Object>> loadCandidates(long electionId) {
-        return repository.findCandidatesForElection(electionId);
+    public List<Candidate> loadCandidates(long electionId) {
+        return ballotCache.candidates(electionId);
     }
 
-    public List<Map<String, Object>> loadVotesPerCandidate(long electionId) {
+    /**
+     * Current standings of an election. Served from the live tally once it has
+     * been seeded; falls back to the SQL aggregate otherwise.
+     */
+    @ReadOnlyRoute
+    public List<CandidateTally> loadVotesPerCandidate(long electionId) {
+        if (liveTally.isReady()) {
+            return liveTally.snapshot(electionId);
+        }
         return repository.findVotesPerCandidate(electionId);
     }
 
-    public List<Map<String, Object>> loadConstituencyResults(long electionId, long constituencyId) {
+    @ReadOnlyRoute
+    public List<CandidateTally> loadConstituencyResults(long electionId, long constituencyId) {
         return repository.findConstituencyResults(electionId, constituencyId);
     }
 
-    public List<Map<String, Object>> loadElections() {
+    /**
+     * Results of every constituency of an election, served from the in-memory
+     * rollup.
+     */
+    public List<ConstituencyResult> loadConstituencyResults(long electionId) {
+        return constituencyResults.results(electionId);
+    }
+
+    public String constituencyName(long constituencyId) {
+        return constituencies.name(constituencyId);
+    }
+
+    @ReadOnlyRoute
+    public List<Election> loadElections() {
         return repository.findAllElections();
     }
 
+    @ReadOnlyRoute
     public boolean hasVoterVoted(long electionId, long voterId) {
         return repository.hasVoterCastBallot(electionId, voterId);
     }
 
-    public Map<String, Object> findVoteForVoter(long electionId, long voterId) {
+    @ReadOnlyRoute
+    public BallotReceipt findVoteForVoter(long electionId, long voterId) {
         return repository.findVoteByVoterAndElection(electionId, voterId);
     }
 
     /**
-     * Cast a vote for a candidate by a voter in the specified election.
-     * This method checks for double-voting and throws IllegalStateException if the
-     * voter already voted.
+     * Cast a vote for a candidate by a voter in the specified election. The
+     * ballot and its candidate_tally increment commit together.
+     * <p>
+     * There is no separate "has voted" query: the insert itself is the check. A
+     * second ballot violates UNIQUE(voter_id, election_id), which Spring
+     * translates to {@link DuplicateKeyException} on both MySQL and H2, and is
+     * reported as {@link VoteOutcome#ALREADY_VOTED}. In batched ingestion mode
+     * the ballot is group-committed by {@link VoteIngestionPipeline} with the
+     * same outcome. Either way the method returns only once the ballot is
+     * committed, and the live tally is updated after the commit. A
+     * {@link VoteCastEvent} is then published for live result subscribers.
+     * Every outcome is counted in {@link VoteMetrics}.
      */
-    @org.springframework.transaction.annotation.Transactional
-    public void castVote(long electionId, long voterId, long candidateId) {
-        boolean already = repository.hasVoterCastBallot(electionId, voterId);
-        if (already) {
-            throw new IllegalStateException("Voter has already cast a ballot in this election");
+    @ReadWriteRoute
+    public VoteOutcome castVote(long electionId, long voterId, long candidateId) {
+        VoteOutcome outcome = cast(electionId, voterId, candidateId);
+        voteMetrics.record(electionId, outcome);
+        return outcome;
+    }
+
+    private VoteOutcome cast(long electionId, long voterId, long candidateId) {
+        // Registered until recorded, so a live tally load counts the ballot exactly once.
+        try (LiveTallyService.BallotRegistration registration = liveTally.beginBallot(electionId)) {
+            return write(electionId, voterId, candidateId);
+        }
+    }
+
+    private VoteOutcome write(long electionId, long voterId, long candidateId) {
+        if (ingestionPipeline.isBatched()) {
+            VoteOutcome outcome = ingestionPipeline.submit(electionId, voterId, candidateId);
+            if (outcome == VoteOutcome.ACCEPTED) {
+                events.publishEvent(new VoteCastEvent(electionId, candidateId));
+            }
+            return outcome;
         }
-        int rows = repository.insertVote(electionId, voterId, candidateId);
-        if (rows != 1) {
-            throw new IllegalStateException("Failed to insert vote");
+        try {
+            Integer rows = transactionTemplate.execute(status -> repository.insertVote(electionId, voterId,
+                    candidateId));
+            if (rows == null || rows == 0) {
+                return VoteOutcome.REJECTED;
+            }
+        } catch (DuplicateKeyException e) {
+            return VoteOutcome.ALREADY_VOTED;
         }
+        liveTally.recordVote(electionId, candidateId);
+        events.publishEvent(new VoteCastEvent(electionId, candidateId));
+        return VoteOutcome.ACCEPTED;
     }
 
-    public Map<String, Object> findVoterByNid(String nid) {
-        return repository.findVoterByNid(nid);
+    /**
+     * {@link #castVote} for a ballot form carrying an idempotency token: repeats
+     * of the same submission get the first outcome from
+     * {@link VoteSubmissionCache} without touching the database.
+     */
+    @ReadWriteRoute
+    public VoteOutcome castVote(long electionId, long voterId, long candidateId, String idempotencyToken) {
+        return submissions.submit(voterId, idempotencyToken, () -> castVote(electionId, voterId, candidateId));
     }
 
-    public Map<String, Object> findVoterById(long voterId) {
-        return repository.findVoterById(voterId);
+    public Voter findVoterByNid(String nid) {
+        return voterCache.findByNid(nid);
     }
 
-    public Map<String, Object> findVoterByIdString(String idStr) {
-        return repository.findVoterByIdString(idStr);
+    public Voter findVoterById(long voterId) {
+        return voterCache.findById(voterId);
+    }
+
+    public Voter findVoterByIdString(String idStr) {
+        return voterCache.findByIdString(idStr);
+    }
+
+    /**
+     * Looks a voter up by login name: NID first, then numeric voter_id.
+     */
+    public Voter findVoterByLogin(String username) {
+        return voterCache.findByLogin(username);
+    }
+
+    /**
+     * Registers a voter. Cached lookups of the new NID and voter_id, including
+     * cached misses, are dropped so the voter can log in at once.
+     */
+    @ReadWriteRoute
+    public void addVoter(String fullName, String nidNumber, String dob, String gender, String password) {
+        long voterId = repository.insertVoter(fullName, nidNumber, dob, gender, password);
+        voterCache.invalidateNid(nidNumber);
+        voterCache.invalidateId(voterId);
+    }
+
+    @ReadWriteRoute
+    public void changeVoterPassword(long voterId, String password) {
+        int rows = repository.updateVoterPassword(voterId, password);
+        // The password is not cached, but the voter row changed under both keys.
+        voterCache.invalidateId(voterId);
+        if (rows != 1)
+            throw new IllegalStateException("Failed to update voter password");
     }
 
+    @ReadWriteRoute
     public void addCandidate(String fullName, String partyName, long constituencyId, long electionId, byte[] symbol,
             long voterId) {
-        int rows = repository.insertCandidate(fullName, partyName, constituencyId, electionId, symbol, voterId);
-        if (rows != 1)
-            throw new IllegalStateException("Failed to insert candidate");
+        // Stored before the row exists, so a candidate never points at a missing object.
+        String symbolHash = symbolService.store(symbol);
+        Long candidateId = transactionTemplate.execute(status -> {
+            long id = repository.insertCandidate(fullName, partyName, constituencyId, electionId, symbolHash,
+                    voterId);
+            repository.insertMissingTallyShards(electionId);
+            return id;
+        });
+        // A request for this id before the row existed may have cached "no symbol".
+        symbolService.evict(candidateId);
+        liveTally.evictElection(electionId);
+        ballotCache.refresh(electionId);
+        constituencyResults.evictElection(electionId);
     }
 
-    public byte[] getCandidateSymbol(long candidateId) {
-        return repository.getCandidateSymbol(candidateId);
+    public SymbolService.StoredSymbol getCandidateSymbol(long candidateId, int size) {
+        return symbolService.find(candidateId, size);
     }
 
-    public void deleteCandidate(long candidateId) {
-        repository.deleteVotesByCandidateId(candidateId);
-        repository.deleteCandidate(candidateId);
+    /**
+     * Queues the deletion of a candidate and its ballots on the
+     * {@link MaintenanceJobService} and returns the job id.
+     */
+    @ReadWriteRoute
+    public long deleteCandidate(long candidateId) {
+        long jobId = maintenanceJobs.submitDeleteCandidate(candidateId);
+        evictResults(MaintenanceJob.DELETE_CANDIDATE, candidateId);
+        return jobId;
     }
 
-    public List<Map<String, Object>> getAllCandidates() {
+    @ReadOnlyRoute
+    public List<Candidate> getAllCandidates() {
         return repository.findAllCandidates();
     }
 
+    @ReadWriteRoute
     public void addElection(String electionName, String startDate, String endDate) {
         String status = "upcoming";
         try {
@@ -112,68 +281,149 @@ public class ReportingService {
         int rows = repository.insertElection(electionName, startDate, endDate, status);
         if (rows != 1)
             throw new IllegalStateException("Failed to insert election");
+        // Ballots for the new election need its vote partition.
+        votePartitions.ensurePartitions();
     }
 
     /**
-     * Finds candidates for a specific election and constituency.
+     * Finds candidates for a specific election and constituency. Served from the
+     * per-election ballot snapshot, so no database call is made once it is built.
      */
-    public List<Map<String, Object>> findCandidatesByElectionAndConstituency(long electionId, long constituencyId) {
-        List<Map<String, Object>> allCandidates = loadCandidates(electionId);
-        return allCandidates.stream()
-                .filter(c -> {
-                    Object cId = c.get("constituency_id");
-                    return cId != null && ((Number) cId).longValue() == constituencyId;
-                })
-                .toList();
+    public List<Candidate> findCandidatesByElectionAndConstituency(long electionId, long constituencyId) {
+        return ballotCache.candidates(electionId, constituencyId);
     }
 
     /**
      * Authenticates a voter by NID and Password, then returns their details.
      * Also filters candidates based on the voter's constituency.
      */
-    public Map<String, Object> loginVoter(String nid, String password, long electionId) {
-        Map<String, Object> voter = repository.findVoterByNid(nid);
-        if (voter == null) {
+    public VoterSession loginVoter(String nid, String password, long electionId) {
+        VoterCredentials credentials = repository.findVoterCredentialsByNid(nid);
+        if (credentials == null) {
             throw new IllegalArgumentException("Voter with NID " + nid + " not found.");
         }
 
         // Simple password check (in production, use BCrypt)
-        String storedPassword = (String) voter.get("password");
+        String storedPassword = credentials.password();
         if (storedPassword != null && !storedPassword.equals(password)) {
             throw new IllegalArgumentException("Invalid password.");
         }
 
-        long voterId = ((Number) voter.get("voter_id")).longValue();
-        long constituencyId = voter.get("constituency_id") != null ? ((Number) voter.get("constituency_id")).longValue()
-                : 0;
+        Voter voter = voterCache.findById(credentials.voterId());
+        if (voter == null) {
+            throw new IllegalArgumentException("Voter with NID " + nid + " not found.");
+        }
 
-        boolean alreadyVoted = hasVoterVoted(electionId, voterId);
+        boolean alreadyVoted = hasVoterVoted(electionId, voter.voterId());
+        if (alreadyVoted) {
+            return new VoterSession(voter, true, findVoteForVoter(electionId, voter.voterId()), List.of());
+        }
+        return new VoterSession(voter, false, null,
+                findCandidatesByElectionAndConstituency(electionId, voter.constituencyId()));
+    }
 
-        // Create a mutable map or new map to return session data
-        // We can just return the voter map and add extra fields, or create a dedicated
-        // DTO.
-        // For simplicity, we'll return a new map with all necessary info.
-        java.util.HashMap<String, Object> sessionData = new java.util.HashMap<>(voter);
-        sessionData.put("hasVoted", alreadyVoted);
+    /**
+     * Queues the deletion of an election with its candidates and ballots on the
+     * {@link MaintenanceJobService} and returns the job id.
+     */
+    @ReadWriteRoute
+    public long deleteElection(long electionId) {
+        long jobId = maintenanceJobs.submitDeleteElection(electionId);
+        evictResults(MaintenanceJob.DELETE_ELECTION, electionId);
+        return jobId;
+    }
 
-        if (alreadyVoted) {
-            sessionData.put("myVote", findVoteForVoter(electionId, voterId));
-        } else {
-            sessionData.put("candidates", findCandidatesByElectionAndConstituency(electionId, constituencyId));
+    /**
+     * Cancels a deletion that has not started; the election or candidate shows
+     * up again. Returns false if the job is already running or finished.
+     */
+    @ReadWriteRoute
+    public boolean cancelDeletion(long jobId) {
+        MaintenanceJob job = maintenanceJobs.cancel(jobId);
+        if (job == null) {
+            return false;
+        }
+        evictResults(job.kind(), job.targetId());
+        return true;
+    }
+
+    /**
+     * Drops what the caches hold about an election or candidate once its
+     * background deletion has finished.
+     */
+    @EventListener
+    public void onRecordsDeleted(RecordsDeletedEvent event) {
+        long id = event.targetId();
+        evictResults(event.kind(), id);
+        if (MaintenanceJob.DELETE_ELECTION.equals(event.kind())) {
+            turnoutAnalytics.evictElection(id);
+            voteMetrics.evictElection(id);
+        } else if (MaintenanceJob.DELETE_CANDIDATE.equals(event.kind())) {
+            symbolService.evict(id);
         }
+    }
 
-        return sessionData;
+    /**
+     * Makes the ballot, live tally and constituency caches reload an election
+     * or candidate whose deletion flag has changed.
+     */
+    private void evictResults(String kind, long id) {
+        if (MaintenanceJob.DELETE_ELECTION.equals(kind)) {
+            liveTally.evictElection(id);
+            ballotCache.evictElection(id);
+            constituencyResults.evictElection(id);
+        } else if (MaintenanceJob.DELETE_CANDIDATE.equals(kind)) {
+            // A candidate that is back (cancelled) is in no cached entry yet, so
+            // its election is reloaded; one that is gone is looked for everywhere.
+            Long electionId = repository.findCandidateElectionId(id);
+            if (electionId != null) {
+                liveTally.evictElection(electionId);
+                ballotCache.refresh(electionId);
+                constituencyResults.evictElection(electionId);
+            } else {
+                liveTally.removeCandidate(id);
+                ballotCache.removeCandidate(id);
+                constituencyResults.evictAll();
+            }
+        }
+    }
+
+    /**
+     * Returns up to {@code pageSize} ballots in the order they were cast, starting
+     * after the given vote id.
+     */
+    @ReadOnlyRoute
+    public VotePage getVotesPage(long electionId, long afterId, int pageSize) {
+        List<VoteRow> rows = repository.findVotesByElectionPage(votePartitions.voteTable(electionId), electionId,
+                afterId, pageSize + 1);
+        boolean hasMore = rows.size() > pageSize;
+        return new VotePage(hasMore ? rows.subList(0, pageSize) : rows, hasMore);
     }
 
-    @org.springframework.transaction.annotation.Transactional
-    public void deleteElection(long electionId) {
-        repository.deleteVotesByElectionId(electionId);
-        repository.deleteCandidatesByElectionId(electionId);
-        repository.deleteElection(electionId);
+    @ReadOnlyRoute
+    public void streamVotesByElection(long electionId, Consumer<VoteRow> sink) {
+        repository.streamVotesByElection(votePartitions.voteTable(electionId), electionId, sink);
     }
 
-    public List<Map<String, Object>> getVotesByElection(long electionId) {
-        return repository.findVotesByElection(electionId);
+    /**
+     * Moves the ballots of a completed election out of the live vote table into
+     * its read-only archive table. Results keep working: they come from
+     * candidate_tally, which is left as it is, and the ballot list and export
+     * read the archive table. The status is set first, so an interrupted
+     * archive shows final results and can simply be run again.
+     */
+    @ReadWriteRoute
+    public void archiveElection(long electionId) {
+        Election election = repository.findAllElections().stream()
+                .filter(e -> e.electionId() == electionId)
+                .findFirst()
+                .orElseThrow(() -> new IllegalArgumentException("Election " + electionId + " not found."));
+        if (!"completed".equals(election.status()) && !"archived".equals(election.status())) {
+            throw new IllegalStateException("Only completed elections can be archived.");
+        }
+        repository.updateElectionStatus(electionId, "archived");
+        votePartitions.archive(electionId);
+        liveTally.evictElection(electionId);
     }
 
 }
@@ -2,7 +2,6 @@ package com.example.evoting.service;
 
 import java.util.ArrayList;
 import java.util.Collection;
-import java.util.Map;
 
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
@@ -12,6 +11,8 @@ import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
 
+import com.example.evoting.model.Admin;
+import com.example.evoting.model.VoterCredentials;
 import com.example.evoting.repository.ReportingRepository;
 
 @Service
@@ -26,23 +27,20 @@ public class ReportingUserDetailsService implements UserDetailsService {
     @Override
     public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
         // First check admin table
-        Map<String, Object> admin = repository.findAdminByUsername(username);
+        Admin admin = repository.findAdminByUsername(username);
         if (admin != null) {
-            String pw = (String) admin.get("password");
+            String pw = admin.password();
             Collection<GrantedAuthority> authorities = new ArrayList<>();
             authorities.add(new SimpleGrantedAuthority("ROLE_ADMIN"));
             return new User(username, pw, authorities);
         }
 
-        // Then check voter by NID
-        Map<String, Object> voter = repository.findVoterByNid(username);
-        if (voter == null) {
-            // Fallback: check by Voter ID (e.g. "1", "2")
-            voter = repository.findVoterByIdString(username);
-        }
+        // Then check voter by NID, falling back to Voter ID (e.g. "1", "2").
+        // Credentials are read through their own projection and never cached.
+        VoterCredentials voter = repository.findVoterCredentialsByLogin(username);
 
         if (voter != null) {
-            String pw = (String) voter.get("password");
+            String pw = voter.password();
             if (pw == null) {
                 pw = "VOTER_SECRET";
             }
@@ -0,0 +1,271 @@
+package com.example.evoting.service;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import com.example.evoting.model.CandidateTally;
+import com.example.evoting.model.VoteCastEvent;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Pushes live results to Server-Sent Events subscribers.
+ * <p>
+ * A vote only marks its election dirty. Every
+ * {@code app.results-stream.coalesce-ms} the dirty elections that have
+ * subscribers are diffed against the last state sent. The diff comes from the
+ * in-memory {@link LiveTallyService}, so no query runs. The changed candidates
+ * are serialised once and the same payload goes to every subscriber. Idle
+ * subscribers are async requests, so they hold no thread, and a periodic
+ * comment keeps proxies from closing them.
+ * <p>
+ * The scheduled methods only queue events. Writing them, which blocks on the
+ * client's socket, happens on a pool of {@code app.results-stream.send-threads}
+ * threads, one subscriber at a time per thread, so a slow client delays
+ * neither the other subscribers nor the shared scheduler. A subscriber with more
+ * than {@code app.results-stream.max-pending} events still queued is closed;
+ * the browser reconnects and starts again from a snapshot.
+ * <p>
+ * Events: {@code snapshot} (all candidates, sent on subscribe) and
+ * {@code tally} (changed candidates only, with absolute counts, so a missed or
+ * reordered event is corrected by the next one).
+ */
+@Service
+public class ResultsBroadcaster {
+
+    private static final Logger logger = LoggerFactory.getLogger(ResultsBroadcaster.class);
+
+    private final LiveTallyService liveTally;
+    private final ObjectMapper objectMapper;
+    private final long timeoutMs;
+    private final int maxPending;
+    private final ThreadPoolExecutor sender;
+    private final Counter dropped;
+    private final Map<Long, Set<Subscriber>> subscribers = new ConcurrentHashMap<>();
+    private final Set<Long> dirty = ConcurrentHashMap.newKeySet();
+    private final Map<Long, Map<Long, Long>> lastSent = new ConcurrentHashMap<>();
+
+    public ResultsBroadcaster(LiveTallyService liveTally, ObjectMapper objectMapper, MeterRegistry meterRegistry,
+            @Value("${app.results-stream.timeout-ms:1800000}") long timeoutMs,
+            @Value("${app.results-stream.send-threads:4}") int sendThreads,
+            @Value("${app.results-stream.max-pending:8}") int maxPending) {
+        this.liveTally = liveTally;
+        this.objectMapper = objectMapper;
+        this.timeoutMs = timeoutMs;
+        this.maxPending = maxPending;
+        // Each subscriber has at most one drain task queued, so the queue is bounded by the subscribers.
+        AtomicInteger threads = new AtomicInteger();
+        this.sender = new ThreadPoolExecutor(sendThreads, sendThreads, 0, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(), runnable -> {
+                    Thread thread = new Thread(runnable, "results-stream-" + threads.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        this.dropped = Counter.builder("evoting.results.stream.dropped")
+                .description("Live-results connections closed because the client fell behind")
+                .register(meterRegistry);
+        Gauge.builder("evoting.results.stream.subscribers", subscribers,
+                s -> s.values().stream().mapToInt(Set::size).sum())
+                .description("Open live-results connections")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Opens a stream for one election and sends the current standings.
+     */
+    public SseEmitter subscribe(long electionId) throws IOException {
+        SseEmitter emitter = new SseEmitter(timeoutMs);
+        Subscriber subscriber = new Subscriber(electionId, emitter);
+        subscribers.computeIfAbsent(electionId, id -> new CopyOnWriteArraySet<>()).add(subscriber);
+        Runnable remove = () -> unsubscribe(subscriber);
+        emitter.onCompletion(remove);
+        emitter.onTimeout(remove);
+        emitter.onError(e -> remove.run());
+
+        List<CandidateTally> standings = liveTally.snapshot(electionId);
+        List<CandidateUpdate> all = new ArrayList<>(standings.size());
+        for (CandidateTally row : standings) {
+            all.add(new CandidateUpdate(row.candidateId(), row.candidateName(), row.partyName(), row.totalVotes()));
+        }
+        emitter.send(SseEmitter.event().name("snapshot").data(json(new TallyMessage(electionId, all)),
+                MediaType.APPLICATION_JSON));
+        return emitter;
+    }
+
+    @EventListener
+    public void onVoteCast(VoteCastEvent event) {
+        if (subscribers.containsKey(event.electionId())) {
+            dirty.add(event.electionId());
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.results-stream.coalesce-ms:1000}")
+    public void flush() {
+        for (Long electionId : dirty) {
+            dirty.remove(electionId);
+            Set<Subscriber> emitters = subscribers.get(electionId);
+            if (emitters == null || emitters.isEmpty()) {
+                lastSent.remove(electionId);
+                continue;
+            }
+            List<CandidateUpdate> changed = diff(electionId);
+            if (changed.isEmpty()) {
+                continue;
+            }
+            String payload = json(new TallyMessage(electionId, changed));
+            for (Subscriber subscriber : emitters) {
+                subscriber.offer(SseEmitter.event().name("tally").data(payload, MediaType.APPLICATION_JSON));
+            }
+        }
+    }
+
+    @Scheduled(fixedRateString = "${app.results-stream.heartbeat-ms:25000}")
+    public void heartbeat() {
+        subscribers.forEach((electionId, emitters) -> {
+            for (Subscriber subscriber : emitters) {
+                subscriber.offer(SseEmitter.event().comment("keep-alive"));
+            }
+        });
+    }
+
+    @PreDestroy
+    public void close() {
+        sender.shutdownNow();
+    }
+
+    private List<CandidateUpdate> diff(long electionId) {
+        Map<Long, Long> previous = lastSent.getOrDefault(electionId, Map.of());
+        Map<Long, Long> current = new HashMap<>();
+        List<CandidateUpdate> changed = new ArrayList<>();
+        for (CandidateTally row : liveTally.snapshot(electionId)) {
+            current.put(row.candidateId(), row.totalVotes());
+            Long before = previous.get(row.candidateId());
+            if (before == null || before != row.totalVotes()) {
+                changed.add(new CandidateUpdate(row.candidateId(), null, null, row.totalVotes()));
+            }
+        }
+        lastSent.put(electionId, current);
+        return changed;
+    }
+
+    private void unsubscribe(Subscriber subscriber) {
+        subscribers.computeIfPresent(subscriber.electionId, (id, emitters) -> {
+            emitters.remove(subscriber);
+            return emitters.isEmpty() ? null : emitters;
+        });
+    }
+
+    private String json(TallyMessage message) {
+        try {
+            return objectMapper.writeValueAsString(message);
+        } catch (JsonProcessingException e) {
+            logger.error("Could not serialise results for election {}", message.electionId(), e);
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * An open stream and the events queued for it. At most one drain runs per
+     * subscriber, so its events are written in order, and the emitter is only
+     * completed from the drain, never while the scheduler waits on a write.
+     */
+    private final class Subscriber {
+
+        private final long electionId;
+        private final SseEmitter emitter;
+        private final Queue<SseEmitter.SseEventBuilder> pending = new ConcurrentLinkedQueue<>();
+        private final AtomicInteger queued = new AtomicInteger();
+        private final AtomicBoolean draining = new AtomicBoolean();
+        private final AtomicBoolean closed = new AtomicBoolean();
+
+        Subscriber(long electionId, SseEmitter emitter) {
+            this.electionId = electionId;
+            this.emitter = emitter;
+        }
+
+        void offer(SseEmitter.SseEventBuilder event) {
+            if (closed.get()) {
+                return;
+            }
+            if (queued.incrementAndGet() > maxPending) {
+                if (closed.compareAndSet(false, true)) {
+                    logger.debug("Closing live-results stream of election {}: client fell behind", electionId);
+                    dropped.increment();
+                    unsubscribe(this);
+                    schedule();
+                }
+                return;
+            }
+            pending.add(event);
+            schedule();
+        }
+
+        private void schedule() {
+            if (draining.compareAndSet(false, true)) {
+                sender.execute(this::drain);
+            }
+        }
+
+        private void drain() {
+            do {
+                SseEmitter.SseEventBuilder event;
+                while (!closed.get() && (event = pending.poll()) != null) {
+                    queued.decrementAndGet();
+                    try {
+                        emitter.send(event);
+                    } catch (IOException | IllegalStateException e) {
+                        // The client went away; completing the emitter triggers the cleanup callback.
+                        closed.set(true);
+                        unsubscribe(this);
+                        pending.clear();
+                        emitter.completeWithError(e);
+                        return;
+                    }
+                }
+                if (closed.get()) {
+                    pending.clear();
+                    emitter.complete();
+                    return;
+                }
+                draining.set(false);
+                // Work offered after the last poll but before the flag was cleared is picked up here.
+            } while ((closed.get() || !pending.isEmpty()) && draining.compareAndSet(false, true));
+        }
+    }
+
+    /**
+     * One SSE payload. {@code name} and {@code party} are only set in snapshots.
+     */
+    record TallyMessage(long electionId, List<CandidateUpdate> candidates) {
+    }
+
+    record CandidateUpdate(long id, String name, String party, long votes) {
+    }
+}
@@ -0,0 +1,268 @@
+package com.example.evoting.service;
+
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+import javax.imageio.ImageIO;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
+import org.springframework.stereotype.Service;
+
+import com.example.evoting.repository.ReportingRepository;
+import com.example.evoting.storage.SymbolStore;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+/**
+ * Serves candidate symbol images.
+ * <p>
+ * Symbols live in a content-addressed {@link SymbolStore}; the candidate row
+ * only keeps the hash. Besides the original, square thumbnail variants (see
+ * {@code app.symbols.thumbnail-sizes}) are generated when a candidate is added,
+ * so ballot and admin pages do not ship full-size uploads. Resolved symbols
+ * (hash, stored object, sniffed content type) are cached per candidate and
+ * variant, so serving a symbol needs neither a database call nor a read of the
+ * image itself. A candidate without a symbol is remembered only for
+ * {@code app.symbols.miss-ttl-seconds}; a symbol that exists is kept until
+ * evicted, since it never changes.
+ */
+@Service
+public class SymbolService {
+
+    private static final Logger logger = LoggerFactory.getLogger(SymbolService.class);
+
+    /** Variant size used for the original upload. */
+    public static final int ORIGINAL = 0;
+
+    private final ReportingRepository repository;
+    private final SymbolStore store;
+    private final int[] thumbnailSizes;
+    private final Cache<String, Optional<StoredSymbol>> resolved;
+
+    public SymbolService(ReportingRepository repository, SymbolStore store, MeterRegistry meterRegistry,
+            @Value("${app.symbols.thumbnail-sizes:64,128}") int[] thumbnailSizes,
+            @Value("${app.symbols.cache-max-entries:10000}") long cacheMaxEntries,
+            @Value("${app.symbols.miss-ttl-seconds:60}") long missTtlSeconds) {
+        this.repository = repository;
+        this.store = store;
+        this.thumbnailSizes = thumbnailSizes.clone();
+        Arrays.sort(this.thumbnailSizes);
+        this.resolved = Caffeine.newBuilder()
+                .maximumSize(cacheMaxEntries)
+                .expireAfter(new MissExpiry(TimeUnit.SECONDS.toNanos(missTtlSeconds)))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, resolved, "symbols");
+    }
+
+    /**
+     * Returns the symbol of a candidate at the requested size, or {@code null}
+     * if the candidate has no symbol. Sizes that are not configured thumbnail
+     * sizes resolve to the smallest configured size that is at least as large,
+     * or to the original.
+     */
+    public StoredSymbol find(long candidateId, int size) {
+        int variant = variantFor(size);
+        String key = key(candidateId, variant);
+        Optional<StoredSymbol> symbol = resolved.getIfPresent(key);
+        if (symbol == null) {
+            // Resolved outside Cache.get(key, loader) so the query and file reads do
+            // not run under a map lock (and cannot pin a virtual thread).
+            symbol = Optional.ofNullable(resolve(candidateId, variant));
+            resolved.put(key, symbol);
+        }
+        return symbol.orElse(null);
+    }
+
+    /**
+     * Stores a freshly uploaded symbol together with all of its thumbnail
+     * variants and returns its content hash, or {@code null} if there is no
+     * image.
+     */
+    public String store(byte[] original) {
+        if (original == null || original.length == 0) {
+            return null;
+        }
+        String hash = store.put(original);
+        for (int size : thumbnailSizes) {
+            byte[] variant = resize(original, size);
+            if (variant != null) {
+                store.putVariant(hash, size, variant);
+            }
+        }
+        return hash;
+    }
+
+    public void evict(long candidateId) {
+        resolved.invalidate(key(candidateId, ORIGINAL));
+        for (int size : thumbnailSizes) {
+            resolved.invalidate(key(candidateId, size));
+        }
+    }
+
+    private StoredSymbol resolve(long candidateId, int variant) {
+        String hash = repository.findCandidateSymbolHash(candidateId);
+        if (hash == null) {
+            return null;
+        }
+        Resource original = store.get(hash, ORIGINAL);
+        if (original == null) {
+            logger.warn("Symbol {} of candidate {} is missing from the store", hash, candidateId);
+            return null;
+        }
+        Resource resource = original;
+        if (variant != ORIGINAL) {
+            Resource stored = store.get(hash, variant);
+            if (stored == null) {
+                // Symbols migrated from the BLOB column have no variants yet.
+                byte[] resized = resize(read(original), variant);
+                if (resized != null) {
+                    store.putVariant(hash, variant, resized);
+                    stored = store.get(hash, variant);
+                }
+            }
+            if (stored != null) {
+                resource = stored;
+            }
+        }
+        try (InputStream in = resource.getInputStream()) {
+            String contentType = sniffContentType(in.readNBytes(256));
+            String etag = "\"" + hash + (resource == original ? "" : "-" + variant) + "\"";
+            return new StoredSymbol(resource, resource.contentLength(), contentType, etag);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private int variantFor(int size) {
+        if (size <= 0) {
+            return ORIGINAL;
+        }
+        for (int candidate : thumbnailSizes) {
+            if (candidate >= size) {
+                return candidate;
+            }
+        }
+        return ORIGINAL;
+    }
+
+    /**
+     * Scales an image to fit a {@code size} x {@code size} box and encodes it as
+     * PNG. Returns {@code null} if the image is already small enough or is in a
+     * format ImageIO cannot decode (SVG, WebP); the original is served instead.
+     */
+    private static byte[] resize(byte[] original, int size) {
+        try {
+            BufferedImage source = ImageIO.read(new ByteArrayInputStream(original));
+            if (source == null || (source.getWidth() <= size && source.getHeight() <= size)) {
+                return null;
+            }
+            double scale = Math.min((double) size / source.getWidth(), (double) size / source.getHeight());
+            int width = Math.max(1, (int) Math.round(source.getWidth() * scale));
+            int height = Math.max(1, (int) Math.round(source.getHeight() * scale));
+            BufferedImage target = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
+            Graphics2D g = target.createGraphics();
+            try {
+                g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+                g.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+                g.drawImage(source, 0, 0, width, height, null);
+            } finally {
+                g.dispose();
+            }
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            ImageIO.write(target, "png", out);
+            return out.toByteArray();
+        } catch (IOException | RuntimeException e) {
+            logger.debug("Could not create {}px symbol variant: {}", size, e.getMessage());
+            return null;
+        }
+    }
+
+    private static byte[] read(Resource resource) {
+        try (InputStream in = resource.getInputStream()) {
+            return in.readAllBytes();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static String key(long candidateId, int variant) {
+        return candidateId + ":" + variant;
+    }
+
+    /**
+     * Identifies common image formats from their leading bytes.
+     */
+    static String sniffContentType(byte[] b) {
+        if (b.length >= 8 && (b[0] & 0xFF) == 0x89 && b[1] == 'P' && b[2] == 'N' && b[3] == 'G') {
+            return "image/png";
+        }
+        if (b.length >= 3 && (b[0] & 0xFF) == 0xFF && (b[1] & 0xFF) == 0xD8 && (b[2] & 0xFF) == 0xFF) {
+            return "image/jpeg";
+        }
+        if (b.length >= 6 && b[0] == 'G' && b[1] == 'I' && b[2] == 'F' && b[3] == '8') {
+            return "image/gif";
+        }
+        if (b.length >= 12 && b[0] == 'R' && b[1] == 'I' && b[2] == 'F' && b[3] == 'F'
+                && b[8] == 'W' && b[9] == 'E' && b[10] == 'B' && b[11] == 'P') {
+            return "image/webp";
+        }
+        if (b.length >= 2 && b[0] == 'B' && b[1] == 'M') {
+            return "image/bmp";
+        }
+        String head = new String(b, 0, Math.min(b.length, 256), StandardCharsets.US_ASCII).trim();
+        if (head.startsWith("<svg") || (head.startsWith("<?xml") && head.contains("<svg"))) {
+            return "image/svg+xml";
+        }
+        return "application/octet-stream";
+    }
+
+    /**
+     * Expires cached misses after {@code missTtlNanos}; resolved symbols only
+     * leave the cache by eviction. Reads do not extend either.
+     */
+    private record MissExpiry(long missTtlNanos) implements Expiry<String, Optional<StoredSymbol>> {
+
+        @Override
+        public long expireAfterCreate(String key, Optional<StoredSymbol> symbol, long currentTime) {
+            return symbol.isPresent() ? Long.MAX_VALUE : missTtlNanos;
+        }
+
+        @Override
+        public long expireAfterUpdate(String key, Optional<StoredSymbol> symbol, long currentTime,
+                long currentDuration) {
+            return expireAfterCreate(key, symbol, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(String key, Optional<StoredSymbol> symbol, long currentTime,
+                long currentDuration) {
+            return currentDuration;
+        }
+    }
+
+    /**
+     * A resolved symbol: the stored object, its size, sniffed content type and
+     * quoted ETag (derived from the content hash, so it is stable across restarts
+     * and nodes).
+     */
+    public record StoredSymbol(Resource resource, long length, String contentType, String etag) {
+    }
+}
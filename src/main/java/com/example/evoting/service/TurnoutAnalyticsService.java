@@ -0,0 +1,231 @@
+package com.example.evoting.service;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import com.example.evoting.model.Candidate;
+import com.example.evoting.model.ConstituencyResult;
+import com.example.evoting.model.VoteCastEvent;
+import com.example.evoting.repository.ReportingRepository;
+import com.example.evoting.repository.ReportingRepository.VoteTime;
+
+/**
+ * Ballots per minute, per election and per constituency, over the last
+ * {@code app.turnout.retention-minutes}.
+ * <p>
+ * Counts live in fixed-size ring buffers indexed by epoch minute, so memory is
+ * bounded and recording a ballot is O(1). Every {@link VoteCastEvent} adds to
+ * the current minute. At startup the window before this service was created is
+ * backfilled from {@code vote.cast_at} in one streaming pass. Ballots from
+ * after that point arrive as events, so nothing is counted twice.
+ * <p>
+ * Cumulative turnout comes from {@link ConstituencyResultsService}, which is
+ * based on candidate_tally. Voters eligible in a constituency are the voters
+ * registered there ({@code voter.constituency_id}). No report scans the vote
+ * table.
+ */
+@Service
+public class TurnoutAnalyticsService {
+
+    private static final Logger logger = LoggerFactory.getLogger(TurnoutAnalyticsService.class);
+
+    private final ReportingRepository repository;
+    private final BallotCache ballotCache;
+    private final ConstituencyResultsService constituencyResults;
+    private final int retentionMinutes;
+    private final Instant startedAt = Instant.now();
+    private final ConcurrentHashMap<Long, ElectionSeries> elections = new ConcurrentHashMap<>();
+
+    public TurnoutAnalyticsService(ReportingRepository repository, BallotCache ballotCache,
+            ConstituencyResultsService constituencyResults,
+            @Value("${app.turnout.retention-minutes:1440}") int retentionMinutes) {
+        this.repository = repository;
+        this.ballotCache = ballotCache;
+        this.constituencyResults = constituencyResults;
+        this.retentionMinutes = retentionMinutes;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfill() {
+        Instant from = startedAt.minus(retentionMinutes, ChronoUnit.MINUTES);
+        long start = System.nanoTime();
+        long[] ballots = new long[1];
+        try {
+            repository.streamVoteTimes(from, startedAt, (VoteTime row) -> {
+                series(row.electionId()).add(row.constituencyId(), epochMinute(row.castAt()), 1);
+                ballots[0]++;
+            });
+            logger.info("Turnout series backfilled with {} ballots in {} ms", ballots[0],
+                    (System.nanoTime() - start) / 1_000_000);
+        } catch (Exception e) {
+            logger.warn("Turnout backfill stopped after {} ballots: {}", ballots[0], e.getMessage());
+        }
+    }
+
+    @EventListener
+    public void onVoteCast(VoteCastEvent event) {
+        Candidate candidate = ballotCache.candidate(event.electionId(), event.candidateId());
+        long constituencyId = candidate != null ? candidate.constituencyId() : 0;
+        series(event.electionId()).add(constituencyId, epochMinute(Instant.now()), 1);
+    }
+
+    public void evictElection(long electionId) {
+        elections.remove(electionId);
+    }
+
+    /**
+     * Turnout of an election with its ballots-per-minute series for the last
+     * {@code minutes} minutes, oldest first, and the same per constituency.
+     */
+    public TurnoutReport report(long electionId, int minutes) {
+        int window = Math.max(1, Math.min(minutes, retentionMinutes));
+        long now = epochMinute(Instant.now());
+        long first = now - window + 1;
+        ElectionSeries series = elections.get(electionId);
+
+        long ballots = 0;
+        long registered = 0;
+        List<ConstituencyTurnout> constituencies = new ArrayList<>();
+        for (ConstituencyResult result : constituencyResults.results(electionId)) {
+            ballots += result.ballots();
+            registered += result.registeredVoters();
+            MinuteRing ring = series != null ? series.constituencies.get(result.constituencyId()) : null;
+            long recent = ring != null ? sum(ring.range(first, window)) : 0;
+            constituencies.add(new ConstituencyTurnout(result.constituencyId(), result.name(),
+                    result.registeredVoters(), result.ballots(), result.turnoutPercent(), recent));
+        }
+
+        long[] perMinute = series != null ? series.total.range(first, window) : new long[window];
+        // Walk back from the current total to get the cumulative turnout at the end of each minute.
+        double[] cumulative = new double[window];
+        long runningBallots = ballots;
+        for (int i = window - 1; i >= 0; i--) {
+            cumulative[i] = registered > 0 ? runningBallots * 100.0 / registered : 0;
+            runningBallots -= perMinute[i];
+        }
+        List<MinutePoint> points = new ArrayList<>(window);
+        for (int i = 0; i < window; i++) {
+            points.add(new MinutePoint(Instant.ofEpochSecond((first + i) * 60), perMinute[i], cumulative[i]));
+        }
+        double turnout = registered > 0 ? ballots * 100.0 / registered : 0;
+        return new TurnoutReport(electionId, registered, ballots, turnout, sum(perMinute), List.copyOf(points),
+                List.copyOf(constituencies));
+    }
+
+    private ElectionSeries series(long electionId) {
+        ElectionSeries series = elections.get(electionId);
+        if (series == null) {
+            ElectionSeries created = new ElectionSeries(retentionMinutes);
+            series = elections.putIfAbsent(electionId, created);
+            if (series == null) {
+                series = created;
+            }
+        }
+        return series;
+    }
+
+    private static long epochMinute(Instant instant) {
+        return Math.floorDiv(instant.getEpochSecond(), 60);
+    }
+
+    private static long sum(long[] values) {
+        long total = 0;
+        for (long value : values) {
+            total += value;
+        }
+        return total;
+    }
+
+    /**
+     * Turnout of an election. {@code recentBallots} is the number of ballots in
+     * the series window.
+     */
+    public record TurnoutReport(long electionId, long registeredVoters, long ballots, double turnoutPercent,
+            long recentBallots, List<MinutePoint> series, List<ConstituencyTurnout> constituencies) {
+
+        /**
+         * The busiest minute in the window, for scaling charts.
+         */
+        public long peakPerMinute() {
+            long peak = 0;
+            for (MinutePoint point : series) {
+                peak = Math.max(peak, point.ballots());
+            }
+            return peak;
+        }
+    }
+
+    public record MinutePoint(Instant minute, long ballots, double cumulativeTurnoutPercent) {
+    }
+
+    public record ConstituencyTurnout(long constituencyId, String name, long registeredVoters, long ballots,
+            double turnoutPercent, long recentBallots) {
+    }
+
+    private static final class ElectionSeries {
+        private final int capacity;
+        private final MinuteRing total;
+        private final Map<Long, MinuteRing> constituencies = new ConcurrentHashMap<>();
+
+        ElectionSeries(int capacity) {
+            this.capacity = capacity;
+            this.total = new MinuteRing(capacity);
+        }
+
+        void add(long constituencyId, long minute, long ballots) {
+            total.add(minute, ballots);
+            constituencies.computeIfAbsent(constituencyId, id -> new MinuteRing(capacity)).add(minute, ballots);
+        }
+    }
+
+    /**
+     * Counts per epoch minute in a ring of {@code capacity} slots. A slot is reset
+     * when a newer minute claims it; counts for minutes that have already been
+     * overwritten are dropped. The critical sections are a few array accesses,
+     * so a monitor is cheaper here than anything lock-free.
+     */
+    private static final class MinuteRing {
+        private final long[] minutes;
+        private final long[] counts;
+
+        MinuteRing(int capacity) {
+            minutes = new long[capacity];
+            counts = new long[capacity];
+            Arrays.fill(minutes, Long.MIN_VALUE);
+        }
+
+        synchronized void add(long minute, long ballots) {
+            int slot = (int) Math.floorMod(minute, (long) minutes.length);
+            if (minutes[slot] != minute) {
+                if (minutes[slot] > minute) {
+                    return;
+                }
+                minutes[slot] = minute;
+                counts[slot] = 0;
+            }
+            counts[slot] += ballots;
+        }
+
+        synchronized long[] range(long firstMinute, int length) {
+            long[] values = new long[length];
+            for (int i = 0; i < length; i++) {
+                long minute = firstMinute + i;
+                int slot = (int) Math.floorMod(minute, (long) minutes.length);
+                values[i] = minutes[slot] == minute ? counts[slot] : 0;
+            }
+            return values;
+        }
+    }
+}
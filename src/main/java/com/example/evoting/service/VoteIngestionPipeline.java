@@ -0,0 +1,357 @@
+package com.example.evoting.service;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.example.evoting.model.Ballot;
+import com.example.evoting.model.VoteOutcome;
+import com.example.evoting.repository.ReportingRepository;
+import com.example.evoting.repository.ReportingRepository.VoterBallot;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Group-committed ballot ingestion.
+ * <p>
+ * When {@code app.vote-ingest.mode=batched}, ballots are placed on a bounded
+ * queue and a single writer drains it in micro-batches (up to
+ * {@code batch-size} rows or {@code linger-ms}, whichever comes first), inserting
+ * each batch with one JDBC batch in one transaction. Callers block until their
+ * own row is durably committed.
+ * <p>
+ * Voters who already have a ballot are looked up for the whole batch before it
+ * is written and answered {@link VoteOutcome#ALREADY_VOTED}, so a double vote
+ * does not fail the batch. The {@code UNIQUE(voter_id, election_id)} constraint
+ * still guards against a ballot committed in between; the batch is then checked
+ * and written again. Only other failures retry the ballots one by one.
+ * <p>
+ * A caller that gives up after {@code commit-timeout-ms} withdraws its ballot
+ * if the writer has not picked it up yet. Otherwise the ballot is already being
+ * written, and the caller waits for that write or, failing that, asks the
+ * database whether this submission's ballot is in.
+ */
+@Service
+public class VoteIngestionPipeline {
+
+    private static final Logger logger = LoggerFactory.getLogger(VoteIngestionPipeline.class);
+
+    /**
+     * Duplicate-key failures of one batch before its ballots are written one by
+     * one. Each failure means a ballot was committed elsewhere after the lookup.
+     */
+    private static final int MAX_BATCH_ATTEMPTS = 3;
+
+    private final ReportingRepository repository;
+    private final TransactionTemplate transactionTemplate;
+    private final LiveTallyService liveTally;
+    private final boolean batched;
+    private final int batchSize;
+    private final long lingerNanos;
+    private final long enqueueTimeoutMs;
+    private final long commitTimeoutMs;
+    private final BlockingQueue<PendingBallot> queue;
+    private final DistributionSummary batchSizes;
+    private final Timer flushTimer;
+
+    private volatile boolean running;
+    private Thread writer;
+
+    public VoteIngestionPipeline(ReportingRepository repository,
+            PlatformTransactionManager transactionManager,
+            LiveTallyService liveTally,
+            MeterRegistry meterRegistry,
+            @Value("${app.vote-ingest.mode:direct}") String mode,
+            @Value("${app.vote-ingest.batch-size:500}") int batchSize,
+            @Value("${app.vote-ingest.linger-ms:5}") long lingerMs,
+            @Value("${app.vote-ingest.queue-capacity:10000}") int queueCapacity,
+            @Value("${app.vote-ingest.enqueue-timeout-ms:1000}") long enqueueTimeoutMs,
+            @Value("${app.vote-ingest.commit-timeout-ms:10000}") long commitTimeoutMs) {
+        this.repository = repository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.liveTally = liveTally;
+        this.batched = "batched".equalsIgnoreCase(mode);
+        this.batchSize = batchSize;
+        this.lingerNanos = TimeUnit.MILLISECONDS.toNanos(lingerMs);
+        this.enqueueTimeoutMs = enqueueTimeoutMs;
+        this.commitTimeoutMs = commitTimeoutMs;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+
+        Gauge.builder("evoting.vote.ingest.queue.depth", queue, BlockingQueue::size)
+                .description("Ballots waiting to be written")
+                .register(meterRegistry);
+        this.batchSizes = DistributionSummary.builder("evoting.vote.ingest.batch.size")
+                .description("Ballots written per group commit")
+                .publishPercentiles(0.5, 0.9, 0.99)
+                .register(meterRegistry);
+        this.flushTimer = Timer.builder("evoting.vote.ingest.flush")
+                .description("Time to write and commit one batch")
+                .register(meterRegistry);
+    }
+
+    public boolean isBatched() {
+        return batched;
+    }
+
+    @PostConstruct
+    public void start() {
+        if (!batched) {
+            return;
+        }
+        running = true;
+        writer = new Thread(this::drainLoop, "vote-ingest-writer");
+        writer.setDaemon(true);
+        writer.start();
+        logger.info("Batched vote ingestion started (batch-size={}, linger={}ms, capacity={})",
+                batchSize, TimeUnit.NANOSECONDS.toMillis(lingerNanos), queue.remainingCapacity());
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        if (writer == null) {
+            return;
+        }
+        running = false;
+        writer.join(TimeUnit.SECONDS.toMillis(10));
+    }
+
+    /**
+     * Queues a ballot and waits until it has been committed, turned away because
+     * the voter already has a ballot, or rejected because its voter or candidate
+     * does not exist.
+     *
+     * @throws IllegalStateException if the queue is full, the ballot was never
+     *                               written or the insert failed
+     */
+    public VoteOutcome submit(long electionId, long voterId, long candidateId) {
+        PendingBallot ballot = new PendingBallot(electionId, voterId, candidateId, new CompletableFuture<>(),
+                new AtomicBoolean(), new AtomicReference<>());
+        try {
+            if (!running || !queue.offer(ballot, enqueueTimeoutMs, TimeUnit.MILLISECONDS)) {
+                throw new IllegalStateException("Vote ingestion queue is full");
+            }
+            try {
+                return ballot.committed().get(commitTimeoutMs, TimeUnit.MILLISECONDS);
+            } catch (TimeoutException e) {
+                return resolveTimedOut(ballot);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for vote commit", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof DuplicateKeyException) {
+                return VoteOutcome.ALREADY_VOTED;
+            }
+            throw new IllegalStateException("Failed to insert vote", e.getCause());
+        }
+    }
+
+    /**
+     * The outcome of a ballot whose commit did not arrive in time. A ballot still
+     * in the queue is withdrawn and reported as failed, which is then true. A
+     * ballot the writer has taken is only reported accepted if the voter's
+     * ballot in the database is the one this submission wrote, i.e. has its
+     * candidate and the cast_at of its last write attempt; any other ballot came
+     * from an earlier submission.
+     */
+    private VoteOutcome resolveTimedOut(PendingBallot ballot) throws InterruptedException, ExecutionException {
+        if (ballot.taken().compareAndSet(false, true)) {
+            throw new IllegalStateException("Timed out waiting in the vote ingestion queue");
+        }
+        try {
+            return ballot.committed().get(commitTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            VoterBallot cast = repository.findVoterBallot(ballot.electionId(), ballot.voterId());
+            if (cast == null) {
+                throw new IllegalStateException("Timed out waiting for vote commit", e);
+            }
+            if (cast.candidateId() == ballot.candidateId() && cast.castAt() != null
+                    && cast.castAt().equals(ballot.castAt().get())) {
+                logger.warn("Commit of the ballot of voter {} in election {} was slow; the ballot is recorded",
+                        ballot.voterId(), ballot.electionId());
+                return VoteOutcome.ACCEPTED;
+            }
+            return VoteOutcome.ALREADY_VOTED;
+        }
+    }
+
+    private void drainLoop() {
+        List<PendingBallot> batch = new ArrayList<>(batchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                PendingBallot first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                long deadline = System.nanoTime() + lingerNanos;
+                while (batch.size() < batchSize) {
+                    queue.drainTo(batch, batchSize - batch.size());
+                    long remaining = deadline - System.nanoTime();
+                    if (batch.size() >= batchSize || remaining <= 0) {
+                        break;
+                    }
+                    PendingBallot next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+                flushTimer.record(() -> flush(batch));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                running = false;
+            } catch (RuntimeException e) {
+                logger.error("Vote ingestion batch failed", e);
+                batch.forEach(b -> b.committed().completeExceptionally(e));
+            } finally {
+                batch.clear();
+            }
+        }
+        PendingBallot leftover;
+        while ((leftover = queue.poll()) != null) {
+            leftover.committed().completeExceptionally(new IllegalStateException("Vote ingestion stopped"));
+        }
+    }
+
+    private void flush(List<PendingBallot> batch) {
+        // A voter can only appear once per election in a batch; later copies are
+        // answered up front so they cannot fail the whole batch. Ballots whose
+        // caller has given up are skipped.
+        List<PendingBallot> unique = new ArrayList<>(batch.size());
+        Set<String> seen = new HashSet<>();
+        for (PendingBallot ballot : batch) {
+            if (!ballot.taken().compareAndSet(false, true)) {
+                continue;
+            }
+            if (seen.add(ballot.voterId() + ":" + ballot.electionId())) {
+                unique.add(ballot);
+            } else {
+                ballot.committed().complete(VoteOutcome.ALREADY_VOTED);
+            }
+        }
+        batchSizes.record(unique.size());
+
+        for (int attempt = 1; !unique.isEmpty(); attempt++) {
+            unique = withoutVotersWhoVoted(unique);
+            if (unique.isEmpty()) {
+                return;
+            }
+            try {
+                Instant castAt = castAt();
+                List<Ballot> rows = new ArrayList<>(unique.size());
+                for (PendingBallot ballot : unique) {
+                    ballot.castAt().set(castAt);
+                    rows.add(new Ballot(ballot.electionId(), ballot.voterId(), ballot.candidateId()));
+                }
+                int[] inserted = transactionTemplate.execute(status -> repository.insertVotes(rows, castAt));
+                for (int i = 0; i < unique.size(); i++) {
+                    written(unique.get(i), inserted[i]);
+                }
+                return;
+            } catch (DuplicateKeyException e) {
+                // A ballot for one of these voters committed after the lookup.
+                if (attempt < MAX_BATCH_ATTEMPTS) {
+                    continue;
+                }
+                insertOneByOne(unique, e);
+                return;
+            } catch (DataAccessException e) {
+                insertOneByOne(unique, e);
+                return;
+            }
+        }
+    }
+
+    /**
+     * Answers {@link VoteOutcome#ALREADY_VOTED} for the ballots whose voter has a
+     * ballot in the database and returns the rest.
+     */
+    private List<PendingBallot> withoutVotersWhoVoted(List<PendingBallot> ballots) {
+        Map<Long, List<Long>> votersByElection = new HashMap<>();
+        for (PendingBallot ballot : ballots) {
+            votersByElection.computeIfAbsent(ballot.electionId(), id -> new ArrayList<>()).add(ballot.voterId());
+        }
+        Map<Long, Set<Long>> voted = new HashMap<>();
+        votersByElection.forEach((electionId, voterIds) ->
+                voted.put(electionId, repository.findVotersWhoVoted(electionId, voterIds)));
+        List<PendingBallot> remaining = new ArrayList<>(ballots.size());
+        for (PendingBallot ballot : ballots) {
+            if (voted.get(ballot.electionId()).contains(ballot.voterId())) {
+                ballot.committed().complete(VoteOutcome.ALREADY_VOTED);
+            } else {
+                remaining.add(ballot);
+            }
+        }
+        return remaining;
+    }
+
+    private void insertOneByOne(List<PendingBallot> ballots, DataAccessException batchFailure) {
+        logger.warn("Batch of {} ballots failed, retrying individually: {}", ballots.size(),
+                batchFailure.getMessage());
+        for (PendingBallot ballot : ballots) {
+            Instant castAt = castAt();
+            ballot.castAt().set(castAt);
+            try {
+                written(ballot, transactionTemplate.execute(status -> repository
+                        .insertVote(ballot.electionId(), ballot.voterId(), ballot.candidateId(), castAt)));
+            } catch (DataAccessException e) {
+                ballot.committed().completeExceptionally(e);
+            }
+        }
+    }
+
+    private void written(PendingBallot ballot, int rows) {
+        // Drivers may report SUCCESS_NO_INFO (-2) for batched rows; only 0 is a miss.
+        if (rows == 0) {
+            ballot.committed().complete(VoteOutcome.REJECTED);
+            return;
+        }
+        liveTally.recordVote(ballot.electionId(), ballot.candidateId());
+        ballot.committed().complete(VoteOutcome.ACCEPTED);
+    }
+
+    /**
+     * cast_at of a write attempt, at the millisecond precision of the column so
+     * it reads back unchanged.
+     */
+    private static Instant castAt() {
+        return Instant.now().truncatedTo(ChronoUnit.MILLIS);
+    }
+
+    /**
+     * {@code taken} is set by whoever claims the ballot first: the writer, to
+     * write it, or the caller, to withdraw it after a timeout. {@code castAt}
+     * is set by the writer before each attempt to write the ballot.
+     */
+    private record PendingBallot(long electionId, long voterId, long candidateId,
+            CompletableFuture<VoteOutcome> committed, AtomicBoolean taken, AtomicReference<Instant> castAt) {
+    }
+}
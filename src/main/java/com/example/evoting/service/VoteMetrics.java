@@ -0,0 +1,72 @@
+package com.example.evoting.service;
+
+import java.util.Locale;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.stereotype.Service;
+
+import com.example.evoting.model.VoteOutcome;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * {@code evoting.votes.cast} counters, tagged by election and outcome.
+ * <p>
+ * The counters of an election are registered on its first accepted ballot and
+ * then looked up from a map, so recording a ballot does not build tags. Until
+ * then its outcomes are counted under {@code election=unknown}: the election id
+ * comes from the client, and only an accepted ballot proves the election
+ * exists. An election has at most one counter per {@link VoteOutcome}, and they
+ * are removed when the election is deleted.
+ */
+@Service
+public class VoteMetrics {
+
+    static final String VOTES_CAST = "evoting.votes.cast";
+    static final String UNKNOWN_ELECTION = "unknown";
+
+    private static final VoteOutcome[] OUTCOMES = VoteOutcome.values();
+
+    private final MeterRegistry meterRegistry;
+    private final ConcurrentHashMap<Long, Counter[]> counters = new ConcurrentHashMap<>();
+    private final Counter[] unknown;
+
+    public VoteMetrics(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+        this.unknown = register(UNKNOWN_ELECTION);
+    }
+
+    public void record(long electionId, VoteOutcome outcome) {
+        Counter[] election = counters.get(electionId);
+        if (election == null) {
+            if (outcome != VoteOutcome.ACCEPTED) {
+                unknown[outcome.ordinal()].increment();
+                return;
+            }
+            election = counters.computeIfAbsent(electionId, id -> register(Long.toString(id)));
+        }
+        election[outcome.ordinal()].increment();
+    }
+
+    public void evictElection(long electionId) {
+        Counter[] removed = counters.remove(electionId);
+        if (removed != null) {
+            for (Counter counter : removed) {
+                meterRegistry.remove(counter);
+            }
+        }
+    }
+
+    private Counter[] register(String election) {
+        Counter[] registered = new Counter[OUTCOMES.length];
+        for (VoteOutcome outcome : OUTCOMES) {
+            registered[outcome.ordinal()] = Counter.builder(VOTES_CAST)
+                    .description("Ballots submitted, by election and outcome")
+                    .tag("election", election)
+                    .tag("outcome", outcome.name().toLowerCase(Locale.ROOT))
+                    .register(meterRegistry);
+        }
+        return registered;
+    }
+}
@@ -0,0 +1,87 @@
+package com.example.evoting.service;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import com.example.evoting.model.VoteOutcome;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+/**
+ * Short-lived outcomes of ballot submissions, keyed by voter and the
+ * idempotency token the ballot form carries.
+ * <p>
+ * A browser double-submit or a retry of the same form is answered from here
+ * instead of reaching the database. A repeat that arrives while the first
+ * submission is still running waits for its outcome. The first submission
+ * installs a future with {@code putIfAbsent} and runs the cast outside the
+ * cache, for the same reason as in {@link VoterIdentityCache}. A failed
+ * submission is removed so the next retry runs again.
+ */
+@Service
+public class VoteSubmissionCache {
+
+    private final Cache<String, CompletableFuture<VoteOutcome>> outcomes;
+    private final long waitMs;
+
+    public VoteSubmissionCache(MeterRegistry meterRegistry,
+            @Value("${app.vote-idempotency.maximum-size:100000}") long maximumSize,
+            @Value("${app.vote-idempotency.ttl-seconds:600}") long ttlSeconds,
+            @Value("${app.vote-ingest.commit-timeout-ms:10000}") long waitMs) {
+        this.outcomes = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .recordStats()
+                .build();
+        this.waitMs = waitMs;
+        CaffeineCacheMetrics.monitor(meterRegistry, outcomes, "vote.submissions");
+    }
+
+    /**
+     * Runs {@code cast} once per (voter, token) and returns its outcome to every
+     * submission with the same token. Without a token the cast always runs.
+     */
+    public VoteOutcome submit(long voterId, String token, Supplier<VoteOutcome> cast) {
+        if (token == null || token.isBlank()) {
+            return cast.get();
+        }
+        String key = voterId + ":" + token;
+        CompletableFuture<VoteOutcome> mine = new CompletableFuture<>();
+        CompletableFuture<VoteOutcome> existing = outcomes.asMap().putIfAbsent(key, mine);
+        if (existing != null) {
+            return await(existing);
+        }
+        try {
+            VoteOutcome outcome = cast.get();
+            mine.complete(outcome);
+            return outcome;
+        } catch (RuntimeException e) {
+            outcomes.asMap().remove(key, mine);
+            mine.completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    private VoteOutcome await(CompletableFuture<VoteOutcome> pending) {
+        try {
+            return pending.get(waitMs, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for a duplicate submission", e);
+        } catch (TimeoutException e) {
+            throw new IllegalStateException("Timed out waiting for a duplicate submission", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Failed to insert vote", e.getCause());
+        }
+    }
+}
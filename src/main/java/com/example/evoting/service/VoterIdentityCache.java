@@ -0,0 +1,129 @@
+package com.example.evoting.service;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import com.example.evoting.model.Voter;
+import com.example.evoting.repository.ReportingRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+/**
+ * Bounded, expiring cache of voter identities keyed by NID and by voter_id.
+ * <p>
+ * Login and every ballot page resolve the same voter several times; with this
+ * cache a voter session costs one database lookup until the entry expires.
+ * Misses are cached too, so a login by voter_id does not re-run the NID query.
+ * Entries must be invalidated whenever a voter row is inserted or changed.
+ * Credentials are not part of the cached {@link Voter} projection.
+ * <p>
+ * Lookups are not done through {@code Cache.get(key, loader)}: Caffeine runs the
+ * loader inside a map compute, and a JDBC call there would pin a virtual thread.
+ * Loads run unlocked instead, and a generation counter bumped by every
+ * invalidation keeps a load that raced with an invalidation from being cached.
+ */
+@Service
+public class VoterIdentityCache {
+
+    private final ReportingRepository repository;
+    private final Cache<String, Optional<Voter>> byNid;
+    private final Cache<Long, Optional<Voter>> byId;
+    private final AtomicLong generation = new AtomicLong();
+
+    public VoterIdentityCache(ReportingRepository repository, MeterRegistry meterRegistry,
+            @Value("${app.voter-cache.maximum-size:100000}") long maximumSize,
+            @Value("${app.voter-cache.ttl-seconds:900}") long ttlSeconds) {
+        this.repository = repository;
+        this.byNid = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .recordStats()
+                .build();
+        this.byId = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, byNid, "voters.byNid");
+        CaffeineCacheMetrics.monitor(meterRegistry, byId, "voters.byId");
+    }
+
+    public Voter findByNid(String nid) {
+        Optional<Voter> voter = lookup(byNid, nid, repository::findVoterByNid);
+        voter.ifPresent(v -> byId.put(v.voterId(), voter));
+        return voter.orElse(null);
+    }
+
+    public Voter findById(long voterId) {
+        Optional<Voter> voter = lookup(byId, voterId, repository::findVoterById);
+        voter.ifPresent(v -> byNid.put(v.nidNumber(), voter));
+        return voter.orElse(null);
+    }
+
+    public Voter findByIdString(String idStr) {
+        try {
+            return findById(Long.parseLong(idStr));
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Resolves a login name the same way the login form does: first as an NID,
+     * then as a numeric voter_id.
+     */
+    public Voter findByLogin(String username) {
+        Voter voter = findByNid(username);
+        return voter != null ? voter : findByIdString(username);
+    }
+
+    /**
+     * Drops any cached entry (including a cached miss) for this NID.
+     */
+    public void invalidateNid(String nid) {
+        generation.incrementAndGet();
+        Optional<Voter> cached = byNid.getIfPresent(nid);
+        byNid.invalidate(nid);
+        if (cached != null) {
+            cached.ifPresent(v -> byId.invalidate(v.voterId()));
+        }
+    }
+
+    /**
+     * Drops any cached entry (including a cached miss) for this voter_id.
+     */
+    public void invalidateId(long voterId) {
+        generation.incrementAndGet();
+        Optional<Voter> cached = byId.getIfPresent(voterId);
+        byId.invalidate(voterId);
+        if (cached != null) {
+            cached.ifPresent(v -> byNid.invalidate(v.nidNumber()));
+        }
+    }
+
+    public void invalidateAll() {
+        generation.incrementAndGet();
+        byNid.invalidateAll();
+        byId.invalidateAll();
+    }
+
+    private <K> Optional<Voter> lookup(Cache<K, Optional<Voter>> cache, K key, Function<K, Voter> loader) {
+        Optional<Voter> cached = cache.getIfPresent(key);
+        if (cached != null) {
+            return cached;
+        }
+        long stamp = generation.get();
+        Optional<Voter> loaded = Optional.ofNullable(loader.apply(key));
+        cache.asMap().compute(key,
+                (k, current) -> current != null ? current : generation.get() == stamp ? loaded : null);
+        return loaded;
+    }
+}
@@ -0,0 +1,92 @@
+package com.example.evoting.storage;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.stereotype.Component;
+
+/**
+ * {@link SymbolStore} backed by a local directory, by default
+ * {@code uploads/symbols}. Objects are spread over 256 sub-directories by the
+ * first two hex digits of their hash; variants are stored as
+ * {@code <hash>-<size>}. Writes go to a temporary file that is then moved into
+ * place, so readers never see a partially written object.
+ */
+@Component
+public class FileSystemSymbolStore implements SymbolStore {
+
+    private final Path root;
+
+    public FileSystemSymbolStore(@Value("${app.uploads.dir:uploads}") String uploadsDir) {
+        this.root = Path.of(uploadsDir, "symbols").toAbsolutePath().normalize();
+    }
+
+    @Override
+    public String put(byte[] content) {
+        String hash = sha256(content);
+        write(path(hash, 0), content);
+        return hash;
+    }
+
+    @Override
+    public void putVariant(String hash, int size, byte[] content) {
+        write(path(hash, size), content);
+    }
+
+    @Override
+    public Resource get(String hash, int size) {
+        Path file = path(hash, size);
+        return Files.isRegularFile(file) ? new FileSystemResource(file) : null;
+    }
+
+    private Path path(String hash, int size) {
+        if (hash.length() < 3 || !hash.chars().allMatch(HexFormat::isHexDigit)) {
+            throw new IllegalArgumentException("Not a content hash: " + hash);
+        }
+        String name = size > 0 ? hash + "-" + size : hash;
+        return root.resolve(hash.substring(0, 2)).resolve(name);
+    }
+
+    private static void write(Path target, byte[] content) {
+        if (Files.exists(target)) {
+            return;
+        }
+        try {
+            Files.createDirectories(target.getParent());
+            Path tmp = Files.createTempFile(target.getParent(), ".upload", ".tmp");
+            try {
+                Files.write(tmp, content);
+                try {
+                    Files.move(tmp, target, StandardCopyOption.ATOMIC_MOVE);
+                } catch (AtomicMoveNotSupportedException e) {
+                    Files.move(tmp, target);
+                }
+            } catch (FileAlreadyExistsException e) {
+                // Another request stored the same content first.
+            } finally {
+                Files.deleteIfExists(tmp);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not store symbol " + target.getFileName(), e);
+        }
+    }
+
+    static String sha256(byte[] content) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(content));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package com.example.evoting.storage;
+
+import java.util.List;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import com.example.evoting.repository.ReportingRepository;
+import com.example.evoting.repository.ReportingRepository.LegacySymbol;
+import com.example.evoting.service.SymbolService;
+
+/**
+ * Moves symbols that are still stored in the {@code candidate.symbol} BLOB into
+ * the {@link SymbolStore}, a batch at a time, and clears the column. Runs once
+ * at startup, after Flyway has brought the schema up to date;
+ * rows are only rewritten after their file is safely stored, so an interrupted
+ * run simply continues on the next start.
+ */
+@Component
+public class SymbolBlobMigration {
+
+    private static final Logger logger = LoggerFactory.getLogger(SymbolBlobMigration.class);
+
+    private final ReportingRepository repository;
+    private final SymbolService symbolService;
+    private final boolean enabled;
+    private final int batchSize;
+
+    public SymbolBlobMigration(ReportingRepository repository, SymbolService symbolService,
+            @Value("${app.symbols.migrate-blobs:true}") boolean enabled,
+            @Value("${app.symbols.migrate-batch-size:100}") int batchSize) {
+        this.repository = repository;
+        this.symbolService = symbolService;
+        this.enabled = enabled;
+        this.batchSize = batchSize;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Order(Ordered.LOWEST_PRECEDENCE)
+    public void migrate() {
+        if (!enabled) {
+            return;
+        }
+        int migrated = 0;
+        try {
+            List<LegacySymbol> batch;
+            do {
+                batch = repository.findCandidatesWithBlobSymbol(batchSize);
+                for (LegacySymbol legacy : batch) {
+                    String hash = symbolService.store(legacy.bytes());
+                    repository.updateCandidateSymbolHash(legacy.candidateId(), hash);
+                    symbolService.evict(legacy.candidateId());
+                    migrated++;
+                }
+            } while (batch.size() == batchSize);
+        } catch (Exception e) {
+            logger.warn("Symbol migration stopped after {} candidates: {}", migrated, e.getMessage());
+            return;
+        }
+        if (migrated > 0) {
+            logger.info("Moved {} candidate symbols from the database into the symbol store", migrated);
+        }
+    }
+}
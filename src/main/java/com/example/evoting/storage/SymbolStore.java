@@ -0,0 +1,32 @@
+package com.example.evoting.storage;
+
+import org.springframework.core.io.Resource;
+
+/**
+ * Content-addressed storage for candidate symbol images.
+ * <p>
+ * Originals are stored under the hex SHA-256 of their bytes, so identical
+ * uploads share one object and an object never changes once written. Resized
+ * variants are stored next to the original they were derived from. A variant
+ * size of {@code 0} denotes the original.
+ */
+public interface SymbolStore {
+
+    /**
+     * Stores an original image and returns its content hash. Storing content
+     * that is already present is a no-op.
+     */
+    String put(byte[] content);
+
+    /**
+     * Stores a resized variant of the original identified by {@code hash}.
+     */
+    void putVariant(String hash, int size, byte[] content);
+
+    /**
+     * Returns the stored object, or {@code null} if it does not exist. Backends
+     * that keep objects on the local disk return a resource whose
+     * {@link Resource#isFile()} is {@code true} so it can be sent zero-copy.
+     */
+    Resource get(String hash, int size);
+}
@@ -1,3 +1,8 @@
+-- Baseline: the schema as of the first versioned migration. Databases created
+-- before Flyway was enabled are baselined at this version
+-- (spring.flyway.baseline-on-migrate) and continue with V1.1, which adds what
+-- the oldest of them lack.
+
 CREATE TABLE IF NOT EXISTS election (
     election_id BIGINT AUTO_INCREMENT PRIMARY KEY,
     title VARCHAR(255) NOT NULL,
@@ -18,6 +23,7 @@ CREATE TABLE IF NOT EXISTS candidate (
     constituency_id BIGINT,
     election_id BIGINT,
     symbol LONGBLOB,
+    symbol_hash VARCHAR(64),
     voter_id BIGINT,
     FOREIGN KEY (election_id) REFERENCES election(election_id)
 );
@@ -38,12 +44,25 @@ CREATE TABLE IF NOT EXISTS vote (
     voter_id BIGINT,
     candidate_id BIGINT,
     election_id BIGINT,
+    cast_at TIMESTAMP(3) NULL,
     FOREIGN KEY (voter_id) REFERENCES voter(voter_id),
     FOREIGN KEY (candidate_id) REFERENCES candidate(candidate_id),
     FOREIGN KEY (election_id) REFERENCES election(election_id),
     UNIQUE(voter_id, election_id)
 );
 
+-- Vote counts per candidate, maintained in the same transaction as each ballot.
+-- Every candidate has one row per shard so concurrent ballots for the same
+-- candidate update different rows; a candidate's count is the sum of its shards.
+CREATE TABLE IF NOT EXISTS candidate_tally (
+    election_id BIGINT NOT NULL,
+    candidate_id BIGINT NOT NULL,
+    constituency_id BIGINT,
+    shard INT NOT NULL,
+    votes BIGINT NOT NULL DEFAULT 0,
+    PRIMARY KEY (election_id, candidate_id, shard)
+);
+
 CREATE TABLE IF NOT EXISTS admin (
     admin_id BIGINT AUTO_INCREMENT PRIMARY KEY,
     username VARCHAR(50) UNIQUE NOT NULL,
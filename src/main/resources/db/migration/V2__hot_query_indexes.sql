@@ -0,0 +1,36 @@
+-- Secondary indexes for the hot ReportingRepository statements. Each index
+-- lists the statements it serves; QueryPlanTest (src/test) verifies that none
+-- of them falls back to a full table scan.
+--
+-- Indexes on the tables written per ballot (vote, candidate_tally) are kept
+-- to the columns the lookups need, since each one is maintained by every
+-- insert. In particular candidate_tally.votes is left out of the indexes so a
+-- tally increment only touches the clustered row.
+
+-- SQL_CANDIDATE_VOTE_COUNTS, SQL_RECOUNT_TALLY: ballots of one
+-- candidate in one election, counted from the index alone (vote_id is the
+-- clustered key). SQL_DELETE_VOTES_BY_ELECTION also uses it.
+CREATE INDEX idx_vote_election_candidate ON vote (election_id, candidate_id);
+
+-- SQL_VOTE_TIMES: turnout backfill over a cast_at range.
+CREATE INDEX idx_vote_cast_at ON vote (cast_at);
+
+-- SQL_CANDIDATES_FOR_ELECTION, SQL_INSERT_MISSING_TALLY_SHARDS, the ballot
+-- for one constituency, and SQL_DELETE_CANDIDATES_BY_ELECTION.
+CREATE INDEX idx_candidate_election_constituency ON candidate (election_id, constituency_id);
+
+-- SQL_CANDIDATES_WITH_BLOB_SYMBOL: candidates whose symbol has not been moved
+-- to the symbol store yet (symbol_hash IS NULL).
+CREATE INDEX idx_candidate_symbol_hash ON candidate (symbol_hash);
+
+-- SQL_RESULTS_BY_CONSTITUENCY: one constituency's shard rows of an election.
+-- The primary key (election_id, candidate_id, shard) already serves every
+-- other per-election tally statement.
+CREATE INDEX idx_candidate_tally_constituency ON candidate_tally (election_id, constituency_id);
+
+-- SQL_DELETE_TALLY_BY_CANDIDATE: candidate_id is not a prefix of the key.
+CREATE INDEX idx_candidate_tally_candidate ON candidate_tally (candidate_id);
+
+-- SQL_REGISTERED_VOTERS_BY_CONSTITUENCY: grouped from the index instead of
+-- the voter rows.
+CREATE INDEX idx_voter_constituency ON voter (constituency_id);
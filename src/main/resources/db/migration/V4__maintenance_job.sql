@@ -0,0 +1,19 @@
+-- Background deletions (MaintenanceJobService). A job deletes its target's
+-- ballots in bounded chunks, one transaction per chunk, and records its
+-- progress here in the same transaction, so a restarted application resumes
+-- where it stopped. updated_at doubles as the heartbeat: a running job whose
+-- heartbeat is stale is taken over by the next worker that polls.
+CREATE TABLE maintenance_job (
+    job_id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    kind VARCHAR(32) NOT NULL,
+    target_id BIGINT NOT NULL,
+    status VARCHAR(16) NOT NULL,
+    rows_deleted BIGINT NOT NULL DEFAULT 0,
+    message VARCHAR(1000),
+    created_at TIMESTAMP(3) NOT NULL,
+    updated_at TIMESTAMP(3) NOT NULL
+);
+
+-- SQL_NEXT_MAINTENANCE_JOB and SQL_ACTIVE_MAINTENANCE_JOB look up the few
+-- queued and running jobs among the finished ones.
+CREATE INDEX idx_maintenance_job_status ON maintenance_job (status, job_id);
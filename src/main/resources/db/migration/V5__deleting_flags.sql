@@ -0,0 +1,7 @@
+-- Set while a background deletion (MaintenanceJobService) of the election or
+-- candidate is queued, running or has failed. Ballots for a flagged candidate
+-- are refused and flagged rows drop out of listings and results, so a target
+-- whose ballots are only partly deleted is never shown or voted for. Deleting
+-- an election flags its candidates too.
+ALTER TABLE election ADD COLUMN deleting BOOLEAN NOT NULL DEFAULT FALSE;
+ALTER TABLE candidate ADD COLUMN deleting BOOLEAN NOT NULL DEFAULT FALSE;
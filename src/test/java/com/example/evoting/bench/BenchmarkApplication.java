@@ -0,0 +1,97 @@
+package com.example.evoting.bench;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.core.env.Environment;
+import org.springframework.util.FileSystemUtils;
+
+import com.example.evoting.EvotingApplication;
+
+/**
+ * The full application wired against a private in-memory H2 database in MySQL
+ * mode. The schema is created by the Flyway migrations, as in production, and
+ * the tables are then filled by {@link SyntheticData}.
+ * <p>
+ * Properties are passed as command-line arguments so they take precedence over
+ * {@code application.properties}. The scheduled tally reconciliation and the
+ * startup symbol migration are switched off, so neither runs inside a
+ * measurement.
+ */
+public final class BenchmarkApplication implements AutoCloseable {
+
+    private final ConfigurableApplicationContext context;
+    private final Path uploadsDir;
+    private final SyntheticData data;
+
+    private BenchmarkApplication(ConfigurableApplicationContext context, Path uploadsDir, SyntheticData data) {
+        this.context = context;
+        this.uploadsDir = uploadsDir;
+        this.data = data;
+    }
+
+    public static BenchmarkApplication start(int voters, Map<String, String> overrides) {
+        Path uploadsDir;
+        try {
+            uploadsDir = Files.createTempDirectory("evoting-bench");
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        Map<String, String> properties = new LinkedHashMap<>();
+        properties.put("server.port", "0");
+        properties.put("app.datasource.jdbc-url", "jdbc:h2:mem:evoting-" + UUID.randomUUID()
+                + ";MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1");
+        properties.put("app.datasource.driver-class-name", "org.h2.Driver");
+        properties.put("app.datasource.username", "sa");
+        properties.put("app.datasource.password", "");
+        properties.put("app.uploads.dir", uploadsDir.toString());
+        properties.put("app.symbols.migrate-blobs", "false");
+        properties.put("app.tally.reconcile-interval-ms", String.valueOf(24L * 60 * 60 * 1000));
+        properties.put("logging.level.com.example.evoting", "WARN");
+        properties.put("spring.main.banner-mode", "off");
+        properties.putAll(overrides);
+
+        List<String> args = new ArrayList<>();
+        properties.forEach((key, value) -> args.add("--" + key + "=" + value));
+        ConfigurableApplicationContext context = new SpringApplicationBuilder(EvotingApplication.class)
+                .run(args.toArray(String[]::new));
+        try {
+            return new BenchmarkApplication(context, uploadsDir, SyntheticData.generate(context, voters));
+        } catch (RuntimeException e) {
+            context.close();
+            throw e;
+        }
+    }
+
+    public <T> T bean(Class<T> type) {
+        return context.getBean(type);
+    }
+
+    public SyntheticData data() {
+        return data;
+    }
+
+    /**
+     * The port the embedded server listens on, for benchmarks that go through
+     * HTTP.
+     */
+    public int port() {
+        Environment environment = context.getEnvironment();
+        return environment.getRequiredProperty("local.server.port", Integer.class);
+    }
+
+    @Override
+    public void close() {
+        context.close();
+        FileSystemUtils.deleteRecursively(uploadsDir.toFile());
+    }
+}
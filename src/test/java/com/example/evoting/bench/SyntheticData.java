@@ -0,0 +1,218 @@
+package com.example.evoting.bench;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
+import javax.imageio.ImageIO;
+
+import org.springframework.context.ApplicationContext;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+
+import com.example.evoting.repository.ReportingRepository;
+import com.example.evoting.service.BallotCache;
+import com.example.evoting.service.CandidateTallyService;
+import com.example.evoting.service.LiveTallyService;
+import com.example.evoting.service.SymbolService;
+
+/**
+ * Deterministic synthetic electorate, generated inside H2 with
+ * {@code SYSTEM_RANGE} so that even 10M voters load in seconds. The range's
+ * column is {@code "X"}; it is re-exposed as {@code x} because the database is
+ * opened with {@code DATABASE_TO_LOWER=TRUE}, where an unquoted {@code X} means
+ * {@code x}.
+ * <p>
+ * Voter {@code n} has voter_id {@code n}, NID {@code NID<n>} and password
+ * {@code pw<n>}, and lives in constituency {@code n % constituencies + 1}. Each
+ * constituency has {@link #CANDIDATES_PER_CONSTITUENCY} candidates, one per
+ * party, and every party has its own symbol. In the seeded election every
+ * voter with an even id has already voted.
+ */
+public final class SyntheticData {
+
+    public static final int CANDIDATES_PER_CONSTITUENCY = 5;
+    private static final int MAX_CONSTITUENCIES = 300;
+
+    private final NamedParameterJdbcTemplate jdbc;
+    private final ReportingRepository repository;
+    private final int voters;
+    private final int constituencies;
+    private final long electionId;
+    private final long firstCandidateId;
+
+    private SyntheticData(NamedParameterJdbcTemplate jdbc, ReportingRepository repository, int voters,
+            int constituencies, long electionId, long firstCandidateId) {
+        this.jdbc = jdbc;
+        this.repository = repository;
+        this.voters = voters;
+        this.constituencies = constituencies;
+        this.electionId = electionId;
+        this.firstCandidateId = firstCandidateId;
+    }
+
+    static SyntheticData generate(ApplicationContext context, int voters) {
+        NamedParameterJdbcTemplate jdbc = context.getBean(NamedParameterJdbcTemplate.class);
+        int constituencies = Math.min(voters, MAX_CONSTITUENCIES);
+
+        jdbc.update("""
+                INSERT INTO constituency (name)
+                SELECT CONCAT('Constituency ', X) FROM (SELECT "X" AS x FROM SYSTEM_RANGE(1, :n)) r
+                """, new MapSqlParameterSource("n", constituencies));
+        jdbc.update("""
+                INSERT INTO voter (full_name, nid_number, date_of_birth, gender, constituency_id, password)
+                SELECT CONCAT('Voter ', X),
+                       CONCAT('NID', X),
+                       DATEADD('DAY', -MOD(X, 20000), DATE '2000-01-01'),
+                       CASE MOD(X, 2) WHEN 0 THEN 'Male' ELSE 'Female' END,
+                       MOD(X, :constituencies) + 1,
+                       CONCAT('pw', X)
+                FROM (SELECT "X" AS x FROM SYSTEM_RANGE(1, :n)) r
+                """, new MapSqlParameterSource("n", voters).addValue("constituencies", constituencies));
+
+        long electionId = insertElection(jdbc, "Synthetic election");
+        jdbc.update("""
+                INSERT INTO candidate (full_name, party_name, constituency_id, election_id)
+                SELECT CONCAT('Candidate ', X),
+                       CONCAT('Party ', MOD(X - 1, :perConstituency) + 1),
+                       (X - 1) / :perConstituency + 1,
+                       :electionId
+                FROM (SELECT "X" AS x FROM SYSTEM_RANGE(1, :n)) r
+                ORDER BY X
+                """, new MapSqlParameterSource("n", constituencies * CANDIDATES_PER_CONSTITUENCY)
+                .addValue("perConstituency", CANDIDATES_PER_CONSTITUENCY)
+                .addValue("electionId", electionId));
+        long firstCandidateId = firstCandidateId(jdbc, electionId);
+
+        SymbolService symbols = context.getBean(SymbolService.class);
+        for (int party = 1; party <= CANDIDATES_PER_CONSTITUENCY; party++) {
+            jdbc.update("UPDATE candidate SET symbol_hash = :hash WHERE party_name = :party",
+                    new MapSqlParameterSource("hash", symbols.store(symbolImage(party)))
+                            .addValue("party", "Party " + party));
+        }
+
+        SyntheticData data = new SyntheticData(jdbc, context.getBean(ReportingRepository.class), voters,
+                constituencies, electionId, firstCandidateId);
+        jdbc.update("""
+                INSERT INTO vote (voter_id, candidate_id, election_id)
+                SELECT X,
+                       :firstCandidateId + MOD(X, :constituencies) * :perConstituency
+                           + MOD(X / :constituencies, :perConstituency),
+                       :electionId
+                FROM (SELECT "X" AS x FROM SYSTEM_RANGE(1, :n)) r
+                WHERE MOD(X, 2) = 0
+                """, new MapSqlParameterSource("n", voters)
+                .addValue("firstCandidateId", firstCandidateId)
+                .addValue("constituencies", constituencies)
+                .addValue("perConstituency", CANDIDATES_PER_CONSTITUENCY)
+                .addValue("electionId", electionId));
+
+        // The caches and candidate_tally were initialised against empty tables while the context started.
+        context.getBean(CandidateTallyService.class).rebuild(electionId);
+        context.getBean(LiveTallyService.class).evictElection(electionId);
+        context.getBean(BallotCache.class).evictElection(electionId);
+        return data;
+    }
+
+    /**
+     * Creates a fresh election with the same candidates (and symbols) as the
+     * seeded one and no votes, and returns its election_id.
+     */
+    public long newElection(String title) {
+        long id = insertElection(jdbc, title);
+        jdbc.update("""
+                INSERT INTO candidate (full_name, party_name, constituency_id, election_id, symbol_hash)
+                SELECT full_name, party_name, constituency_id, :newElectionId, symbol_hash
+                FROM candidate
+                WHERE election_id = :electionId
+                ORDER BY candidate_id
+                """, new MapSqlParameterSource("newElectionId", id).addValue("electionId", electionId));
+        repository.insertMissingTallyShards(id);
+        return id;
+    }
+
+    public int voters() {
+        return voters;
+    }
+
+    public int constituencies() {
+        return constituencies;
+    }
+
+    public long electionId() {
+        return electionId;
+    }
+
+    public long firstCandidateId() {
+        return firstCandidateId;
+    }
+
+    public long firstCandidateId(long electionId) {
+        return firstCandidateId(jdbc, electionId);
+    }
+
+    public long constituencyOf(long voterId) {
+        return voterId % constituencies + 1;
+    }
+
+    /**
+     * The candidate a voter picks in an election whose candidates start at
+     * {@code firstCandidateId}; spreads votes evenly over the parties.
+     */
+    public long candidateFor(long firstCandidateId, long voterId) {
+        return firstCandidateId + (constituencyOf(voterId) - 1) * CANDIDATES_PER_CONSTITUENCY
+                + (voterId / constituencies) % CANDIDATES_PER_CONSTITUENCY;
+    }
+
+    public static String nid(long voterId) {
+        return "NID" + voterId;
+    }
+
+    public static String password(long voterId) {
+        return "pw" + voterId;
+    }
+
+    private static long insertElection(NamedParameterJdbcTemplate jdbc, String title) {
+        KeyHolder keyHolder = new GeneratedKeyHolder();
+        jdbc.update("""
+                INSERT INTO election (title, start_date, end_date, status)
+                VALUES (:title, CURRENT_DATE, CURRENT_DATE, 'ongoing')
+                """, new MapSqlParameterSource("title", title), keyHolder, new String[] { "election_id" });
+        return keyHolder.getKey().longValue();
+    }
+
+    private static long firstCandidateId(NamedParameterJdbcTemplate jdbc, long electionId) {
+        return jdbc.queryForObject("SELECT MIN(candidate_id) FROM candidate WHERE election_id = :electionId",
+                new MapSqlParameterSource("electionId", electionId), Long.class);
+    }
+
+    /**
+     * A 512px PNG, large enough that thumbnails are generated for it.
+     */
+    private static byte[] symbolImage(int party) {
+        BufferedImage image = new BufferedImage(512, 512, BufferedImage.TYPE_INT_ARGB);
+        Graphics2D g = image.createGraphics();
+        try {
+            g.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+            g.setColor(Color.getHSBColor(party / (float) CANDIDATES_PER_CONSTITUENCY, 0.7f, 0.9f));
+            g.fillOval(16, 16, 480, 480);
+            g.setColor(Color.WHITE);
+            g.fillRect(176, 176, 160, 160);
+        } finally {
+            g.dispose();
+        }
+        try {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            ImageIO.write(image, "png", out);
+            return out.toByteArray();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package com.example.evoting.config;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+class AdaptiveLimiterTest {
+
+    private static final long TARGET_MS = 100;
+    private static final long FAST = TimeUnit.MILLISECONDS.toNanos(10);
+    private static final long SLOW = TimeUnit.MILLISECONDS.toNanos(500);
+
+    @Test
+    void slowOrOverloadedCompletionsShrinkTheLimitDownToTheMinimum() throws InterruptedException {
+        AdaptiveLimiter limiter = new AdaptiveLimiter("vote", 8, 2, 10, TARGET_MS, 0, 0);
+
+        complete(limiter, SLOW, false);
+        assertEquals(8 * 0.9, limiter.getLimit(), 1e-9);
+        complete(limiter, FAST, true);
+        assertEquals(8 * 0.9 * 0.9, limiter.getLimit(), 1e-9);
+
+        for (int i = 0; i < 50; i++) {
+            complete(limiter, SLOW, false);
+        }
+        assertEquals(2, limiter.getLimit(), 1e-9);
+    }
+
+    @Test
+    void limitRecoversOnlyWhileItIsTheConstraint() throws InterruptedException {
+        AdaptiveLimiter limiter = new AdaptiveLimiter("vote", 8, 2, 10, TARGET_MS, 0, 0);
+        for (int i = 0; i < 50; i++) {
+            complete(limiter, SLOW, false);
+        }
+        assertEquals(2, limiter.getLimit(), 1e-9);
+
+        // One request at a time never fills even the minimum limit.
+        for (int i = 0; i < 20; i++) {
+            complete(limiter, FAST, false);
+        }
+        assertEquals(2, limiter.getLimit(), 1e-9);
+
+        // Fast rounds that use every slot grow it by about one per round, up to the maximum.
+        for (int round = 0; round < 100; round++) {
+            int slots = (int) limiter.getLimit();
+            for (int i = 0; i < slots; i++) {
+                assertTrue(limiter.acquire());
+            }
+            for (int i = 0; i < slots; i++) {
+                limiter.release(FAST, false);
+            }
+        }
+        assertEquals(10, limiter.getLimit(), 1e-9);
+    }
+
+    @Test
+    void callerIsTurnedAwayOnceTheLimitAndQueueAreFull() throws InterruptedException {
+        AdaptiveLimiter limiter = new AdaptiveLimiter("vote", 2, 2, 2, TARGET_MS, 0, 0);
+        assertTrue(limiter.acquire());
+        assertTrue(limiter.acquire());
+
+        assertFalse(limiter.acquire());
+        limiter.release(FAST, false);
+        assertTrue(limiter.acquire());
+    }
+
+    private static void complete(AdaptiveLimiter limiter, long latencyNanos, boolean overloaded)
+            throws InterruptedException {
+        assertTrue(limiter.acquire());
+        limiter.release(latencyNanos, overloaded);
+    }
+}
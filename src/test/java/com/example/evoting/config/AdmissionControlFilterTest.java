@@ -0,0 +1,73 @@
+package com.example.evoting.config;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.IOException;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * How {@code POST /vote} outcomes feed the adaptive vote limit.
+ */
+class AdmissionControlFilterTest {
+
+    private static final int INITIAL_LIMIT = 8;
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    // A latency target no test request reaches, so only reported failures shrink the limit.
+    private final AdmissionControlFilter filter = new AdmissionControlFilter(registry, true, INITIAL_LIMIT, 2, 10,
+            60_000, 10, 1_000, 4, 10, 1_000);
+
+    @Test
+    void onlyVoteFailedRedirectCountsAsOverload() throws ServletException, IOException {
+        vote(redirect("/vote/1?error=vote_rejected"));
+        vote(redirect("/login?error=voter_not_found"));
+        vote(redirect("/vote/1?error=vote_failed_elsewhere"));
+        assertEquals(INITIAL_LIMIT, voteLimit());
+
+        vote(redirect("/vote/1?error=vote_failed"));
+        assertEquals(INITIAL_LIMIT * 0.9, voteLimit(), 1e-9);
+    }
+
+    @Test
+    void serverErrorCountsAsOverload() throws ServletException, IOException {
+        vote((request, response) -> ((HttpServletResponse) response).setStatus(500));
+        assertEquals(INITIAL_LIMIT * 0.9, voteLimit(), 1e-9);
+    }
+
+    @Test
+    void voteBeyondTheLimitAndQueueGets503WithRetryAfter() throws ServletException, IOException {
+        AdmissionControlFilter single = new AdmissionControlFilter(registry, true, 1, 1, 1, 100, 0, 1_000, 4, 10,
+                1_000);
+        MockHttpServletResponse turnedAway = new MockHttpServletResponse();
+
+        // The second vote arrives while the first holds the only slot; one round at the
+        // 100 ms latency target is under a second.
+        single.doFilter(new MockHttpServletRequest("POST", "/vote"), new MockHttpServletResponse(),
+                (request, response) -> single.doFilter(new MockHttpServletRequest("POST", "/vote"), turnedAway,
+                        (inner, innerResponse) -> {
+                        }));
+
+        assertEquals(503, turnedAway.getStatus());
+        assertEquals("1", turnedAway.getHeader("Retry-After"));
+    }
+
+    private void vote(FilterChain chain) throws ServletException, IOException {
+        filter.doFilter(new MockHttpServletRequest("POST", "/vote"), new MockHttpServletResponse(), chain);
+    }
+
+    private static FilterChain redirect(String location) {
+        return (request, response) -> ((HttpServletResponse) response).sendRedirect(location);
+    }
+
+    private double voteLimit() {
+        return registry.get("evoting.admission.limit").tag("bulkhead", "vote").gauge().value();
+    }
+}
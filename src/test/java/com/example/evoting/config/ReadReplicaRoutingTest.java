@@ -0,0 +1,101 @@
+package com.example.evoting.config;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import com.example.evoting.bench.BenchmarkApplication;
+import com.example.evoting.bench.SyntheticData;
+import com.example.evoting.model.VoteOutcome;
+import com.example.evoting.service.ReportingService;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * {@link ReadOnlyRoute} methods read from the replica pool, except for a user
+ * who has just written through a {@link ReadWriteRoute} method. The replica pool
+ * points at the primary's embedded database, so both see the migrated schema
+ * and the test can tell them apart only by the pool that handed out the
+ * connection.
+ */
+class ReadReplicaRoutingTest {
+
+    private static final String REPLICA_POOL = "EvotingReplicaPool";
+
+    private static BenchmarkApplication app;
+    private static ReportingService service;
+    private static SyntheticData data;
+
+    @BeforeAll
+    static void start() {
+        String url = "jdbc:h2:mem:routing-" + UUID.randomUUID() + ";MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1";
+        app = BenchmarkApplication.start(100, Map.of(
+                "app.datasource.jdbc-url", url,
+                "app.replica-datasource.jdbc-url", url,
+                "app.replica-datasource.driver-class-name", "org.h2.Driver",
+                "app.replica-datasource.username", "sa",
+                "app.replica-datasource.password", "",
+                "app.replica-datasource.pool-name", REPLICA_POOL));
+        service = app.bean(ReportingService.class);
+        data = app.data();
+    }
+
+    @AfterAll
+    static void stop() {
+        if (app != null) {
+            app.close();
+        }
+    }
+
+    @AfterEach
+    void signOut() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void readOnlyRouteUsesTheReplica() {
+        signIn(SyntheticData.nid(1));
+        long before = replicaAcquisitions();
+
+        service.hasVoterVoted(data.electionId(), 1);
+
+        assertTrue(replicaAcquisitions() > before, "read-only method did not use the replica pool");
+    }
+
+    @Test
+    void readAfterOwnWriteStaysOnThePrimary() {
+        signIn(SyntheticData.nid(3));
+        long electionId = data.newElection("Read your writes");
+        long candidateId = data.candidateFor(data.firstCandidateId(electionId), 3);
+        assertEquals(VoteOutcome.ACCEPTED, service.castVote(electionId, 3, candidateId));
+        long before = replicaAcquisitions();
+
+        assertTrue(service.hasVoterVoted(electionId, 3));
+
+        assertEquals(before, replicaAcquisitions(), "read after the user's own write went to the replica");
+    }
+
+    private static void signIn(String username) {
+        SecurityContextHolder.getContext().setAuthentication(UsernamePasswordAuthenticationToken.authenticated(
+                username, null, List.of(new SimpleGrantedAuthority("ROLE_VOTER"))));
+    }
+
+    private static long replicaAcquisitions() {
+        Timer acquire = app.bean(MeterRegistry.class).find("hikaricp.connections.acquire")
+                .tag("pool", REPLICA_POOL)
+                .timer();
+        return acquire == null ? 0 : acquire.count();
+    }
+}
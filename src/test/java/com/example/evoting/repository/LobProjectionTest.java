@@ -0,0 +1,59 @@
+package com.example.evoting.repository;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Keeps large columns out of the hot reads of {@link ReportingRepository}.
+ * Every {@code SQL_*} constant is checked: no {@code SELECT *}, and no
+ * {@code candidate.symbol} BLOB in a projection except in the statements that
+ * move legacy symbols to the object store.
+ */
+class LobProjectionTest {
+
+    /**
+     * The symbol migration is the only reader of the BLOB column.
+     */
+    private static final Set<String> READS_SYMBOL_BLOB = Set.of("SQL_CANDIDATES_WITH_BLOB_SYMBOL");
+
+    private static final Pattern PROJECTION = Pattern.compile("\\bSELECT\\b(.*?)\\bFROM\\b",
+            Pattern.CASE_INSENSITIVE | Pattern.DOTALL);
+    // A star that is a column list of its own, not the argument of COUNT(*).
+    private static final Pattern STAR = Pattern.compile("(^|,)\\s*(\\w+\\.)?\\*\\s*(,|$)");
+    private static final Pattern SYMBOL_COLUMN = Pattern.compile("\\bsymbol\\b", Pattern.CASE_INSENSITIVE);
+
+    @Test
+    void noStatementSelectsStarOrTheSymbolBlob() {
+        List<String> failures = new ArrayList<>();
+        QueryPlanTest.statements().forEach((name, sql) -> {
+            Matcher projection = PROJECTION.matcher(sql);
+            while (projection.find()) {
+                String columns = projection.group(1).trim();
+                if (STAR.matcher(columns).find()) {
+                    failures.add(name + ": SELECT * in \"" + columns + "\"");
+                }
+                if (SYMBOL_COLUMN.matcher(columns).find() && !READS_SYMBOL_BLOB.contains(name)) {
+                    failures.add(name + ": selects the symbol BLOB in \"" + columns.replaceAll("\\s+", " ") + "\"");
+                }
+            }
+        });
+        assertTrue(failures.isEmpty(), () -> String.join("\n", failures));
+    }
+
+    @Test
+    void checkRecognisesTheColumnsItGuards() {
+        assertTrue(STAR.matcher("*").find());
+        assertTrue(STAR.matcher("c.*, e.title").find());
+        assertFalse(STAR.matcher("COUNT(*) AS total").find());
+        assertTrue(SYMBOL_COLUMN.matcher("c.candidate_id, c.symbol").find());
+        assertFalse(SYMBOL_COLUMN.matcher("c.candidate_id, c.symbol_hash").find());
+    }
+}
@@ -0,0 +1,184 @@
+package com.example.evoting.repository;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+
+import com.example.evoting.bench.BenchmarkApplication;
+import com.example.evoting.bench.SyntheticData;
+
+/**
+ * Plan regression check for {@link ReportingRepository}.
+ * <p>
+ * Seeds an embedded H2 database (MySQL mode) with {@link SyntheticData}, runs
+ * {@code EXPLAIN} on every {@code SQL_*} constant with representative bind
+ * values and fails if a plan scans a whole table that has at least
+ * {@link #MIN_ROWS} rows. Small tables are skipped because scanning them is as
+ * cheap as any index. Statements in {@link #WHOLE_TABLE_BY_DESIGN} read every
+ * row on purpose and are not checked.
+ */
+class QueryPlanTest {
+
+    private static final int VOTERS = 20_000;
+    private static final long MIN_ROWS = 1_000;
+
+    /**
+     * Statements with no selective predicate: startup seeding, the admin
+     * listings and maintenance.
+     */
+    private static final Set<String> WHOLE_TABLE_BY_DESIGN = Set.of(
+            "SQL_SELECT_ELECTIONS",
+            "SQL_ALL_CANDIDATES",
+            "SQL_CONSTITUENCIES",
+            "SQL_REGISTERED_VOTERS_BY_CONSTITUENCY",
+            "SQL_CANDIDATE_TALLIES",
+            "SQL_CANDIDATE_VOTE_COUNTS",
+            "SQL_TALLY_TABLE_TOTALS",
+            "SQL_INSERT_MISSING_TALLY_SHARDS");
+
+    // H2 marks a full scan as "/* schema.table.tableScan */" in the plan text.
+    private static final Pattern H2_TABLE_SCAN = Pattern.compile("([\\w\"]+)\\.([\\w\"]+)\\.tableScan");
+    private static final Pattern NAMED_PARAMETER = Pattern.compile("(?<![:\\w]):([A-Za-z_]\\w*)");
+
+    private static BenchmarkApplication app;
+    private static NamedParameterJdbcTemplate jdbc;
+    private static SyntheticData data;
+
+    @BeforeAll
+    static void seed() {
+        app = BenchmarkApplication.start(VOTERS, Map.of());
+        jdbc = app.bean(NamedParameterJdbcTemplate.class);
+        data = app.data();
+    }
+
+    @AfterAll
+    static void stop() {
+        if (app != null) {
+            app.close();
+        }
+    }
+
+    @Test
+    void noStatementFallsBackToFullTableScan() {
+        Map<String, Long> tableRows = new HashMap<>();
+        List<String> failures = new ArrayList<>();
+        statements().forEach((name, sql) -> {
+            if (WHOLE_TABLE_BY_DESIGN.contains(name)) {
+                return;
+            }
+            String plan;
+            try {
+                plan = explain(name, sql);
+            } catch (RuntimeException e) {
+                failures.add(name + ": EXPLAIN failed: " + e.getMessage());
+                return;
+            }
+            List<String> scans = new ArrayList<>();
+            Matcher matcher = H2_TABLE_SCAN.matcher(plan);
+            while (matcher.find()) {
+                String table = matcher.group(2).replace("\"", "").toLowerCase(Locale.ROOT);
+                long rows = tableRows.computeIfAbsent(table, t -> jdbc.getJdbcTemplate()
+                        .queryForObject("SELECT COUNT(*) FROM " + t, Long.class));
+                if (rows >= MIN_ROWS) {
+                    scans.add(table + " (" + rows + " rows)");
+                }
+            }
+            if (!scans.isEmpty()) {
+                failures.add(name + ": full scan of " + String.join(", ", scans) + "\n    "
+                        + plan.replaceAll("\\s+", " "));
+            }
+        });
+        assertTrue(failures.isEmpty(), () -> failures.size() + " statement(s) fall back to a full table scan:\n"
+                + String.join("\n", failures));
+    }
+
+    /**
+     * Every SQL constant of the repository, by name.
+     */
+    static Map<String, String> statements() {
+        Map<String, String> statements = new TreeMap<>();
+        for (Field field : ReportingRepository.class.getFields()) {
+            int modifiers = field.getModifiers();
+            if (field.getName().startsWith("SQL_") && field.getType() == String.class
+                    && Modifier.isStatic(modifiers) && Modifier.isFinal(modifiers)) {
+                try {
+                    statements.put(field.getName(), (String) field.get(null));
+                } catch (IllegalAccessException e) {
+                    throw new IllegalStateException(e);
+                }
+            }
+        }
+        return statements;
+    }
+
+    private static String explain(String name, String sql) {
+        List<String> rows;
+        if (NAMED_PARAMETER.matcher(sql).find()) {
+            MapSqlParameterSource params = new MapSqlParameterSource();
+            Matcher matcher = NAMED_PARAMETER.matcher(sql);
+            while (matcher.find()) {
+                params.addValue(matcher.group(1), value(matcher.group(1)));
+            }
+            rows = jdbc.queryForList("EXPLAIN " + sql, params, String.class);
+        } else {
+            rows = jdbc.getJdbcTemplate().queryForList("EXPLAIN " + sql, String.class, positional(name, sql));
+        }
+        return String.join("\n", rows);
+    }
+
+    /**
+     * A bind value of the right type for a named parameter, pointing at the
+     * seeded election where it matters.
+     */
+    private static Object value(String parameter) {
+        return switch (parameter) {
+            case "electionId" -> data.electionId();
+            case "candidateId" -> data.firstCandidateId();
+            case "voterId" -> 1L;
+            case "voterIds" -> List.of(1L, 2L, 3L);
+            case "constituencyId" -> 1L;
+            case "afterId" -> 0L;
+            case "limit" -> 50;
+            case "shard" -> 0;
+            case "votes", "rows", "jobId", "targetId" -> 1L;
+            case "castAt", "now", "staleBefore", "updatedAt" -> Timestamp.from(Instant.now());
+            case "dob", "startDate", "endDate" -> "2000-01-01";
+            case "nidNumber" -> SyntheticData.nid(1);
+            default -> "x";
+        };
+    }
+
+    private static Object[] positional(String name, String sql) {
+        return switch (name) {
+            case "SQL_VOTE_TIMES" -> new Object[] {
+                    Timestamp.from(Instant.now().minus(1, ChronoUnit.HOURS)), Timestamp.from(Instant.now()) };
+            default -> {
+                // One election id per placeholder covers the remaining streaming queries.
+                long placeholders = sql.chars().filter(c -> c == '?').count();
+                Object[] values = new Object[(int) placeholders];
+                Arrays.fill(values, data.electionId());
+                yield values;
+            }
+        };
+    }
+}
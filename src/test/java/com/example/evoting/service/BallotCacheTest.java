@@ -0,0 +1,42 @@
+package com.example.evoting.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import com.example.evoting.model.Candidate;
+import com.example.evoting.repository.ReportingRepository;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class BallotCacheTest {
+
+    private final ReportingRepository repository = mock(ReportingRepository.class);
+    private final BallotCache cache = new BallotCache(repository, new SimpleMeterRegistry());
+
+    @Test
+    void unknownElectionIsNotCached() {
+        when(repository.findCandidatesForElection(404L)).thenReturn(List.of());
+
+        assertTrue(cache.candidates(404L).isEmpty());
+        assertTrue(cache.candidates(404L).isEmpty());
+        verify(repository, times(2)).findCandidatesForElection(404L);
+    }
+
+    @Test
+    void electionWithCandidatesIsLoadedOnce() {
+        Candidate candidate = new Candidate(10L, "Candidate", "Party", 1L, 1L);
+        when(repository.findCandidatesForElection(1L)).thenReturn(List.of(candidate));
+
+        assertEquals(List.of(candidate), cache.candidates(1L, 1L));
+        assertEquals(candidate, cache.candidate(1L, 10L));
+        verify(repository, times(1)).findCandidatesForElection(1L);
+    }
+}
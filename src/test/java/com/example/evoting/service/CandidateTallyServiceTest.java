@@ -0,0 +1,57 @@
+package com.example.evoting.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+
+import com.example.evoting.bench.BenchmarkApplication;
+import com.example.evoting.bench.SyntheticData;
+import com.example.evoting.model.CandidateTally;
+import com.example.evoting.model.VoteOutcome;
+import com.example.evoting.repository.ReportingRepository;
+
+/**
+ * The tally reads come from candidate_tally; only {@link CandidateTallyService}
+ * counts the vote table, to find and repair a tally that has drifted from it.
+ */
+class CandidateTallyServiceTest {
+
+    private static final int VOTERS = 1_000;
+
+    @Test
+    void verifyFindsDriftThatTheTallyReadsShowAndRebuildRepairsIt() {
+        try (BenchmarkApplication app = BenchmarkApplication.start(VOTERS, Map.of())) {
+            ReportingService service = app.bean(ReportingService.class);
+            ReportingRepository repository = app.bean(ReportingRepository.class);
+            CandidateTallyService tallies = app.bean(CandidateTallyService.class);
+            SyntheticData data = app.data();
+            long electionId = data.newElection("Tally test");
+            long candidateId = data.candidateFor(data.firstCandidateId(electionId), 1);
+            assertEquals(VoteOutcome.ACCEPTED, service.castVote(electionId, 1, candidateId));
+            assertEquals(List.of(), tallies.verify().elections());
+
+            app.bean(NamedParameterJdbcTemplate.class).update(
+                    "UPDATE candidate_tally SET votes = votes + 5 WHERE candidate_id = :candidateId AND shard = 0",
+                    new MapSqlParameterSource("candidateId", candidateId));
+
+            assertEquals(6, votes(repository.findCandidateTallies(electionId), candidateId));
+            assertEquals(List.of(electionId), tallies.verify().elections());
+
+            tallies.rebuild(electionId);
+            assertEquals(1, votes(repository.findCandidateTallies(electionId), candidateId));
+            assertEquals(List.of(), tallies.verify().elections());
+        }
+    }
+
+    private static long votes(List<CandidateTally> tallies, long candidateId) {
+        return tallies.stream()
+                .filter(row -> row.candidateId() == candidateId)
+                .mapToLong(CandidateTally::totalVotes)
+                .sum();
+    }
+}
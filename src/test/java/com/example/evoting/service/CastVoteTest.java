@@ -0,0 +1,135 @@
+package com.example.evoting.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.example.evoting.bench.BenchmarkApplication;
+import com.example.evoting.bench.SyntheticData;
+import com.example.evoting.model.Ballot;
+import com.example.evoting.model.VoteOutcome;
+import com.example.evoting.repository.ReportingRepository;
+import com.example.evoting.repository.ReportingRepository.VoterBallot;
+
+/**
+ * Ballot outcomes of {@link ReportingService#castVote} in both ingest modes.
+ * {@code vote} has no foreign keys once partitioned, so the insert itself has to
+ * turn away unknown voters and candidates of other elections.
+ */
+class CastVoteTest {
+
+    private static final int VOTERS = 1_000;
+
+    @ParameterizedTest
+    @ValueSource(strings = { "direct", "batched" })
+    void acceptsOnceAndRejectsUnknownVotersAndForeignCandidates(String ingestMode) {
+        try (BenchmarkApplication app = BenchmarkApplication.start(VOTERS,
+                Map.of("app.vote-ingest.mode", ingestMode))) {
+            ReportingService service = app.bean(ReportingService.class);
+            SyntheticData data = app.data();
+            long electionId = data.newElection("Cast vote test");
+            long firstCandidateId = data.firstCandidateId(electionId);
+            long candidateId = data.candidateFor(firstCandidateId, 1);
+
+            assertEquals(VoteOutcome.ACCEPTED, service.castVote(electionId, 1, candidateId));
+            assertEquals(VoteOutcome.ALREADY_VOTED, service.castVote(electionId, 1, candidateId));
+            assertEquals(VoteOutcome.REJECTED, service.castVote(electionId, VOTERS + 1, candidateId));
+            assertEquals(VoteOutcome.REJECTED,
+                    service.castVote(electionId, 3, data.candidateFor(data.firstCandidateId(), 3)));
+
+            NamedParameterJdbcTemplate jdbc = app.bean(NamedParameterJdbcTemplate.class);
+            MapSqlParameterSource election = new MapSqlParameterSource("electionId", electionId);
+            assertEquals(1L, jdbc.queryForObject("SELECT COUNT(*) FROM vote WHERE election_id = :electionId",
+                    election, Long.class));
+            assertEquals(1L, jdbc.queryForObject(
+                    "SELECT COALESCE(SUM(votes), 0) FROM candidate_tally WHERE election_id = :electionId",
+                    election, Long.class));
+        }
+    }
+
+    /**
+     * A resubmitted ballot form gets the outcome of its first submission, not
+     * ALREADY_VOTED, and is written once.
+     */
+    @ParameterizedTest
+    @ValueSource(strings = { "direct", "batched" })
+    void resubmissionWithTheSameTokenIsAnsweredFromTheFirst(String ingestMode) {
+        try (BenchmarkApplication app = BenchmarkApplication.start(VOTERS,
+                Map.of("app.vote-ingest.mode", ingestMode))) {
+            ReportingService service = app.bean(ReportingService.class);
+            SyntheticData data = app.data();
+            long electionId = data.newElection("Resubmission test");
+            long candidateId = data.candidateFor(data.firstCandidateId(electionId), 1);
+
+            assertEquals(VoteOutcome.ACCEPTED, service.castVote(electionId, 1, candidateId, "form-1"));
+            assertEquals(VoteOutcome.ACCEPTED, service.castVote(electionId, 1, candidateId, "form-1"));
+            assertEquals(VoteOutcome.ALREADY_VOTED, service.castVote(electionId, 1, candidateId, "form-2"));
+
+            assertEquals(1L, app.bean(NamedParameterJdbcTemplate.class).queryForObject(
+                    "SELECT COALESCE(SUM(votes), 0) FROM candidate_tally WHERE election_id = :electionId",
+                    new MapSqlParameterSource("electionId", electionId), Long.class));
+        }
+    }
+
+    /**
+     * On an unpartitioned database archiving deletes the ballots from vote, so
+     * the unique key no longer stops a second ballot; the insert has to.
+     */
+    @ParameterizedTest
+    @ValueSource(strings = { "direct", "batched" })
+    void rejectsBallotsAfterTheElectionIsArchived(String ingestMode) {
+        try (BenchmarkApplication app = BenchmarkApplication.start(VOTERS,
+                Map.of("app.vote-ingest.mode", ingestMode))) {
+            ReportingService service = app.bean(ReportingService.class);
+            SyntheticData data = app.data();
+            long electionId = data.newElection("Archived election");
+            long candidateId = data.candidateFor(data.firstCandidateId(electionId), 1);
+            assertEquals(VoteOutcome.ACCEPTED, service.castVote(electionId, 1, candidateId));
+
+            app.bean(ReportingRepository.class).updateElectionStatus(electionId, "completed");
+            service.archiveElection(electionId);
+
+            assertEquals(VoteOutcome.REJECTED, service.castVote(electionId, 1, candidateId));
+            assertEquals(VoteOutcome.REJECTED,
+                    service.castVote(electionId, 2, data.candidateFor(data.firstCandidateId(electionId), 2)));
+            NamedParameterJdbcTemplate jdbc = app.bean(NamedParameterJdbcTemplate.class);
+            MapSqlParameterSource election = new MapSqlParameterSource("electionId", electionId);
+            assertEquals(0L, jdbc.queryForObject("SELECT COUNT(*) FROM vote WHERE election_id = :electionId",
+                    election, Long.class));
+            assertEquals(1L, jdbc.queryForObject(
+                    "SELECT COALESCE(SUM(votes), 0) FROM candidate_tally WHERE election_id = :electionId",
+                    election, Long.class));
+        }
+    }
+
+    /**
+     * A batched ballot whose commit timed out is matched by the cast_at it was
+     * written with, so that value has to read back unchanged.
+     */
+    @Test
+    void ballotReadsBackWithTheCastAtItWasWrittenWith() {
+        try (BenchmarkApplication app = BenchmarkApplication.start(VOTERS, Map.of())) {
+            ReportingRepository repository = app.bean(ReportingRepository.class);
+            SyntheticData data = app.data();
+            long electionId = data.newElection("Cast at test");
+            long candidateId = data.candidateFor(data.firstCandidateId(electionId), 1);
+            Instant castAt = Instant.now().truncatedTo(ChronoUnit.MILLIS);
+
+            new TransactionTemplate(app.bean(PlatformTransactionManager.class)).executeWithoutResult(
+                    status -> repository.insertVotes(List.of(new Ballot(electionId, 1, candidateId)), castAt));
+
+            assertEquals(new VoterBallot(candidateId, castAt), repository.findVoterBallot(electionId, 1));
+        }
+    }
+}
@@ -0,0 +1,149 @@
+package com.example.evoting.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import com.example.evoting.model.CandidateTally;
+import com.example.evoting.repository.ReportingRepository;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class LiveTallyServiceTest {
+
+    private final ReportingRepository repository = mock(ReportingRepository.class);
+    private final LiveTallyService liveTally = new LiveTallyService(repository, new SimpleMeterRegistry());
+    private final ExecutorService threads = Executors.newCachedThreadPool();
+
+    @AfterEach
+    void stop() {
+        threads.shutdownNow();
+    }
+
+    @Test
+    void concurrentReadersShareOneLoad() throws InterruptedException {
+        CountDownLatch querying = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(repository.findCandidateTallies(1L)).thenAnswer(invocation -> {
+            querying.countDown();
+            release.await();
+            return List.of(tally(1L, 10L, 5), tally(1L, 11L, 2));
+        });
+
+        CompletableFuture<List<CandidateTally>> loader = read(1L);
+        assertTrue(querying.await(5, TimeUnit.SECONDS));
+        List<CompletableFuture<List<CandidateTally>>> readers = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            readers.add(read(1L));
+        }
+        // Lets the readers find the election loading.
+        Thread.sleep(100);
+        release.countDown();
+
+        assertEquals(5, votes(loader.join(), 10L));
+        for (CompletableFuture<List<CandidateTally>> reader : readers) {
+            assertEquals(5, votes(reader.join(), 10L));
+        }
+        verify(repository, times(1)).findCandidateTallies(1L);
+    }
+
+    @Test
+    void loadWaitsForBallotInFlightAndCountsItOnce() throws InterruptedException {
+        // The query runs after the ballot committed, so its count includes it.
+        when(repository.findCandidateTallies(1L)).thenReturn(List.of(tally(1L, 10L, 5)));
+        LiveTallyService.BallotRegistration ballot = liveTally.beginBallot(1L);
+
+        CompletableFuture<List<CandidateTally>> reader = read(1L);
+        Thread.sleep(100);
+        assertFalse(reader.isDone());
+        verify(repository, never()).findCandidateTallies(1L);
+        liveTally.recordVote(1L, 10L);
+        ballot.close();
+
+        assertEquals(5, votes(reader.join(), 10L));
+        assertEquals(5, votes(liveTally.snapshot(1L), 10L));
+    }
+
+    @Test
+    void ballotBegunWhileLoadingIsCountedAfterTheLoad() throws InterruptedException {
+        CountDownLatch querying = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(repository.findCandidateTallies(1L)).thenAnswer(invocation -> {
+            querying.countDown();
+            release.await();
+            return List.of(tally(1L, 10L, 5));
+        });
+
+        CompletableFuture<List<CandidateTally>> reader = read(1L);
+        assertTrue(querying.await(5, TimeUnit.SECONDS));
+        CompletableFuture<Void> ballot = CompletableFuture.runAsync(() -> {
+            try (LiveTallyService.BallotRegistration registration = liveTally.beginBallot(1L)) {
+                liveTally.recordVote(1L, 10L);
+            }
+        }, threads);
+        Thread.sleep(100);
+        assertFalse(ballot.isDone());
+        release.countDown();
+
+        ballot.join();
+        assertEquals(5, votes(reader.join(), 10L));
+        assertEquals(6, votes(liveTally.snapshot(1L), 10L));
+    }
+
+    @Test
+    void electionWithoutCandidatesIsNotCached() {
+        when(repository.findCandidateTallies(2L)).thenReturn(List.of());
+
+        assertTrue(liveTally.snapshot(2L).isEmpty());
+        assertTrue(liveTally.snapshot(2L).isEmpty());
+        verify(repository, times(2)).findCandidateTallies(2L);
+    }
+
+    @Test
+    void reconcileCorrectsDriftSeenTwice() {
+        when(repository.findCandidateTallies()).thenReturn(List.of(tally(3L, 30L, 4)));
+        liveTally.seed();
+        liveTally.recordVote(3L, 30L);
+        when(repository.findCandidateTallies()).thenReturn(List.of(tally(3L, 30L, 4)));
+
+        liveTally.reconcile();
+        assertEquals(5, votes(liveTally.snapshot(3L), 30L));
+        assertEquals(0, liveTally.getLastReport().repaired());
+
+        liveTally.reconcile();
+        assertEquals(4, votes(liveTally.snapshot(3L), 30L));
+        assertEquals(1, liveTally.getLastReport().repaired());
+    }
+
+    private CompletableFuture<List<CandidateTally>> read(long electionId) {
+        return CompletableFuture.supplyAsync(() -> liveTally.snapshot(electionId), threads);
+    }
+
+    private static CandidateTally tally(long electionId, long candidateId, long votes) {
+        return new CandidateTally(electionId, candidateId, "Candidate " + candidateId, "Party", votes);
+    }
+
+    private static long votes(List<CandidateTally> standings, long candidateId) {
+        return standings.stream()
+                .filter(row -> row.candidateId() == candidateId)
+                .mapToLong(CandidateTally::totalVotes)
+                .findFirst()
+                .orElseThrow();
+    }
+}
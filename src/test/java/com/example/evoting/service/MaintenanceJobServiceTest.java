@@ -0,0 +1,129 @@
+package com.example.evoting.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Map;
+import java.util.function.Predicate;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+
+import com.example.evoting.bench.BenchmarkApplication;
+import com.example.evoting.bench.SyntheticData;
+import com.example.evoting.model.CandidateTally;
+import com.example.evoting.model.MaintenanceJob;
+import com.example.evoting.model.VoteOutcome;
+
+/**
+ * Background deletions: the target stops taking ballots and leaves the results
+ * as soon as the deletion is queued, a job can only be cancelled before it
+ * starts, and a finished job leaves no ballots or tally rows behind.
+ */
+class MaintenanceJobServiceTest {
+
+    // Enough voters for a second ballot per candidate (300 constituencies, five candidates each).
+    private static final int VOTERS = 2_000;
+
+    @Test
+    void targetIsHiddenWhileItsDeletionRunsAndOnlyQueuedJobsCancel() throws InterruptedException {
+        // One ballot per chunk and a long pause hold the first job after its first chunk.
+        try (BenchmarkApplication app = BenchmarkApplication.start(VOTERS, Map.of(
+                "app.maintenance.chunk-size", "1",
+                "app.maintenance.chunk-pause-ms", "600000"))) {
+            ReportingService service = app.bean(ReportingService.class);
+            MaintenanceJobService jobs = app.bean(MaintenanceJobService.class);
+            SyntheticData data = app.data();
+            long electionId = data.newElection("Deletion test");
+            long first = data.firstCandidateId(electionId);
+            long deleted = data.candidateFor(first, 1);
+            long queued = data.candidateFor(first, 2);
+            assertEquals(VoteOutcome.ACCEPTED, service.castVote(electionId, 1, deleted));
+            assertEquals(VoteOutcome.ACCEPTED, service.castVote(electionId, 2, queued));
+
+            long running = service.deleteCandidate(deleted);
+            MaintenanceJob started = await(jobs, running, job -> job.rowsDeleted() == 1);
+            assertEquals(MaintenanceJob.RUNNING, started.status());
+            long waiting = service.deleteCandidate(queued);
+
+            assertEquals(VoteOutcome.REJECTED,
+                    service.castVote(electionId, voterFor(data, first, deleted, 3), deleted));
+            assertFalse(standsIn(service, electionId, deleted));
+            assertFalse(service.loadVotesPerCandidate(electionId).stream()
+                    .anyMatch(row -> row.candidateId() == deleted));
+            assertFalse(service.cancelDeletion(running), "a running deletion was cancelled");
+
+            assertTrue(service.cancelDeletion(waiting));
+            assertTrue(standsIn(service, electionId, queued));
+            assertEquals(1, votes(service, electionId, queued));
+            assertEquals(VoteOutcome.ACCEPTED,
+                    service.castVote(electionId, voterFor(data, first, queued, 3), queued));
+            assertEquals(2, votes(service, electionId, queued));
+        }
+    }
+
+    @Test
+    void finishedDeletionLeavesNoBallotsOrTally() throws InterruptedException {
+        try (BenchmarkApplication app = BenchmarkApplication.start(VOTERS, Map.of("app.maintenance.chunk-size", "1",
+                "app.maintenance.chunk-pause-ms", "0"))) {
+            ReportingService service = app.bean(ReportingService.class);
+            SyntheticData data = app.data();
+            long electionId = data.newElection("Finished deletion");
+            long first = data.firstCandidateId(electionId);
+            for (int voter = 1; voter <= 3; voter++) {
+                assertEquals(VoteOutcome.ACCEPTED, service.castVote(electionId, voter, data.candidateFor(first, voter)));
+            }
+
+            long jobId = service.deleteElection(electionId);
+            assertFalse(service.loadElections().stream().anyMatch(e -> e.electionId() == electionId));
+            assertEquals(MaintenanceJob.DONE,
+                    await(app.bean(MaintenanceJobService.class), jobId, job -> !job.isActive()).status());
+
+            NamedParameterJdbcTemplate jdbc = app.bean(NamedParameterJdbcTemplate.class);
+            MapSqlParameterSource election = new MapSqlParameterSource("electionId", electionId);
+            assertEquals(0L, jdbc.queryForObject("SELECT COUNT(*) FROM vote WHERE election_id = :electionId",
+                    election, Long.class));
+            assertEquals(0L, jdbc.queryForObject(
+                    "SELECT COUNT(*) FROM candidate_tally WHERE election_id = :electionId", election, Long.class));
+            assertEquals(0L, jdbc.queryForObject("SELECT COUNT(*) FROM candidate WHERE election_id = :electionId",
+                    election, Long.class));
+        }
+    }
+
+    /** First voter from {@code from} on whose ballot lists the candidate. */
+    private static long voterFor(SyntheticData data, long firstCandidateId, long candidateId, long from) {
+        long voterId = from;
+        while (data.candidateFor(firstCandidateId, voterId) != candidateId) {
+            voterId++;
+        }
+        assertTrue(voterId <= VOTERS, "no voter left for candidate " + candidateId);
+        return voterId;
+    }
+
+    private static boolean standsIn(ReportingService service, long electionId, long candidateId) {
+        return service.loadCandidates(electionId).stream().anyMatch(c -> c.candidateId() == candidateId);
+    }
+
+    private static long votes(ReportingService service, long electionId, long candidateId) {
+        return service.loadVotesPerCandidate(electionId).stream()
+                .filter(row -> row.candidateId() == candidateId)
+                .mapToLong(CandidateTally::totalVotes)
+                .sum();
+    }
+
+    private static MaintenanceJob await(MaintenanceJobService jobs, long jobId, Predicate<MaintenanceJob> done)
+            throws InterruptedException {
+        long deadline = System.nanoTime() + 30_000_000_000L;
+        while (System.nanoTime() < deadline) {
+            for (MaintenanceJob job : jobs.recentJobs(10)) {
+                if (job.jobId() == jobId && done.test(job)) {
+                    return job;
+                }
+            }
+            Thread.sleep(50);
+        }
+        throw new AssertionError("job " + jobId + " did not get there in time");
+    }
+}
@@ -0,0 +1,92 @@
+package com.example.evoting.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+import com.example.evoting.bench.BenchmarkApplication;
+import com.example.evoting.bench.SyntheticData;
+import com.example.evoting.model.VoteOutcome;
+import com.example.evoting.repository.ReportingRepository;
+import com.example.evoting.service.TurnoutAnalyticsService.ConstituencyTurnout;
+import com.example.evoting.service.TurnoutAnalyticsService.MinutePoint;
+import com.example.evoting.service.TurnoutAnalyticsService.TurnoutReport;
+
+/**
+ * Ballots reach the turnout series from the startup backfill or from vote
+ * events, and each is counted once in the election, its constituency and its
+ * minute.
+ */
+class TurnoutAnalyticsServiceTest {
+
+    private static final int VOTERS = 1_000;
+    private static final int CAST = 12;
+    private static final int WINDOW = 30;
+
+    @Test
+    void backfilledAndLiveBallotsAreCountedOncePerElectionConstituencyAndMinute() {
+        try (BenchmarkApplication app = BenchmarkApplication.start(VOTERS, Map.of())) {
+            ReportingService service = app.bean(ReportingService.class);
+            TurnoutAnalyticsService turnout = app.bean(TurnoutAnalyticsService.class);
+            SyntheticData data = app.data();
+            // Registered voters were loaded before the synthetic electorate existed.
+            app.bean(ConstituencyDirectory.class).refresh();
+            long electionId = data.newElection("Turnout test");
+            long first = data.firstCandidateId(electionId);
+
+            // Cast before the service started, so only the backfill can see it.
+            Instant earlier = Instant.now().minus(10, ChronoUnit.MINUTES);
+            app.bean(ReportingRepository.class).insertVote(electionId, 1, data.candidateFor(first, 1), earlier);
+            turnout.backfill();
+            for (long voterId = 2; voterId <= CAST; voterId++) {
+                assertEquals(VoteOutcome.ACCEPTED, service.castVote(electionId, voterId,
+                        data.candidateFor(first, voterId)));
+            }
+
+            TurnoutReport report = turnout.report(electionId, WINDOW);
+            assertEquals(VOTERS, report.registeredVoters());
+            assertEquals(CAST, report.ballots());
+            assertEquals(CAST * 100.0 / VOTERS, report.turnoutPercent(), 1e-9);
+            assertEquals(CAST, report.recentBallots());
+
+            List<MinutePoint> series = report.series();
+            assertEquals(WINDOW, series.size());
+            assertEquals(1, ballotsAt(series, earlier));
+            // The election had no ballots before the window, so each point's turnout is everything up to it.
+            long running = 0;
+            for (MinutePoint point : series) {
+                running += point.ballots();
+                assertEquals(running * 100.0 / VOTERS, point.cumulativeTurnoutPercent(), 1e-9);
+            }
+            assertEquals(CAST, running);
+
+            long constituencyOfFirst = data.constituencyOf(1);
+            long expected = 0;
+            for (long voterId = 1; voterId <= CAST; voterId++) {
+                if (data.constituencyOf(voterId) == constituencyOfFirst) {
+                    expected++;
+                }
+            }
+            ConstituencyTurnout constituency = report.constituencies().stream()
+                    .filter(row -> row.constituencyId() == constituencyOfFirst)
+                    .findFirst()
+                    .orElseThrow();
+            assertEquals(expected, constituency.ballots());
+            assertEquals(expected, constituency.recentBallots());
+            assertEquals(CAST, report.constituencies().stream().mapToLong(ConstituencyTurnout::recentBallots).sum());
+        }
+    }
+
+    private static long ballotsAt(List<MinutePoint> series, Instant instant) {
+        Instant minute = instant.truncatedTo(ChronoUnit.MINUTES);
+        return series.stream()
+                .filter(point -> point.minute().equals(minute))
+                .mapToLong(MinutePoint::ballots)
+                .sum();
+    }
+}
@@ -0,0 +1,110 @@
+package com.example.evoting.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import com.example.evoting.model.Ballot;
+import com.example.evoting.model.VoteOutcome;
+import com.example.evoting.repository.ReportingRepository;
+import com.example.evoting.repository.ReportingRepository.VoterBallot;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class VoteIngestionPipelineTest {
+
+    private final ReportingRepository repository = mock(ReportingRepository.class);
+    private VoteIngestionPipeline pipeline;
+
+    @AfterEach
+    void stop() throws InterruptedException {
+        pipeline.stop();
+    }
+
+    @Test
+    void voterWhoAlreadyVotedDoesNotFailTheBatch() {
+        pipeline = start(2, 10_000);
+        when(repository.findVotersWhoVoted(eq(1L), anyList())).thenReturn(Set.of(11L));
+        when(repository.insertVotes(eq(List.of(new Ballot(1L, 12L, 100L))), any(Instant.class)))
+                .thenReturn(new int[] { 1 });
+
+        CompletableFuture<VoteOutcome> repeat = CompletableFuture.supplyAsync(() -> pipeline.submit(1L, 11L, 100L));
+        CompletableFuture<VoteOutcome> first = CompletableFuture.supplyAsync(() -> pipeline.submit(1L, 12L, 100L));
+
+        assertEquals(VoteOutcome.ALREADY_VOTED, repeat.join());
+        assertEquals(VoteOutcome.ACCEPTED, first.join());
+        verify(repository, never()).insertVote(anyLong(), anyLong(), anyLong(), any(Instant.class));
+    }
+
+    @Test
+    void ballotCommittedAfterTheTimeoutIsReportedAccepted() throws InterruptedException {
+        pipeline = start(1, 200);
+        AtomicReference<Instant> written = new AtomicReference<>();
+        CountDownLatch writing = slowInsert(2L, written);
+        when(repository.findVoterBallot(2L, 21L)).thenAnswer(invocation -> new VoterBallot(200L, written.get()));
+
+        CompletableFuture<VoteOutcome> outcome = CompletableFuture.supplyAsync(() -> pipeline.submit(2L, 21L, 200L));
+
+        assertTrue(writing.await(5, TimeUnit.SECONDS));
+        assertEquals(VoteOutcome.ACCEPTED, outcome.join());
+        verify(repository).findVoterBallot(2L, 21L);
+    }
+
+    @Test
+    void ballotOfAnEarlierSubmissionIsReportedAlreadyVoted() throws InterruptedException {
+        pipeline = start(1, 200);
+        CountDownLatch writing = slowInsert(3L, new AtomicReference<>());
+        // Same candidate, written by another submission a minute earlier.
+        when(repository.findVoterBallot(3L, 31L))
+                .thenReturn(new VoterBallot(300L, Instant.now().minusSeconds(60).truncatedTo(ChronoUnit.MILLIS)));
+
+        CompletableFuture<VoteOutcome> outcome = CompletableFuture.supplyAsync(() -> pipeline.submit(3L, 31L, 300L));
+
+        assertTrue(writing.await(5, TimeUnit.SECONDS));
+        assertEquals(VoteOutcome.ALREADY_VOTED, outcome.join());
+    }
+
+    /**
+     * Makes the batch insert outlast both waits of the caller, and reports the
+     * cast_at it was given.
+     */
+    private CountDownLatch slowInsert(long electionId, AtomicReference<Instant> castAt) {
+        CountDownLatch writing = new CountDownLatch(1);
+        when(repository.findVotersWhoVoted(eq(electionId), anyList())).thenReturn(Set.of());
+        when(repository.insertVotes(anyList(), any(Instant.class))).thenAnswer(invocation -> {
+            castAt.set(invocation.getArgument(1));
+            writing.countDown();
+            Thread.sleep(600);
+            return new int[] { 1 };
+        });
+        return writing;
+    }
+
+    private VoteIngestionPipeline start(int batchSize, long commitTimeoutMs) {
+        VoteIngestionPipeline started = new VoteIngestionPipeline(repository, mock(PlatformTransactionManager.class),
+                mock(LiveTallyService.class), new SimpleMeterRegistry(), "batched", batchSize, 200, 100, 1_000,
+                commitTimeoutMs);
+        started.start();
+        return started;
+    }
+}
@@ -0,0 +1,57 @@
+package com.example.evoting.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.Test;
+
+import com.example.evoting.model.VoteOutcome;
+
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class VoteMetricsTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final VoteMetrics metrics = new VoteMetrics(registry);
+
+    @Test
+    void electionIsTaggedOnlyOnceABallotIsAccepted() {
+        for (long electionId = 1_000; electionId < 1_100; electionId++) {
+            metrics.record(electionId, VoteOutcome.REJECTED);
+        }
+        metrics.record(1L, VoteOutcome.ALREADY_VOTED);
+        metrics.record(1L, VoteOutcome.ACCEPTED);
+        metrics.record(1L, VoteOutcome.REJECTED);
+
+        assertEquals(Set.of(VoteMetrics.UNKNOWN_ELECTION, "1"), elections());
+        assertEquals(100, count(VoteMetrics.UNKNOWN_ELECTION, "rejected"));
+        assertEquals(1, count(VoteMetrics.UNKNOWN_ELECTION, "already_voted"));
+        assertEquals(1, count("1", "accepted"));
+        assertEquals(1, count("1", "rejected"));
+    }
+
+    @Test
+    void deletedElectionLosesItsCounters() {
+        metrics.record(2L, VoteOutcome.ACCEPTED);
+        metrics.evictElection(2L);
+        metrics.record(2L, VoteOutcome.REJECTED);
+
+        assertEquals(Set.of(VoteMetrics.UNKNOWN_ELECTION), elections());
+        assertEquals(1, count(VoteMetrics.UNKNOWN_ELECTION, "rejected"));
+    }
+
+    private Set<String> elections() {
+        return registry.find(VoteMetrics.VOTES_CAST).meters().stream()
+                .map(Meter::getId)
+                .map(id -> id.getTag("election"))
+                .collect(Collectors.toSet());
+    }
+
+    private double count(String election, String outcome) {
+        return registry.get(VoteMetrics.VOTES_CAST).tag("election", election).tag("outcome", outcome).counter()
+                .count();
+    }
+}
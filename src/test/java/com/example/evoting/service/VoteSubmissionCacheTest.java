@@ -0,0 +1,91 @@
+package com.example.evoting.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import com.example.evoting.model.VoteOutcome;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class VoteSubmissionCacheTest {
+
+    private final VoteSubmissionCache submissions = new VoteSubmissionCache(new SimpleMeterRegistry(), 1_000, 600,
+            5_000);
+    private final ExecutorService threads = Executors.newCachedThreadPool();
+    private final AtomicInteger casts = new AtomicInteger();
+
+    @AfterEach
+    void stop() {
+        threads.shutdownNow();
+    }
+
+    @Test
+    void resubmissionGetsTheFirstOutcomeWithoutCastingAgain() {
+        assertEquals(VoteOutcome.ACCEPTED, submissions.submit(1L, "token", this::accept));
+        assertEquals(VoteOutcome.ACCEPTED, submissions.submit(1L, "token", this::accept));
+        assertEquals(1, casts.get());
+
+        // Another voter, another token or no token at all is a new submission.
+        submissions.submit(2L, "token", this::accept);
+        submissions.submit(1L, "other", this::accept);
+        submissions.submit(1L, null, this::accept);
+        assertEquals(4, casts.get());
+    }
+
+    @Test
+    void repeatWhileTheFirstIsRunningWaitsForItsOutcome() throws InterruptedException {
+        CountDownLatch casting = new CountDownLatch(1);
+        CountDownLatch commit = new CountDownLatch(1);
+        CompletableFuture<VoteOutcome> first = CompletableFuture.supplyAsync(() -> submissions.submit(1L, "token",
+                () -> {
+                    casting.countDown();
+                    await(commit);
+                    return accept();
+                }), threads);
+        assertTrue(casting.await(5, TimeUnit.SECONDS));
+
+        CompletableFuture<VoteOutcome> repeat = CompletableFuture.supplyAsync(
+                () -> submissions.submit(1L, "token", this::accept), threads);
+        // Lets the repeat find the first submission still running.
+        Thread.sleep(100);
+        commit.countDown();
+
+        assertEquals(VoteOutcome.ACCEPTED, first.join());
+        assertEquals(VoteOutcome.ACCEPTED, repeat.join());
+        assertEquals(1, casts.get());
+    }
+
+    @Test
+    void failedSubmissionIsRetried() {
+        assertThrows(IllegalStateException.class, () -> submissions.submit(1L, "token", () -> {
+            throw new IllegalStateException("Vote ingestion queue is full");
+        }));
+
+        assertEquals(VoteOutcome.ACCEPTED, submissions.submit(1L, "token", this::accept));
+        assertEquals(1, casts.get());
+    }
+
+    private VoteOutcome accept() {
+        casts.incrementAndGet();
+        return VoteOutcome.ACCEPTED;
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package com.example.evoting.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+import com.example.evoting.bench.BenchmarkApplication;
+import com.example.evoting.bench.SyntheticData;
+import com.example.evoting.model.Voter;
+
+/**
+ * Voter writes through {@link ReportingService} drop the cached identities they
+ * change, cached misses included.
+ */
+class VoterIdentityCacheTest {
+
+    private static final int VOTERS = 100;
+
+    @Test
+    void registeredVoterIsFoundDespiteCachedMisses() {
+        try (BenchmarkApplication app = BenchmarkApplication.start(VOTERS, Map.of())) {
+            ReportingService service = app.bean(ReportingService.class);
+            String nid = "NID-NEW";
+            String nextId = String.valueOf(VOTERS + 1);
+            assertNull(service.findVoterByLogin(nid));
+            assertNull(service.findVoterByLogin(nextId));
+
+            service.addVoter("New Voter", nid, "1990-01-01", "F", "secret");
+
+            Voter byNid = service.findVoterByLogin(nid);
+            assertNotNull(byNid);
+            assertEquals(VOTERS + 1, byNid.voterId());
+            assertEquals(byNid, service.findVoterByLogin(nextId));
+        }
+    }
+
+    @Test
+    void changedPasswordIsUsedAtTheNextLogin() {
+        try (BenchmarkApplication app = BenchmarkApplication.start(VOTERS, Map.of())) {
+            ReportingService service = app.bean(ReportingService.class);
+            SyntheticData data = app.data();
+            String nid = SyntheticData.nid(1);
+            Voter voter = service.findVoterByNid(nid);
+
+            service.changeVoterPassword(voter.voterId(), "changed");
+
+            assertEquals(voter, service.findVoterById(voter.voterId()));
+            assertEquals(voter, service.loginVoter(nid, "changed", data.electionId()).voter());
+            assertThrows(IllegalArgumentException.class, () -> service.loginVoter(nid, "wrong", data.electionId()));
+        }
+    }
+}